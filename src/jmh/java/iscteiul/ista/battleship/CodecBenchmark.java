@@ -0,0 +1,86 @@
+package iscteiul.ista.battleship;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks da escrita e leitura de snapshots de jogos por {@link GameCodec},
+ * em JSON e nos formatos binários Smile e CBOR.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    /** Formato de serialização. */
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    /** Número de tiros disparados no jogo serializado. */
+    @Param({"0", "50", "100"})
+    public int shots;
+
+    private GameCodec codec;
+    private Game game;
+    private byte[] encoded;
+
+    /**
+     * Prepara o codec e um jogo com o número de tiros indicado, já codificado.
+     *
+     * @throws IOException Se a codificação falhar.
+     */
+    @Setup
+    public void setup() throws IOException {
+        switch (format) {
+            case "smile":
+                codec = GameCodec.smile();
+                break;
+            case "cbor":
+                codec = GameCodec.cbor();
+                break;
+            default:
+                codec = GameCodec.json();
+        }
+        game = new Game(new FleetGenerator(42).generate(0));
+        for (int i = 0; i < shots; i++)
+            game.fire(Position.of(i / IFleet.BOARD_SIZE, i % IFleet.BOARD_SIZE));
+        encoded = codec.toBytes(game);
+    }
+
+    /**
+     * Codifica o snapshot do jogo.
+     *
+     * @return Os bytes do snapshot.
+     * @throws IOException Se a codificação falhar.
+     */
+    @Benchmark
+    public byte[] write() throws IOException {
+        return codec.toBytes(game);
+    }
+
+    /**
+     * Descodifica o snapshot do jogo, reconstruindo a frota e repetindo os tiros.
+     *
+     * @return O jogo reconstruído.
+     * @throws IOException Se a descodificação falhar.
+     */
+    @Benchmark
+    public Game read() throws IOException {
+        return codec.fromBytes(encoded);
+    }
+}
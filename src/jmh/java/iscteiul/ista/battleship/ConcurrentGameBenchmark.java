@@ -0,0 +1,138 @@
+package iscteiul.ista.battleship;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Escalabilidade de vários atiradores sobre o mesmo jogo: {@link ConcurrentGame} comparado com
+ * um {@link Game} protegido por um único lock, com 1, 2, 4 e todas as threads disponíveis.
+ * <p>
+ * O jogo é partilhado por todas as threads e só é recriado no início de cada iteração; cada
+ * thread dispara sobre células aleatórias. O tabuleiro esgota-se muito antes do fim da
+ * iteração (no 10x10 ao fim de algumas centenas de tiros, no 1000x1000 ao fim de alguns milhões),
+ * e a partir daí todos os tiros são repetidos. O resultado mede portanto sobretudo o caminho dos
+ * tiros repetidos (a leitura do bitset de células, ou o lock global) sob contenção, e não a
+ * mistura de resultados de um jogo real.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentGameBenchmark {
+
+    /**
+     * Gerador de células aleatórias de cada thread.
+     */
+    @State(Scope.Thread)
+    public static class Shooter {
+
+        private final SplittableRandom random = new SplittableRandom();
+    }
+
+    /** Implementação do jogo: sem locks ({@code concurrent}) ou com um lock global ({@code locked}). */
+    @Param({"concurrent", "locked"})
+    public String implementation;
+
+    /** Tamanho (lado) do tabuleiro; os navios ocupam sempre o canto 10x10 superior esquerdo. */
+    @Param({"10", "1000"})
+    public int boardSize;
+
+    private IGame game;
+    private ConcurrentGame concurrent;
+    private int cells;
+
+    /**
+     * Cria um jogo novo sobre uma frota regulamentar antes de cada iteração.
+     */
+    @Setup(Level.Iteration)
+    public void setup() {
+        Fleet fleet = new Fleet(boardSize);
+        for (IShip ship : new FleetGenerator(42).generate(0).getShips())
+            fleet.addShip(ship);
+        cells = boardSize * boardSize;
+        concurrent = "concurrent".equals(implementation) ? new ConcurrentGame(fleet) : null;
+        game = concurrent != null ? concurrent : new Game(fleet);
+    }
+
+    /**
+     * Dispara sobre uma célula aleatória do jogo partilhado.
+     *
+     * @param shooter O estado da thread.
+     * @return O resultado do disparo.
+     */
+    private Object fire(Shooter shooter) {
+        int cell = shooter.random.nextInt(cells);
+        if (concurrent != null)
+            return concurrent.fireAt(cell / boardSize, cell % boardSize);
+        IPosition pos = Position.of(cell / boardSize, cell % boardSize);
+        synchronized (game) {
+            game.fire(pos);
+            return game.getLastOutcome();
+        }
+    }
+
+    /**
+     * Disparo com uma thread.
+     *
+     * @param shooter O estado da thread.
+     * @return O resultado do disparo.
+     */
+    @Benchmark
+    @Threads(1)
+    public Object fire1(Shooter shooter) {
+        return fire(shooter);
+    }
+
+    /**
+     * Disparo com duas threads.
+     *
+     * @param shooter O estado da thread.
+     * @return O resultado do disparo.
+     */
+    @Benchmark
+    @Threads(2)
+    public Object fire2(Shooter shooter) {
+        return fire(shooter);
+    }
+
+    /**
+     * Disparo com quatro threads.
+     *
+     * @param shooter O estado da thread.
+     * @return O resultado do disparo.
+     */
+    @Benchmark
+    @Threads(4)
+    public Object fire4(Shooter shooter) {
+        return fire(shooter);
+    }
+
+    /**
+     * Disparo com uma thread por processador.
+     *
+     * @param shooter O estado da thread.
+     * @return O resultado do disparo.
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object fireMax(Shooter shooter) {
+        return fire(shooter);
+    }
+}
@@ -0,0 +1,178 @@
+package iscteiul.ista.battleship;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks de {@link Fleet#addShip(IShip)} e {@link Fleet#shipAt(IPosition)}
+ * para diferentes tamanhos de frota e de tabuleiro.
+ * <p>
+ * Cada implementação de frota tem a sua subclasse, com os seus próprios tamanhos de tabuleiro:
+ * a {@link BitboardFleet} só aceita tabuleiros até {@value BitboardFleet#MAX_CELLS} células,
+ * pelo que não é medida no tabuleiro de 1000x1000.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class FleetBenchmark {
+
+    /**
+     * Benchmarks da {@link Fleet}.
+     */
+    @State(Scope.Thread)
+    public static class Standard extends FleetBenchmark {
+
+        /** Tamanho (lado) do tabuleiro; os navios ocupam sempre o canto 10x10 superior esquerdo. */
+        @Param({"10", "64", "1000"})
+        public int boardSize;
+
+        /**
+         * Obtém o tamanho (lado) do tabuleiro selecionado.
+         *
+         * @return O tamanho do tabuleiro.
+         */
+        @Override
+        int boardSize() {
+            return boardSize;
+        }
+
+        /**
+         * Cria uma {@link Fleet} vazia.
+         *
+         * @return A frota criada.
+         */
+        @Override
+        IFleet newFleet() {
+            return new Fleet(boardSize);
+        }
+    }
+
+    /**
+     * Benchmarks da {@link BitboardFleet}, nos tabuleiros que a tabela densa suporta.
+     */
+    @State(Scope.Thread)
+    public static class Bitboard extends FleetBenchmark {
+
+        /** Tamanho (lado) do tabuleiro; os navios ocupam sempre o canto 10x10 superior esquerdo. */
+        @Param({"10", "64"})
+        public int boardSize;
+
+        /**
+         * Obtém o tamanho (lado) do tabuleiro selecionado.
+         *
+         * @return O tamanho do tabuleiro.
+         */
+        @Override
+        int boardSize() {
+            return boardSize;
+        }
+
+        /**
+         * Cria uma {@link BitboardFleet} vazia.
+         *
+         * @return A frota criada.
+         */
+        @Override
+        IFleet newFleet() {
+            return new BitboardFleet(boardSize);
+        }
+    }
+
+    /** Número de navios da frota (os primeiros navios de uma frota gerada). */
+    @Param({"1", "5", "11"})
+    public int ships;
+
+    private List<IShip> candidates;
+    private IFleet fleet;
+    private IPosition[] cells;
+    private int[] cellIndices;
+
+    /**
+     * Prepara os navios candidatos, uma frota já preenchida e uma amostra de 100 células
+     * espalhadas uniformemente pelo tabuleiro.
+     */
+    @Setup
+    public void setup() {
+        int boardSize = boardSize();
+        candidates = new FleetGenerator(42).generate(0).getShips().subList(0, ships);
+        fleet = newFleet();
+        for (IShip s : candidates)
+            fleet.addShip(s);
+
+        cells = new IPosition[100];
+        for (int i = 0; i < cells.length; i++)
+            cells[i] = Position.of(i / 10 * boardSize / 10, i % 10 * boardSize / 10);
+        cellIndices = new int[cells.length];
+        for (int i = 0; i < cells.length; i++)
+            cellIndices[i] = cells[i].getRow() * boardSize + cells[i].getColumn();
+    }
+
+    /**
+     * Obtém o tamanho (lado) do tabuleiro selecionado.
+     *
+     * @return O tamanho do tabuleiro.
+     */
+    abstract int boardSize();
+
+    /**
+     * Cria uma frota vazia da implementação medida.
+     *
+     * @return A frota criada.
+     */
+    abstract IFleet newFleet();
+
+    /**
+     * Constrói uma frota completa, adicionando todos os navios candidatos.
+     *
+     * @return A frota construída.
+     */
+    @Benchmark
+    public IFleet addShip() {
+        IFleet f = newFleet();
+        for (int i = 0; i < candidates.size(); i++)
+            f.addShip(candidates.get(i));
+        return f;
+    }
+
+    /**
+     * Procura o navio de cada célula da amostra.
+     *
+     * @param bh O blackhole que consome os resultados.
+     */
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void shipAt(Blackhole bh) {
+        for (IPosition p : cells)
+            bh.consume(fleet.shipAt(p));
+    }
+
+    /**
+     * Procura o navio de cada célula da amostra, usando os índices das células.
+     *
+     * @param bh O blackhole que consome os resultados.
+     */
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void shipAtCell(Blackhole bh) {
+        for (int cell : cellIndices)
+            bh.consume(fleet.shipAt(cell));
+    }
+}
@@ -0,0 +1,142 @@
+package iscteiul.ista.battleship;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks de {@link Game#fire(IPosition)}, incluindo tiros repetidos, e de jogos completos
+ * com cada estratégia de disparo, em tabuleiros de vários tamanhos.
+ * <p>
+ * Os disparos alteram o estado dos navios, pelo que cada invocação precisa de um jogo novo.
+ * Em vez de um {@code @Setup(Level.Invocation)}, cujo custo de chamada contamina medições tão
+ * curtas, cada iteração prepara um lote de {@value #GAMES} jogos e mede o tempo de os jogar
+ * todos ({@link Mode#SingleShotTime} com {@code batchSize}); o resultado é o tempo do lote.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = GameBenchmark.GAMES)
+@Measurement(iterations = 10, batchSize = GameBenchmark.GAMES)
+@Fork(1)
+public class GameBenchmark {
+
+    /** Número de jogos preparados por iteração, um por invocação. */
+    static final int GAMES = 1000;
+
+    /**
+     * Estado dos jogos completos, parametrizado pela estratégia de disparo.
+     */
+    @State(Scope.Thread)
+    public static class Playout {
+
+        /** Estratégia de disparo usada nos jogos completos. */
+        @Param({"random", "hunt", "density"})
+        public String strategy;
+
+        /**
+         * Cria a estratégia de disparo selecionada.
+         *
+         * @param random    O gerador de números aleatórios da estratégia.
+         * @param boardSize O tamanho (lado) do tabuleiro.
+         * @return A estratégia criada.
+         */
+        IShotStrategy newStrategy(SplittableRandom random, int boardSize) {
+            switch (strategy) {
+                case "hunt":
+                    return new HuntTargetShotStrategy(random, boardSize);
+                case "density":
+                    return new DensityShotStrategy(random, boardSize);
+                default:
+                    return new RandomShotStrategy(random, boardSize);
+            }
+        }
+    }
+
+    /** Tamanho (lado) do tabuleiro, até ao maior suportado pelo {@link FleetGenerator}. */
+    @Param({"10", "32", "64"})
+    public int boardSize;
+
+    private FleetGenerator generator;
+    private SimulationEngine engine;
+    private IPosition[] cells;
+    private long index;
+
+    /** Jogos por jogar da iteração atual. */
+    private final Game[] games = new Game[GAMES];
+    private int next;
+
+    /**
+     * Prepara o gerador de frotas e todas as células do tabuleiro.
+     */
+    @Setup
+    public void setup() {
+        generator = new FleetGenerator(42, boardSize);
+        engine = new SimulationEngine(generator::generate, i -> new RandomShotStrategy(new SplittableRandom(i), boardSize),
+                ForkJoinPool.commonPool(), boardSize);
+        cells = new IPosition[boardSize * boardSize];
+        for (int i = 0; i < cells.length; i++)
+            cells[i] = Position.of(i / boardSize, i % boardSize);
+    }
+
+    /**
+     * Prepara os jogos da iteração, cada um com uma frota nova, já que os disparos alteram o estado dos navios.
+     */
+    @Setup(Level.Iteration)
+    public void newGames() {
+        for (int i = 0; i < GAMES; i++)
+            games[i] = new Game(generator.generate(index++));
+        next = 0;
+    }
+
+    /**
+     * Obtém o próximo jogo por jogar da iteração.
+     *
+     * @return O jogo, ainda sem disparos.
+     */
+    private Game nextGame() {
+        return games[next++];
+    }
+
+    /**
+     * Dispara em todas as células do tabuleiro e, de seguida, repete todos esses disparos.
+     *
+     * @return O jogo no fim dos disparos.
+     */
+    @Benchmark
+    public IGame fireWithRepeats() {
+        IGame game = nextGame();
+        for (IPosition p : cells)
+            game.fire(p);
+        for (IPosition p : cells)
+            game.fire(p);
+        return game;
+    }
+
+    /**
+     * Joga um jogo completo com a estratégia selecionada.
+     *
+     * @param playout O estado com a estratégia selecionada.
+     * @return O relatório do jogo.
+     */
+    @Benchmark
+    public SimulationReport playout(Playout playout) {
+        SimulationReport report = new SimulationReport(4 * cells.length);
+        engine.play(nextGame().getFleet(), playout.newStrategy(new SplittableRandom(index + next), boardSize), report);
+        return report;
+    }
+}
@@ -0,0 +1,131 @@
+package iscteiul.ista.battleship;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks de {@link PositionMap} contra um {@code HashMap<IPosition, IShip>} com as mesmas
+ * entradas: consultas (metade a coordenadas presentes, metade a ausentes) e construção do mapa.
+ * As coordenadas são espalhadas por um tabuleiro de {@value #BOARD_SIZE} de lado, como as
+ * células ocupadas ou alvejadas num tabuleiro grande.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PositionMapBenchmark {
+
+    private static final int BOARD_SIZE = 10_000;
+
+    private static final int PROBES = 1024;
+
+    /** Número de entradas do mapa (25 = as células de uma frota completa). */
+    @Param({"25", "1000", "100000"})
+    public int entries;
+
+    private IPosition[] keys;
+    private IPosition[] probes;
+    private IShip ship;
+    private PositionMap<IShip> positionMap;
+    private Map<IPosition, IShip> hashMap;
+
+    /**
+     * Prepara as coordenadas distintas, os dois mapas preenchidos e as coordenadas a consultar.
+     */
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        ship = Ship.buildShip("barca", Compass.NORTH, Position.of(0, 0));
+        PositionSet distinct = new PositionSet(2 * entries);
+        keys = new IPosition[entries];
+        for (int i = 0; i < entries; ) {
+            int row = random.nextInt(BOARD_SIZE);
+            int column = random.nextInt(BOARD_SIZE);
+            if (distinct.add(row, column))
+                keys[i++] = new Position(row, column);
+        }
+        positionMap = buildPositionMap();
+        hashMap = buildHashMap();
+
+        probes = new IPosition[PROBES];
+        for (int i = 0; i < PROBES; ) {
+            if (i % 2 == 0) {
+                IPosition key = keys[random.nextInt(entries)];
+                probes[i++] = new Position(key.getRow(), key.getColumn());
+            } else {
+                int row = random.nextInt(BOARD_SIZE);
+                int column = random.nextInt(BOARD_SIZE);
+                if (!distinct.contains(row, column))
+                    probes[i++] = new Position(row, column);
+            }
+        }
+    }
+
+    /**
+     * Constrói um {@link PositionMap} com todas as coordenadas.
+     *
+     * @return O mapa preenchido.
+     */
+    @Benchmark
+    public PositionMap<IShip> buildPositionMap() {
+        PositionMap<IShip> map = new PositionMap<>();
+        for (IPosition key : keys)
+            map.put(key, ship);
+        return map;
+    }
+
+    /**
+     * Constrói um {@code HashMap<IPosition, IShip>} com todas as coordenadas.
+     *
+     * @return O mapa preenchido.
+     */
+    @Benchmark
+    public Map<IPosition, IShip> buildHashMap() {
+        Map<IPosition, IShip> map = new HashMap<>();
+        for (IPosition key : keys)
+            map.put(key, ship);
+        return map;
+    }
+
+    /**
+     * Consulta cada coordenada da amostra no {@link PositionMap}.
+     *
+     * @param bh O blackhole que consome os resultados.
+     */
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public void getPositionMap(Blackhole bh) {
+        for (IPosition p : probes)
+            bh.consume(positionMap.get(p));
+    }
+
+    /**
+     * Consulta cada coordenada da amostra no {@code HashMap}.
+     *
+     * @param bh O blackhole que consome os resultados.
+     */
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public void getHashMap(Blackhole bh) {
+        for (IPosition p : probes)
+            bh.consume(hashMap.get(p));
+    }
+}
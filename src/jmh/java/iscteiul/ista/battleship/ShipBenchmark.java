@@ -0,0 +1,99 @@
+package iscteiul.ista.battleship;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks de {@link Ship#occupies(IPosition)} e {@link Ship#tooCloseTo(IShip)}
+ * para cada tipo de navio e vários tamanhos de tabuleiro.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShipBenchmark {
+
+    /** Tipo de navio a medir. */
+    @Param({"barca", "caravela", "nau", "fragata", "galeao"})
+    public String kind;
+
+    /** Tamanho (lado) do tabuleiro, até ao maior suportado pelo {@link FleetGenerator}; o navio fica no centro. */
+    @Param({"10", "32", "64"})
+    public int boardSize;
+
+    private IShip ship;
+    private List<IShip> others;
+    private IPosition[] cells;
+    private int[] cellIndices;
+
+    /**
+     * Prepara um navio do tipo selecionado, os navios de uma frota gerada e uma amostra de 100
+     * células: a janela de 10x10 à volta do navio, onde as verificações não terminam logo na
+     * caixa envolvente.
+     */
+    @Setup
+    public void setup() {
+        int center = boardSize / 2 - 5;
+        ship = Ship.buildShip(kind, Compass.NORTH, Position.of(center + 4, center + 4));
+        others = new FleetGenerator(42, boardSize).generate(0).getShips();
+
+        cells = new IPosition[100];
+        cellIndices = new int[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = Position.of(center + i / 10, center + i % 10);
+            cellIndices[i] = cells[i].getRow() * boardSize + cells[i].getColumn();
+        }
+    }
+
+    /**
+     * Verifica se o navio ocupa cada célula da amostra.
+     *
+     * @param bh O blackhole que consome os resultados.
+     */
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void occupies(Blackhole bh) {
+        for (IPosition p : cells)
+            bh.consume(ship.occupies(p));
+    }
+
+    /**
+     * Verifica se o navio ocupa cada célula da amostra, usando os índices das células.
+     *
+     * @param bh O blackhole que consome os resultados.
+     */
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void occupiesCell(Blackhole bh) {
+        for (int cell : cellIndices)
+            bh.consume(ship.occupies(cell, boardSize));
+    }
+
+    /**
+     * Verifica a proximidade do navio a cada navio de uma frota completa.
+     *
+     * @param bh O blackhole que consome os resultados.
+     */
+    @Benchmark
+    @OperationsPerInvocation(11)
+    public void tooCloseTo(Blackhole bh) {
+        for (int i = 0; i < others.size(); i++)
+            bh.consume(ship.tooCloseTo(others.get(i)));
+    }
+}
@@ -19,5 +19,8 @@ public class App
         Tasks.taskB();
         //	Tasks.taskC();
         //	Tasks.taskD();
+        //	Tasks.taskBatch(args.length > 0 ? args[0] : null);
+        //	Tasks.taskServer(4242);
+        //	Tasks.taskTerminal(10);
     }
 }
@@ -34,7 +34,7 @@ public class Barge extends Ship {
      */
     public Barge(Compass bearing, IPosition pos) {
         super(Barge.NAME, bearing, pos);
-        getPositions().add(new Position(pos.getRow(), pos.getColumn()));
+        placeFootprint(ShipShape.BARCA, pos);
     }
 
     /**
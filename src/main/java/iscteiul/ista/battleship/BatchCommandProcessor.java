@@ -0,0 +1,349 @@
+package iscteiul.ista.battleship;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.InputMismatchException;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Processador não interativo da linguagem de comandos da {@link Tasks#taskD() tarefa D}
+ * ({@code nova}, {@code rajada}, {@code estado}, {@code ver}, {@code mapa} e {@code desisto}).
+ * <p>
+ * Destina-se a reproduzir sessões gravadas: os comandos são lidos por um {@link CommandTokenizer}
+ * diretamente sobre os bytes do stream e os resultados são acumulados num {@link StringBuilder}
+ * reutilizado, que só é escrito no destino quando ultrapassa {@value #FLUSH_THRESHOLD} caracteres
+ * ou no fim do processamento. As mensagens são as mesmas que a tarefa D regista no log, pelo que
+ * a saída de uma reprodução pode ser comparada com a de uma sessão interativa.
+ * </p>
+ * <p>
+ * Opcionalmente, pode ser definido um terminador escrito após a resposta a cada comando; nesse
+ * caso a saída é enviada ao destino no fim de cada comando, para utilização interativa.
+ * </p>
+ */
+public class BatchCommandProcessor {
+
+    /** Número de caracteres acumulados a partir do qual a saída é enviada para o destino. */
+    static final int FLUSH_THRESHOLD = 1 << 16;
+
+    /**
+     * Tamanho dos blocos lidos do stream quando há um terminador: os comandos interativos são
+     * curtos, e um servidor com milhares de sessões não pode reservar o buffer de lote para cada uma.
+     */
+    static final int INTERACTIVE_BUFFER_SIZE = 1 << 10;
+
+    private static final int NUMBER_SHOTS = 3;
+
+    private static final byte[] NOVAFROTA = bytes("nova");
+    private static final byte[] DESISTIR = bytes("desisto");
+    private static final byte[] RAJADA = bytes("rajada");
+    private static final byte[] VERTIROS = bytes("ver");
+    private static final byte[] BATOTA = bytes("mapa");
+    private static final byte[] STATUS = bytes("estado");
+
+    private static final byte SUNK = ShotOutcome.SUNK.getCode();
+
+    private static final ShipShape[] SHAPES = ShipShape.values();
+    private static final byte[][] KINDS = new byte[SHAPES.length][];
+
+    static {
+        for (ShipShape shape : SHAPES)
+            KINDS[shape.ordinal()] = bytes(shape.getKind());
+    }
+
+    private final Appendable out;
+    private final int boardSize;
+    private final StringBuilder buffer = new StringBuilder();
+    private BoardRenderer renderer;
+    private String terminator;
+
+    private IFleet fleet;
+    private IGame game;
+
+    /** Células e resultados da rajada atual, reutilizados por todas as rajadas. */
+    private final int[] volley = new int[NUMBER_SHOTS];
+    private final byte[] outcomes = new byte[NUMBER_SHOTS];
+
+    /** Linha e coluna lidas por {@link #readCoordinate(CommandTokenizer, int)}. */
+    private final int[] coordinates = new int[2];
+    private long commands;
+
+    /**
+     * Construtor da classe BatchCommandProcessor para o tabuleiro por omissão.
+     *
+     * @param out O destino dos resultados.
+     */
+    public BatchCommandProcessor(Appendable out) {
+        this(out, IFleet.BOARD_SIZE);
+    }
+
+    /**
+     * Construtor da classe BatchCommandProcessor para frotas num tabuleiro com o tamanho indicado.
+     *
+     * @param out       O destino dos resultados.
+     * @param boardSize O tamanho (lado) do tabuleiro das frotas criadas pelo comando {@code nova}.
+     */
+    public BatchCommandProcessor(Appendable out, int boardSize) {
+        this.out = out;
+        this.boardSize = boardSize;
+    }
+
+    /**
+     * Define o terminador escrito após a resposta a cada comando.
+     *
+     * @param terminator O terminador (ex: uma linha vazia), ou null para processar em lote puro.
+     */
+    public void setCommandTerminator(String terminator) {
+        this.terminator = terminator;
+    }
+
+    /**
+     * Obtém o número de comandos processados até ao momento.
+     *
+     * @return O número de comandos processados.
+     */
+    public long getCommands() {
+        return commands;
+    }
+
+    /**
+     * Obtém o jogo criado pelo último comando {@code nova}.
+     *
+     * @return O jogo atual, ou null se ainda não foi criada nenhuma frota.
+     */
+    public IGame getGame() {
+        return game;
+    }
+
+    /**
+     * Processa todos os comandos de um stream, até ao comando {@code desisto} ou ao fim do stream.
+     *
+     * @param in O stream de comandos.
+     * @return true se o processamento terminou com o comando {@code desisto}.
+     * @throws IOException Se ocorrer um erro de leitura ou de escrita.
+     */
+    public boolean process(InputStream in) throws IOException {
+        CommandTokenizer tokens = new CommandTokenizer(in,
+                terminator != null ? INTERACTIVE_BUFFER_SIZE : CommandTokenizer.BUFFER_SIZE);
+        boolean quit = false;
+        try {
+            while (!quit && tokens.next()) {
+                quit = command(tokens);
+                commands++;
+                if (terminator != null) {
+                    buffer.append(terminator);
+                    flush();
+                } else if (buffer.length() >= FLUSH_THRESHOLD) {
+                    flush();
+                }
+            }
+        } catch (NoSuchElementException e) {
+            buffer.append(e.getMessage()).append('\n');
+        }
+        flush();
+        return quit;
+    }
+
+    /**
+     * Executa o comando correspondente à palavra atual.
+     *
+     * @param tokens O leitor de comandos, posicionado no nome do comando.
+     * @return true se o comando for {@code desisto}.
+     * @throws IOException Se ocorrer um erro de leitura.
+     */
+    private boolean command(CommandTokenizer tokens) throws IOException {
+        try {
+            if (tokens.is(NOVAFROTA)) {
+                fleet = buildFleet(tokens);
+                game = new Game(fleet);
+            } else if (tokens.is(STATUS)) {
+                if (fleet != null)
+                    appendStatus();
+            } else if (tokens.is(BATOTA)) {
+                if (game != null)
+                    renderer().clear().markFleet(fleet).appendTo(buffer);
+            } else if (tokens.is(RAJADA)) {
+                if (game != null)
+                    firingRound(tokens);
+            } else if (tokens.is(VERTIROS)) {
+                if (game != null)
+                    renderer().clear().mark(game.getShots(), BoardRenderer.SHOT).appendTo(buffer);
+            } else if (tokens.is(DESISTIR)) {
+                buffer.append("Bons ventos!\n");
+                return true;
+            } else {
+                buffer.append("Que comando é esse??? Repete ...\n");
+            }
+        } catch (InputMismatchException e) {
+            buffer.append(e.getMessage()).append('\n');
+        }
+        return false;
+    }
+
+    /**
+     * Lê os navios de uma nova frota, com as mesmas regras de {@link Tasks#buildFleet(java.util.Scanner)}.
+     * Cada navio ocupa sempre quatro palavras: um navio com uma coordenada inválida é reportado e
+     * ignorado, sem que as palavras seguintes sejam interpretadas como comandos. Como o número de
+     * navios rejeitados não tem limite, o buffer é escrito a meio do comando sempre que atinge
+     * {@value #FLUSH_THRESHOLD} caracteres.
+     *
+     * @param tokens O leitor de comandos.
+     * @return A frota construída.
+     * @throws IOException Se ocorrer um erro de leitura ou de escrita.
+     */
+    private Fleet buildFleet(CommandTokenizer tokens) throws IOException {
+        Fleet f = new Fleet(boardSize);
+        int i = 0;
+        while (i <= Fleet.FLEET_SIZE) {
+            if (buffer.length() >= FLUSH_THRESHOLD)
+                flush();
+            tokens.require();
+            ShipShape shape = readKind(tokens);
+            boolean valid = readCoordinate(tokens, 0);
+            valid &= readCoordinate(tokens, 1);
+            int row = coordinates[0];
+            int column = coordinates[1];
+            tokens.require();
+            Compass bearing = Compass.charToCompass(tokens.firstChar());
+
+            if (!valid)
+                continue;
+            if (shape == null) {
+                buffer.append("Navio desconhecido!\n");
+                continue;
+            }
+            IShip s = null;
+            try {
+                s = Ship.buildShip(shape.getKind(), bearing, Position.of(row, column));
+            } catch (IllegalArgumentException e) {
+                buffer.append(e.getMessage()).append('\n');
+            }
+            if (s != null && f.addShip(s))
+                i++;
+            else if (s != null)
+                buffer.append("Falha na criacao de ").append(s.getCategory()).append(' ').append(s.getBearing())
+                        .append(' ').append(s.getPosition()).append('\n');
+        }
+        buffer.append(i).append(" navios adicionados com sucesso!\n");
+        return f;
+    }
+
+    /**
+     * Lê a próxima palavra como coordenada. Uma palavra que não seja um inteiro é consumida
+     * e reportada, para que o comando possa continuar a ler as palavras seguintes.
+     *
+     * @param tokens O leitor de comandos.
+     * @param index  A posição de {@link #coordinates} onde guardar o valor (0 = linha, 1 = coluna).
+     * @return true se a palavra for um inteiro válido.
+     * @throws IOException Se ocorrer um erro de leitura.
+     */
+    private boolean readCoordinate(CommandTokenizer tokens, int index) throws IOException {
+        tokens.require();
+        try {
+            coordinates[index] = tokens.intValue();
+            return true;
+        } catch (InputMismatchException e) {
+            buffer.append(e.getMessage()).append('\n');
+            return false;
+        }
+    }
+
+    /**
+     * Identifica o tipo de navio da palavra atual.
+     *
+     * @param tokens O leitor de comandos, posicionado no tipo de navio.
+     * @return A forma correspondente, ou null se o tipo for desconhecido.
+     */
+    private static ShipShape readKind(CommandTokenizer tokens) {
+        for (ShipShape shape : SHAPES)
+            if (tokens.is(KINDS[shape.ordinal()]))
+                return shape;
+        return null;
+    }
+
+    /**
+     * Dispara uma rajada de tiros e acrescenta o resultado, como na tarefa D.
+     * As seis coordenadas são sempre lidas; se alguma for inválida, a rajada não é disparada.
+     *
+     * @param tokens O leitor de comandos, de onde são lidas as coordenadas dos tiros.
+     * @throws IOException Se ocorrer um erro de leitura.
+     */
+    private void firingRound(CommandTokenizer tokens) throws IOException {
+        boolean valid = true;
+        for (int i = 0; i < NUMBER_SHOTS; i++) {
+            valid &= readCoordinate(tokens, 0);
+            valid &= readCoordinate(tokens, 1);
+            volley[i] = IGame.cellOf(coordinates[0], coordinates[1], boardSize);
+        }
+        if (!valid)
+            return;
+        if (game.fireVolley(volley, outcomes) > 0)
+            for (int i = 0; i < NUMBER_SHOTS; i++)
+                if (outcomes[i] == SUNK) {
+                    IShip sh = fleet.shipAt(volley[i]);
+                    buffer.append("Mas... mas... ").append(sh.getCategory()).append("s nao sao a prova de bala? :-(\n");
+                }
+        buffer.append("Hits: ").append(game.getHits()).append(" Inv: ").append(game.getInvalidShots())
+                .append(" Rep: ").append(game.getRepeatedShots()).append(" Restam ")
+                .append(game.getRemainingShips()).append(" navios.\n");
+        if (game.getRemainingShips() == 0)
+            buffer.append("Maldito sejas, Java Sparrow, eu voltarei, glub glub glub...\n");
+    }
+
+    /**
+     * Acrescenta o estado da frota, pela mesma ordem de {@link Fleet#printStatus()}.
+     */
+    private void appendStatus() {
+        appendShips(fleet.getShips());
+        appendShips(fleet.getFloatingShips());
+        for (ShipShape shape : SHAPES)
+            appendShips(fleet.getShipsLike(shape.getCategory()));
+    }
+
+    /**
+     * Acrescenta uma linha por navio.
+     *
+     * @param ships Os navios a descrever.
+     */
+    private void appendShips(List<IShip> ships) {
+        for (IShip s : ships)
+            buffer.append(s).append('\n');
+    }
+
+    /**
+     * Obtém o renderer dos tabuleiros, criado apenas no primeiro pedido.
+     *
+     * @return O renderer reutilizado por todos os comandos.
+     */
+    private BoardRenderer renderer() {
+        if (renderer == null)
+            renderer = new BoardRenderer(boardSize);
+        return renderer;
+    }
+
+    /**
+     * Envia a saída acumulada para o destino e esvazia o buffer.
+     *
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    private void flush() throws IOException {
+        if (buffer.length() > 0) {
+            out.append(buffer);
+            buffer.setLength(0);
+        }
+        if (out instanceof Flushable)
+            ((Flushable) out).flush();
+    }
+
+    /**
+     * Converte uma palavra de comando nos seus bytes.
+     *
+     * @param word A palavra.
+     * @return Os bytes da palavra em UTF-8.
+     */
+    private static byte[] bytes(String word) {
+        return word.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,133 @@
+package iscteiul.ista.battleship;
+
+import java.util.List;
+
+/**
+ * Variante da frota {@link Fleet} indexada por um bitboard de ocupação.
+ * <p>
+ * Para além da lista de navios, mantém um bitboard com as células ocupadas (dois {@code long}
+ * no tabuleiro de 10x10) e uma tabela {@code byte[boardSize*boardSize]} que associa cada célula
+ * ao índice (mais um) do navio que a ocupa. Ambas as estruturas são atualizadas em
+ * {@link #addShip(IShip)}, pelo que {@link #shipAt(IPosition)} passa a ser uma única leitura
+ * de array em vez de percorrer todos os navios e respetivas posições.
+ * </p>
+ * <p>
+ * Como a tabela é densa, esta variante só aceita tabuleiros até {@value #MAX_CELLS} células;
+ * para tabuleiros maiores deve ser usada a {@link Fleet}.
+ * </p>
+ */
+public class BitboardFleet extends Fleet {
+
+    /** Número máximo de células suportado pela tabela densa. */
+    public static final int MAX_CELLS = 64 * 64;
+
+    /** Bitboard de ocupação, indexado por {@code row * boardSize + column}. */
+    private final long[] occupancy;
+
+    /** Índice (mais um) do navio em cada célula; 0 indica célula vazia. */
+    private final byte[] cellToShip;
+
+    /**
+     * Construtor da classe BitboardFleet.
+     * Inicializa a frota vazia no tabuleiro por omissão, com o bitboard e a tabela de células a zero.
+     */
+    public BitboardFleet() {
+        this(BOARD_SIZE);
+    }
+
+    /**
+     * Construtor da classe BitboardFleet para um tabuleiro com o tamanho indicado.
+     *
+     * @param boardSize O tamanho (lado) do tabuleiro.
+     * @throws IllegalArgumentException Se o tabuleiro tiver mais de {@value #MAX_CELLS} células.
+     */
+    public BitboardFleet(int boardSize) {
+        super(boardSize);
+        if (boardSize * boardSize > MAX_CELLS)
+            throw new IllegalArgumentException("ERROR! board too large for a bitboard fleet: " + boardSize);
+
+        occupancy = new long[(boardSize * boardSize + Long.SIZE - 1) / Long.SIZE];
+        cellToShip = new byte[boardSize * boardSize];
+    }
+
+    /**
+     * Adiciona um novo navio à frota, aplicando as mesmas regras de {@link Fleet#addShip(IShip)}.
+     * Em caso de sucesso, as células do navio são marcadas no bitboard e na tabela de células.
+     *
+     * @param s O navio a ser adicionado à frota.
+     * @return true se o navio foi adicionado com sucesso, false caso contrário.
+     */
+    @Override
+    public boolean addShip(IShip s) {
+        if (!super.addShip(s))
+            return false;
+
+        byte index = (byte) getShips().size();
+        List<IPosition> positions = s.getPositions();
+        for (int i = 0; i < positions.size(); i++) {
+            int cell = positions.get(i).getRow() * getBoardSize() + positions.get(i).getColumn();
+            occupancy[cell >>> 6] |= 1L << cell;
+            cellToShip[cell] = index;
+        }
+        return true;
+    }
+
+    /**
+     * Devolve o navio que ocupa a posição indicada através de uma leitura da tabela de células.
+     *
+     * @param pos A posição a verificar.
+     * @return O navio que ocupa a posição fornecida, ou null se a posição estiver vazia ou fora do tabuleiro.
+     */
+    @Override
+    public IShip shipAt(IPosition pos) {
+        int size = getBoardSize();
+        int row = pos.getRow();
+        int column = pos.getColumn();
+        if (row < 0 || row >= size || column < 0 || column >= size)
+            return null;
+
+        return shipAt(row * size + column);
+    }
+
+    /**
+     * Procura o navio que ocupa a célula indicada com uma única leitura da tabela de células.
+     *
+     * @param cell O índice da célula ({@code row * boardSize + column}).
+     * @return O navio nessa célula, ou null se a célula estiver vazia ou fora do tabuleiro.
+     */
+    @Override
+    public IShip shipAt(int cell) {
+        if (cell < 0 || cell >= cellToShip.length)
+            return null;
+        int index = cellToShip[cell];
+        return index == 0 ? null : getShips().get(index - 1);
+    }
+
+    /**
+     * Indica se a célula indicada está ocupada por algum navio, consultando apenas o bitboard.
+     *
+     * @param row    A linha da célula.
+     * @param column A coluna da célula.
+     * @return true se a célula estiver ocupada, false caso contrário (incluindo fora do tabuleiro).
+     */
+    public boolean isOccupied(int row, int column) {
+        int size = getBoardSize();
+        if (row < 0 || row >= size || column < 0 || column >= size)
+            return false;
+
+        int cell = row * size + column;
+        return (occupancy[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Devolve o número de células ocupadas pela frota.
+     *
+     * @return O número de bits ativos no bitboard de ocupação.
+     */
+    public int occupiedCells() {
+        int count = 0;
+        for (long word : occupancy)
+            count += Long.bitCount(word);
+        return count;
+    }
+}
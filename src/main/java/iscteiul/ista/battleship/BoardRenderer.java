@@ -0,0 +1,151 @@
+package iscteiul.ista.battleship;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Desenha tabuleiros de jogo em texto, uma linha por fila do tabuleiro.
+ * <p>
+ * O tabuleiro é composto num único {@code char[]} reutilizado, já com as mudanças de linha,
+ * e é escrito no destino com uma só chamada a {@link Appendable#append(CharSequence)}, em vez
+ * de um {@code System.out.print} por célula. Vários tabuleiros podem ser acumulados no mesmo
+ * {@link StringBuilder} e enviados para a consola, um ficheiro ou um socket de uma só vez.
+ * </p>
+ */
+public class BoardRenderer {
+
+    /** Caracter das células sem marcação. */
+    public static final char EMPTY = '.';
+
+    /** Caracter usado para marcar os tiros. */
+    public static final char SHOT = 'X';
+
+    /** Caracter usado para marcar os navios. */
+    public static final char SHIP = '#';
+
+    private final int boardSize;
+    private final int lineLength;
+    private final char[] board;
+    private final CharSequence view;
+
+    /**
+     * Construtor da classe BoardRenderer para o tabuleiro por omissão.
+     */
+    public BoardRenderer() {
+        this(IFleet.BOARD_SIZE);
+    }
+
+    /**
+     * Construtor da classe BoardRenderer para um tabuleiro com o tamanho indicado.
+     *
+     * @param boardSize O tamanho (lado) do tabuleiro.
+     */
+    public BoardRenderer(int boardSize) {
+        this.boardSize = boardSize;
+        this.lineLength = boardSize + 1;
+        this.board = new char[Math.multiplyExact(boardSize, lineLength)];
+        this.view = CharBuffer.wrap(board);
+        for (int row = 0; row < boardSize; row++)
+            board[row * lineLength + boardSize] = '\n';
+        clear();
+    }
+
+    /**
+     * Apaga todas as marcações do tabuleiro.
+     *
+     * @return Este renderer.
+     */
+    public BoardRenderer clear() {
+        for (int row = 0; row < boardSize; row++)
+            Arrays.fill(board, row * lineLength, row * lineLength + boardSize, EMPTY);
+        return this;
+    }
+
+    /**
+     * Marca uma célula do tabuleiro; células fora do tabuleiro são ignoradas.
+     *
+     * @param row    A linha da célula.
+     * @param column A coluna da célula.
+     * @param marker O caracter de marcação.
+     * @return Este renderer.
+     */
+    public BoardRenderer mark(int row, int column, char marker) {
+        if (row >= 0 && row < boardSize && column >= 0 && column < boardSize)
+            board[row * lineLength + column] = marker;
+        return this;
+    }
+
+    /**
+     * Marca as posições indicadas.
+     *
+     * @param positions As posições a marcar.
+     * @param marker    O caracter de marcação.
+     * @return Este renderer.
+     */
+    public BoardRenderer mark(List<IPosition> positions, char marker) {
+        for (int i = 0; i < positions.size(); i++)
+            mark(positions.get(i).getRow(), positions.get(i).getColumn(), marker);
+        return this;
+    }
+
+    /**
+     * Marca com {@link #SHIP} todas as posições ocupadas pelos navios de uma frota.
+     *
+     * @param fleet A frota a desenhar.
+     * @return Este renderer.
+     */
+    public BoardRenderer markFleet(IFleet fleet) {
+        for (IShip s : fleet.getShips())
+            mark(s.getPositions(), SHIP);
+        return this;
+    }
+
+    /**
+     * Acrescenta o tabuleiro atual a um {@link StringBuilder}, sem escrever em nenhum dispositivo.
+     *
+     * @param out O destino.
+     * @return O destino, para encadeamento.
+     */
+    public StringBuilder appendTo(StringBuilder out) {
+        return out.append(board);
+    }
+
+    /**
+     * Escreve o tabuleiro atual numa {@link PrintStream} (ex: {@code System.out}) numa só chamada.
+     * Ao contrário de {@link PrintStream#append(CharSequence)}, que passa por {@code toString()},
+     * o {@code char[]} é escrito diretamente, sem criar uma cópia em {@link String}.
+     *
+     * @param out O destino.
+     * @return O destino, para encadeamento.
+     */
+    public PrintStream appendTo(PrintStream out) {
+        out.print(board);
+        return out;
+    }
+
+    /**
+     * Escreve o tabuleiro atual num destino qualquer (consola, ficheiro, socket...) numa só chamada.
+     *
+     * @param out O destino.
+     * @param <A> O tipo do destino.
+     * @return O destino, para encadeamento.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public <A extends Appendable> A appendTo(A out) throws IOException {
+        out.append(view);
+        return out;
+    }
+
+    /**
+     * Obtém o tabuleiro atual como texto.
+     *
+     * @return O texto do tabuleiro, com uma linha por fila.
+     */
+    @Override
+    public String toString() {
+        return new String(board);
+    }
+}
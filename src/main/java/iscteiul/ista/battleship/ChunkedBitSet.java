@@ -0,0 +1,76 @@
+package iscteiul.ista.battleship;
+
+/**
+ * Conjunto de bits indexado por célula, dividido em blocos alocados apenas quando necessário.
+ * <p>
+ * Cada bloco guarda {@value #CHUNK_BITS} bits. Num tabuleiro pequeno existe um único bloco,
+ * pelo que o custo é o de um {@code long[]}; num tabuleiro muito grande só são alocados os
+ * blocos onde há células marcadas, pelo que a memória acompanha o número de células usadas
+ * e não a área do tabuleiro. Cada consulta custa sempre duas leituras de array.
+ * </p>
+ */
+final class ChunkedBitSet {
+
+    private static final int CHUNK_SHIFT = 12;
+
+    /** Número de bits por bloco. */
+    static final int CHUNK_BITS = 1 << CHUNK_SHIFT;
+
+    private static final int WORD_MASK = (CHUNK_BITS >>> 6) - 1;
+
+    private final long[][] chunks;
+    private int cardinality;
+
+    /**
+     * Cria um conjunto vazio capaz de guardar as células {@code 0} a {@code size - 1}.
+     *
+     * @param size O número de células.
+     */
+    ChunkedBitSet(int size) {
+        if (size < 0)
+            throw new IllegalArgumentException("ERROR! invalid bit set size: " + size);
+        chunks = new long[(int) (((long) size + CHUNK_BITS - 1) >>> CHUNK_SHIFT)][];
+        cardinality = 0;
+    }
+
+    /**
+     * Verifica se a célula indicada está marcada.
+     *
+     * @param index O índice da célula.
+     * @return true se estiver marcada.
+     */
+    boolean get(int index) {
+        long[] chunk = chunks[index >>> CHUNK_SHIFT];
+        return chunk != null && (chunk[(index >>> 6) & WORD_MASK] & (1L << index)) != 0;
+    }
+
+    /**
+     * Marca a célula indicada, alocando o respetivo bloco se necessário.
+     *
+     * @param index O índice da célula.
+     * @return true se a célula não estava marcada.
+     */
+    boolean add(int index) {
+        long[] chunk = chunks[index >>> CHUNK_SHIFT];
+        if (chunk == null) {
+            chunk = new long[CHUNK_BITS >>> 6];
+            chunks[index >>> CHUNK_SHIFT] = chunk;
+        }
+        int word = (index >>> 6) & WORD_MASK;
+        long bit = 1L << index;
+        if ((chunk[word] & bit) != 0)
+            return false;
+        chunk[word] |= bit;
+        cardinality++;
+        return true;
+    }
+
+    /**
+     * Obtém o número de células marcadas.
+     *
+     * @return O número de bits ativos.
+     */
+    int cardinality() {
+        return cardinality;
+    }
+}
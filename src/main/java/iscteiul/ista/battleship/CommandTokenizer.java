@@ -0,0 +1,189 @@
+package iscteiul.ista.battleship;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/**
+ * Leitor de comandos, palavra a palavra, diretamente sobre os bytes de um {@link InputStream}.
+ * <p>
+ * Substitui o {@link java.util.Scanner} no processamento em lote: os bytes são lidos em blocos
+ * (por omissão de {@value #BUFFER_SIZE} bytes) para um buffer reutilizado e separados por espaços
+ * em branco (qualquer byte até {@code ' '}), sem expressões regulares nem criação de {@link String}
+ * por palavra.
+ * Os números são convertidos diretamente a partir dos dígitos.
+ * </p>
+ */
+final class CommandTokenizer {
+
+    /** Tamanho por omissão dos blocos lidos do stream. */
+    static final int BUFFER_SIZE = 1 << 16;
+
+    /** Comprimento máximo guardado de cada palavra; os restantes bytes são ignorados. */
+    static final int MAX_TOKEN = 64;
+
+    private final InputStream in;
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+
+    private final byte[] token = new byte[MAX_TOKEN];
+    private int length;
+    private boolean truncated;
+
+    /**
+     * Construtor da classe CommandTokenizer.
+     *
+     * @param in O stream de onde são lidos os comandos.
+     */
+    CommandTokenizer(InputStream in) {
+        this(in, BUFFER_SIZE);
+    }
+
+    /**
+     * Construtor da classe CommandTokenizer com um buffer do tamanho indicado.
+     *
+     * @param in         O stream de onde são lidos os comandos.
+     * @param bufferSize O tamanho dos blocos lidos do stream.
+     */
+    CommandTokenizer(InputStream in, int bufferSize) {
+        this.in = in;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Avança para a próxima palavra.
+     *
+     * @return true se foi lida uma palavra, false se o stream terminou.
+     * @throws IOException Se ocorrer um erro de leitura.
+     */
+    boolean next() throws IOException {
+        int b;
+        do {
+            b = read();
+            if (b < 0)
+                return false;
+        } while (b <= ' ');
+
+        length = 0;
+        truncated = false;
+        while (b > ' ') {
+            if (length < MAX_TOKEN)
+                token[length++] = (byte) b;
+            else
+                truncated = true;
+            b = read();
+        }
+        return true;
+    }
+
+    /**
+     * Lê o próximo byte do stream, recarregando o buffer quando necessário.
+     *
+     * @return O byte lido, entre 0 e 255, ou -1 no fim do stream.
+     * @throws IOException Se ocorrer um erro de leitura.
+     */
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    /**
+     * Verifica se a palavra atual é igual à palavra indicada.
+     *
+     * @param word Os bytes da palavra a comparar.
+     * @return true se forem iguais.
+     */
+    boolean is(byte[] word) {
+        if (truncated || length != word.length)
+            return false;
+        for (int i = 0; i < length; i++)
+            if (token[i] != word[i])
+                return false;
+        return true;
+    }
+
+    /**
+     * Obtém o primeiro caracter da palavra atual.
+     *
+     * @return O primeiro byte da palavra, como caracter.
+     */
+    char firstChar() {
+        return (char) (token[0] & 0xFF);
+    }
+
+    /**
+     * Obtém a palavra atual como texto, para mensagens.
+     *
+     * @return A palavra atual (eventualmente truncada).
+     */
+    String text() {
+        return new String(token, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Avança para a próxima palavra, que tem de existir.
+     *
+     * @throws IOException            Se ocorrer um erro de leitura.
+     * @throws NoSuchElementException Se o stream terminar antes da palavra.
+     */
+    void require() throws IOException {
+        if (!next())
+            throw new NoSuchElementException("ERROR! unexpected end of input");
+    }
+
+    /**
+     * Lê a próxima palavra e converte-a num inteiro.
+     *
+     * @return O valor inteiro lido.
+     * @throws IOException             Se ocorrer um erro de leitura.
+     * @throws NoSuchElementException  Se o stream terminar antes do número.
+     * @throws InputMismatchException Se a palavra não for um inteiro válido.
+     */
+    int nextInt() throws IOException {
+        require();
+        return intValue();
+    }
+
+    /**
+     * Converte a palavra atual num inteiro.
+     *
+     * @return O valor inteiro da palavra.
+     * @throws InputMismatchException Se a palavra não for um inteiro válido.
+     */
+    int intValue() {
+        int i = 0;
+        boolean negative = token[0] == '-';
+        if (negative || token[0] == '+')
+            i++;
+        if (i == length || truncated)
+            throw new InputMismatchException("ERROR! invalid integer: " + text());
+        // zeros à esquerda não contam para o limite de 10 dígitos, como no Scanner
+        while (i < length - 1 && token[i] == '0')
+            i++;
+        if (length - i > 10)
+            throw new InputMismatchException("ERROR! invalid integer: " + text());
+
+        long value = 0;
+        for (; i < length; i++) {
+            int digit = token[i] - '0';
+            if (digit < 0 || digit > 9)
+                throw new InputMismatchException("ERROR! invalid integer: " + text());
+            value = value * 10 + digit;
+        }
+        if (negative)
+            value = -value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+            throw new InputMismatchException("ERROR! invalid integer: " + text());
+        return (int) value;
+    }
+}
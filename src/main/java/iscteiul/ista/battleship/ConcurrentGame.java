@@ -0,0 +1,370 @@
+package iscteiul.ista.battleship;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Variante thread-safe de {@link Game}, para vários jogadores ou bots a disparar
+ * em simultâneo sobre a mesma frota.
+ * <p>
+ * Cada célula é reclamada uma única vez através de um compare-and-set sobre um bitset de
+ * {@code long} atómicos: a thread cujo CAS ativa o bit é a única que processa o disparo, e todas
+ * as outras que alvejem a mesma célula contam um tiro repetido, exatamente uma vez cada. Os
+ * contadores são {@link LongAdder}, pelo que as threads não disputam a mesma linha de cache.
+ * Só o disparo que atinge um navio sincroniza, e apenas nesse navio, para que o afundamento
+ * seja observado por uma única thread.
+ * </p>
+ * <p>
+ * A frota não pode ser alterada depois de criado o jogo. O registo de tiros e o bitset são densos,
+ * pelo que esta variante se destina a tabuleiros de dimensão moderada.
+ * </p>
+ */
+public class ConcurrentGame implements IGame {
+
+    private final IFleet fleet;
+    private final int boardSize;
+
+    /** Células já reclamadas, um bit por célula. */
+    private final AtomicLongArray claimed;
+
+    /** Tiros válidos pela ordem em que foram reclamados, guardados como {@code célula + 1} (0 = por publicar). */
+    private final AtomicIntegerArray shotLog;
+    private final AtomicInteger shotCount = new AtomicInteger();
+
+    private final LongAdder countInvalidShots = new LongAdder();
+    private final LongAdder countRepeatedShots = new LongAdder();
+    private final LongAdder countHits = new LongAdder();
+    private final LongAdder countSinks = new LongAdder();
+    private final AtomicInteger remainingShips;
+
+    /** Resultado do último disparo processado por qualquer thread. */
+    private volatile ShotOutcome lastOutcome;
+
+    private volatile IShotObserver[] observers = new IShotObserver[0];
+
+    /** Renderer reutilizado para imprimir o tabuleiro, protegido pelo monitor do jogo. */
+    private BoardRenderer renderer;
+
+    /**
+     * Construtor da classe ConcurrentGame.
+     *
+     * @param fleet A frota de navios a ser utilizada nesta partida.
+     */
+    public ConcurrentGame(IFleet fleet) {
+        this.fleet = fleet;
+        this.boardSize = fleet.getBoardSize();
+        int cells = Math.multiplyExact(boardSize, boardSize);
+        claimed = new AtomicLongArray((cells + Long.SIZE - 1) / Long.SIZE);
+        shotLog = new AtomicIntegerArray(cells);
+        remainingShips = new AtomicInteger(fleet.countFloatingShips());
+    }
+
+    /**
+     * Processa um tiro. Pode ser chamado por várias threads em simultâneo.
+     *
+     * @param pos A posição alvo do tiro.
+     * @return O navio caso este tiro o tenha afundado, ou null caso contrário.
+     */
+    @Override
+    public IShip fire(IPosition pos) {
+        return fireAt(pos.getRow(), pos.getColumn()) == ShotOutcome.SUNK ? fleet.shipAt(pos) : null;
+    }
+
+    /**
+     * Processa um tiro numa célula codificada como {@code row * boardSize + column}.
+     * Pode ser chamado por várias threads em simultâneo.
+     *
+     * @param cell A célula alvo; fora de {@code [0, boardSize * boardSize)} o tiro é inválido.
+     * @return O navio caso este tiro o tenha afundado, ou null caso contrário.
+     */
+    @Override
+    public IShip fire(int cell) {
+        return fireCell(cell) == ShotOutcome.SUNK ? fleet.shipAt(cell) : null;
+    }
+
+    /**
+     * Processa um tiro e devolve o seu resultado. Ao contrário de {@link #getLastOutcome()}, o
+     * resultado devolvido é sempre o deste disparo, mesmo com várias threads a disparar.
+     *
+     * @param row    A linha alvo.
+     * @param column A coluna alvo.
+     * @return O resultado do disparo.
+     */
+    public ShotOutcome fireAt(int row, int column) {
+        boolean inside = row >= 0 && row < boardSize && column >= 0 && column < boardSize;
+        return resolve(row, column, inside ? row * boardSize + column : -1);
+    }
+
+    /**
+     * Processa um tiro numa célula codificada como {@code row * boardSize + column}. Uma célula
+     * fora do tabuleiro é comunicada aos observadores como {@link IShotObserver#UNKNOWN_COORDINATE}.
+     *
+     * @param cell A célula alvo.
+     * @return O resultado do disparo.
+     */
+    private ShotOutcome fireCell(int cell) {
+        if (cell < 0 || cell >= boardSize * boardSize)
+            return resolve(IShotObserver.UNKNOWN_COORDINATE, IShotObserver.UNKNOWN_COORDINATE, -1);
+        return resolve(cell / boardSize, cell % boardSize, cell);
+    }
+
+    /**
+     * Resolve um tiro e notifica os observadores.
+     *
+     * @param row    A linha comunicada aos observadores.
+     * @param column A coluna comunicada aos observadores.
+     * @param cell   O índice da célula alvo, ou -1 se o tiro for inválido.
+     * @return O resultado do disparo.
+     */
+    private ShotOutcome resolve(int row, int column, int cell) {
+        ShotOutcome outcome;
+        IShip ship = null;
+        if (cell < 0) {
+            countInvalidShots.increment();
+            outcome = ShotOutcome.INVALID;
+        } else if (!claim(cell)) {
+            countRepeatedShots.increment();
+            outcome = ShotOutcome.REPEATED;
+        } else {
+            shotLog.set(shotCount.getAndIncrement(), cell + 1);
+            ship = fleet.shipAt(cell);
+            if (ship == null) {
+                outcome = ShotOutcome.MISS;
+            } else {
+                boolean sunk;
+                synchronized (ship) {
+                    // só o tiro que passa o navio de a flutuar para afundado conta o afundamento
+                    sunk = ship.stillFloating();
+                    ship.shoot(cell, boardSize);
+                    sunk &= !ship.stillFloating();
+                }
+                countHits.increment();
+                outcome = ShotOutcome.HIT;
+                if (sunk) {
+                    countSinks.increment();
+                    remainingShips.decrementAndGet();
+                    outcome = ShotOutcome.SUNK;
+                }
+            }
+        }
+        lastOutcome = outcome;
+        for (IShotObserver observer : observers)
+            observer.onShot(row, column, outcome, ship);
+        return outcome;
+    }
+
+    /**
+     * Dispara uma rajada de tiros sobre células codificadas como {@code row * boardSize + column}.
+     * Os tiros de uma rajada são resolvidos pela ordem do array, mas podem intercalar-se com os
+     * de outras threads.
+     *
+     * @param cells    As células alvo.
+     * @param outcomes O array onde é escrito o código do resultado de cada tiro.
+     * @return O número de navios afundados por esta rajada.
+     * @throws IllegalArgumentException Se {@code outcomes} for mais curto do que {@code cells}.
+     */
+    @Override
+    public int fireVolley(int[] cells, byte[] outcomes) {
+        if (outcomes.length < cells.length)
+            throw new IllegalArgumentException("ERROR! " + outcomes.length + " outcomes for " + cells.length + " shots");
+        int sunk = 0;
+        for (int i = 0; i < cells.length; i++) {
+            ShotOutcome outcome = fireCell(cells[i]);
+            outcomes[i] = outcome.getCode();
+            if (outcome == ShotOutcome.SUNK)
+                sunk++;
+        }
+        return sunk;
+    }
+
+    /**
+     * Reclama uma célula, ativando o seu bit com compare-and-set.
+     *
+     * @param cell O índice da célula.
+     * @return true se esta chamada reclamou a célula, false se já estava reclamada.
+     */
+    private boolean claim(int cell) {
+        int word = cell >>> 6;
+        long bit = 1L << cell;
+        long current = claimed.get(word);
+        while ((current & bit) == 0) {
+            long witness = claimed.compareAndExchange(word, current, current | bit);
+            if (witness == current)
+                return true;
+            current = witness;
+        }
+        return false;
+    }
+
+    /**
+     * Regista um observador, notificado após cada disparo (na thread que disparou).
+     * Os observadores têm de ser thread-safe.
+     *
+     * @param observer O observador a registar.
+     */
+    public synchronized void addObserver(IShotObserver observer) {
+        IShotObserver[] next = Arrays.copyOf(observers, observers.length + 1);
+        next[next.length - 1] = observer;
+        observers = next;
+    }
+
+    /**
+     * Remove um observador previamente registado.
+     *
+     * @param observer O observador a remover.
+     */
+    public synchronized void removeObserver(IShotObserver observer) {
+        for (int i = 0; i < observers.length; i++)
+            if (observers[i] == observer) {
+                IShotObserver[] remaining = new IShotObserver[observers.length - 1];
+                System.arraycopy(observers, 0, remaining, 0, i);
+                System.arraycopy(observers, i + 1, remaining, i, remaining.length - i);
+                observers = remaining;
+                return;
+            }
+    }
+
+    /**
+     * Obtém o resultado do último disparo processado, por qualquer thread.
+     *
+     * @return O resultado do último disparo, ou null se ainda não foi efetuado nenhum disparo.
+     */
+    @Override
+    public ShotOutcome getLastOutcome() {
+        return lastOutcome;
+    }
+
+    /**
+     * Obtém uma cópia das posições dos tiros válidos já publicados, pela ordem em que foram reclamados.
+     *
+     * @return Uma lista (não modificável) com as posições dos tiros.
+     */
+    @Override
+    public List<IPosition> getShots() {
+        int n = Math.min(shotCount.get(), shotLog.length());
+        List<IPosition> shots = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int cell = shotLog.get(i) - 1;
+            if (cell >= 0)
+                shots.add(Position.of(cell / boardSize, cell % boardSize));
+        }
+        return Collections.unmodifiableList(shots);
+    }
+
+    /**
+     * Obtém a frota atacada nesta partida.
+     *
+     * @return A frota do jogo.
+     */
+    @Override
+    public IFleet getFleet() {
+        return fleet;
+    }
+
+    /**
+     * Obtém o número total de tiros repetidos.
+     *
+     * @return O número de tiros repetidos.
+     */
+    @Override
+    public int getRepeatedShots() {
+        return countRepeatedShots.intValue();
+    }
+
+    /**
+     * Obtém o número total de tiros inválidos.
+     *
+     * @return O número de tiros inválidos.
+     */
+    @Override
+    public int getInvalidShots() {
+        return countInvalidShots.intValue();
+    }
+
+    /**
+     * Obtém o número total de tiros que acertaram em navios.
+     *
+     * @return O número de acertos.
+     */
+    @Override
+    public int getHits() {
+        return countHits.intValue();
+    }
+
+    /**
+     * Obtém o número total de navios afundados.
+     *
+     * @return O número de navios afundados.
+     */
+    @Override
+    public int getSunkShips() {
+        return countSinks.intValue();
+    }
+
+    /**
+     * Obtém o número de navios que ainda não foram totalmente afundados.
+     *
+     * @return O número de navios restantes na frota.
+     */
+    @Override
+    public int getRemainingShips() {
+        return remainingShips.get();
+    }
+
+    /**
+     * Imprime o tabuleiro de jogo mostrando todos os tiros válidos já disparados.
+     */
+    @Override
+    public synchronized void printValidShots() {
+        renderer().clear().mark(getShots(), BoardRenderer.SHOT).appendTo(System.out);
+    }
+
+    /**
+     * Imprime o tabuleiro de jogo mostrando a disposição de todos os navios da frota.
+     */
+    @Override
+    public synchronized void printFleet() {
+        renderer().clear().markFleet(fleet).appendTo(System.out);
+    }
+
+    /**
+     * Escreve o tabuleiro com todos os tiros válidos já disparados no destino indicado.
+     *
+     * @param out O destino.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    @Override
+    public synchronized void printValidShots(Appendable out) throws IOException {
+        renderer().clear().mark(getShots(), BoardRenderer.SHOT).appendTo(out);
+    }
+
+    /**
+     * Escreve o tabuleiro com a disposição de todos os navios da frota no destino indicado.
+     *
+     * @param out O destino.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    @Override
+    public synchronized void printFleet(Appendable out) throws IOException {
+        renderer().clear().markFleet(fleet).appendTo(out);
+    }
+
+    /**
+     * Obtém o renderer do tabuleiro desta partida, criado apenas no primeiro pedido.
+     * Só deve ser usado com o monitor do jogo, pois é partilhado por todas as impressões.
+     *
+     * @return O renderer reutilizado por todas as impressões da partida.
+     */
+    private BoardRenderer renderer() {
+        if (renderer == null)
+            renderer = new BoardRenderer(boardSize);
+        return renderer;
+    }
+}
@@ -0,0 +1,254 @@
+package iscteiul.ista.battleship;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Estratégia de densidade de probabilidade.
+ * <p>
+ * Para cada célula mantém quantas colocações legais de cada tipo de navio ainda por afundar
+ * a cobrem (ver {@link PlacementTable}), ponderadas pelo número de navios desse tipo que faltam
+ * afundar. Em vez de recalcular tudo a cada disparo, os contadores são atualizados
+ * incrementalmente: um disparo na água elimina as colocações que cobrem essa célula, um navio
+ * afundado elimina as colocações que tocam no seu halo e reduz o peso do seu tipo.
+ * </p>
+ * <p>
+ * Enquanto houver acertos em navios ainda não afundados, a estratégia escolhe a célula por
+ * alvejar coberta pelo maior número de colocações vivas que passam por esses acertos; caso
+ * contrário escolhe a célula de maior densidade. Os empates são resolvidos aleatoriamente.
+ * </p>
+ */
+public class DensityShotStrategy implements IShotStrategy {
+
+    private static final byte UNKNOWN = 0;
+    private static final byte MISS = 1;
+    private static final byte HIT = 2;
+    private static final byte SUNK = 3;
+
+    private static final ShipShape[] SHAPES = ShipShape.values();
+
+    private final SplittableRandom random;
+    private final PlacementTable table;
+    private final int boardSize;
+    private final byte[] state;
+
+    /** Colocações ainda possíveis, por forma. */
+    private final boolean[][] alive;
+
+    /** Número de colocações vivas de cada forma que cobrem cada célula. */
+    private final int[][] cover;
+
+    /** Número de navios de cada forma ainda por afundar. */
+    private final int[] remaining;
+
+    /** Densidade de cada célula: soma de {@code remaining[s] * cover[s][cell]}. */
+    private final long[] density;
+
+    /** Acertos em navios ainda não afundados. */
+    private final int[] openHits;
+    private int openHitCount;
+
+    /** Pontuação temporária das células em modo de alvo. */
+    private final long[] targetScore;
+
+    /**
+     * Construtor da classe DensityShotStrategy para o tabuleiro por omissão.
+     *
+     * @param random O gerador de números aleatórios usado nos desempates.
+     */
+    public DensityShotStrategy(SplittableRandom random) {
+        this(random, IFleet.BOARD_SIZE);
+    }
+
+    /**
+     * Construtor da classe DensityShotStrategy para um tabuleiro com o tamanho indicado.
+     *
+     * @param random    O gerador de números aleatórios usado nos desempates.
+     * @param boardSize O tamanho (lado) do tabuleiro.
+     * @throws IllegalArgumentException Se o tabuleiro for demasiado grande para a tabela de colocações.
+     */
+    public DensityShotStrategy(SplittableRandom random, int boardSize) {
+        this.random = random;
+        this.table = PlacementTable.forBoard(boardSize);
+        this.boardSize = table.boardSize();
+
+        int cells = boardSize * boardSize;
+        state = new byte[cells];
+        alive = new boolean[SHAPES.length][];
+        cover = new int[SHAPES.length][];
+        remaining = new int[SHAPES.length];
+        density = new long[cells];
+        openHits = new int[cells];
+        targetScore = new long[cells];
+
+        for (ShipShape shape : SHAPES) {
+            int s = shape.ordinal();
+            alive[s] = new boolean[table.count(shape)];
+            Arrays.fill(alive[s], true);
+            remaining[s] = shape.getFleetCount();
+            cover[s] = new int[cells];
+            for (int cell = 0; cell < cells; cell++) {
+                cover[s][cell] = table.coveringCount(shape, cell);
+                density[cell] += (long) remaining[s] * cover[s][cell];
+            }
+        }
+    }
+
+    /**
+     * Escolhe a próxima célula a alvejar, em modo de alvo se houver acertos por resolver
+     * ou em modo de caça (maior densidade) caso contrário.
+     *
+     * @return A posição alvo.
+     * @throws IllegalStateException Se não restar nenhuma célula por alvejar.
+     */
+    @Override
+    public IPosition nextShot() {
+        int cell = openHitCount > 0 ? bestTarget() : -1;
+        if (cell < 0)
+            cell = best(density);
+        if (cell < 0)
+            throw new IllegalStateException("ERROR! no cells left to fire at");
+        return Position.of(cell / boardSize, cell % boardSize);
+    }
+
+    /**
+     * Atualiza incrementalmente as contagens de colocações com o resultado de um disparo.
+     *
+     * @param shot    A posição alvejada.
+     * @param outcome O resultado do disparo.
+     * @param sunk    O navio afundado, ou null.
+     */
+    @Override
+    public void shotResult(IPosition shot, ShotOutcome outcome, IShip sunk) {
+        if (outcome == ShotOutcome.INVALID || outcome == ShotOutcome.REPEATED)
+            return;
+
+        int cell = shot.getRow() * boardSize + shot.getColumn();
+        switch (outcome) {
+            case MISS:
+                state[cell] = MISS;
+                killCovering(cell, null);
+                break;
+            case HIT:
+                state[cell] = HIT;
+                openHits[openHitCount++] = cell;
+                // um navio de uma só célula teria sido afundado por este disparo
+                killCovering(cell, ShipShape.BARCA);
+                break;
+            case SUNK:
+                state[cell] = HIT;
+                if (sunk != null)
+                    sink(sunk);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Processa o afundamento de um navio: elimina as colocações que tocam no seu halo,
+     * retira os seus acertos da lista de acertos por resolver e reduz o peso do seu tipo.
+     *
+     * @param sunk O navio afundado.
+     */
+    private void sink(IShip sunk) {
+        for (IPosition p : sunk.getPositions()) {
+            int cell = p.getRow() * boardSize + p.getColumn();
+            state[cell] = SUNK;
+            for (int i = openHitCount - 1; i >= 0; i--)
+                if (openHits[i] == cell)
+                    openHits[i] = openHits[--openHitCount];
+        }
+        for (IPosition p : sunk.getPositions())
+            for (int r = Math.max(0, p.getRow() - 1); r <= Math.min(boardSize - 1, p.getRow() + 1); r++)
+                for (int c = Math.max(0, p.getColumn() - 1); c <= Math.min(boardSize - 1, p.getColumn() + 1); c++)
+                    killCovering(r * boardSize + c, null);
+
+        ShipShape shape = ShipShape.fromCategory(sunk.getCategory());
+        if (shape != null && remaining[shape.ordinal()] > 0) {
+            int s = shape.ordinal();
+            remaining[s]--;
+            for (int cell = 0; cell < density.length; cell++)
+                density[cell] -= cover[s][cell];
+        }
+    }
+
+    /**
+     * Elimina as colocações vivas que cobrem uma célula.
+     *
+     * @param cell  A célula.
+     * @param shape A forma cujas colocações devem ser eliminadas, ou null para todas as formas.
+     */
+    private void killCovering(int cell, ShipShape shape) {
+        for (ShipShape sh : SHAPES) {
+            if (shape != null && sh != shape)
+                continue;
+            int s = sh.ordinal();
+            for (int k = 0; k < table.coveringCount(sh, cell); k++) {
+                int p = table.covering(sh, cell, k);
+                if (!alive[s][p])
+                    continue;
+                alive[s][p] = false;
+                for (int i = 0; i < sh.getSize(); i++) {
+                    int c = table.cell(sh, p, i);
+                    cover[s][c]--;
+                    density[c] -= remaining[s];
+                }
+            }
+        }
+    }
+
+    /**
+     * Pontua as células desconhecidas pelo número (ponderado) de colocações vivas que passam
+     * por algum acerto por resolver e escolhe a melhor.
+     *
+     * @return A célula escolhida, ou -1 se nenhuma colocação viva passar pelos acertos.
+     */
+    private int bestTarget() {
+        Arrays.fill(targetScore, 0);
+        for (int h = 0; h < openHitCount; h++) {
+            int hit = openHits[h];
+            for (ShipShape sh : SHAPES) {
+                int s = sh.ordinal();
+                if (remaining[s] == 0)
+                    continue;
+                for (int k = 0; k < table.coveringCount(sh, hit); k++) {
+                    int p = table.covering(sh, hit, k);
+                    if (!alive[s][p])
+                        continue;
+                    for (int i = 0; i < sh.getSize(); i++)
+                        targetScore[table.cell(sh, p, i)] += remaining[s];
+                }
+            }
+        }
+        return best(targetScore);
+    }
+
+    /**
+     * Escolhe a célula desconhecida com maior pontuação, desempatando aleatoriamente.
+     *
+     * @param score A pontuação de cada célula.
+     * @return A célula escolhida, ou -1 se não houver células desconhecidas com pontuação positiva
+     * (nem, no caso da densidade, células desconhecidas de todo).
+     */
+    private int best(long[] score) {
+        int best = -1;
+        long bestScore = -1;
+        int ties = 0;
+        for (int cell = 0; cell < score.length; cell++) {
+            if (state[cell] != UNKNOWN)
+                continue;
+            long v = score[cell];
+            if (v > bestScore) {
+                best = cell;
+                bestScore = v;
+                ties = 1;
+            } else if (v == bestScore && random.nextInt(++ties) == 0) {
+                best = cell;
+            }
+        }
+        if (score == targetScore && bestScore <= 0)
+            return -1;
+        return best;
+    }
+}
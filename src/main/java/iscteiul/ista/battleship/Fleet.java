@@ -2,6 +2,7 @@ package iscteiul.ista.battleship;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Classe que representa uma frota de navios no jogo Batalha Naval.
@@ -24,12 +25,51 @@ public class Fleet implements IFleet {
 
     private List<IShip> ships;
 
+    /** Tamanho (lado) do tabuleiro desta frota. */
+    private final int boardSize;
+
+    /**
+     * Máscara das células proibidas para novos navios: células ocupadas pelos navios da frota
+     * e as suas 8 vizinhas, indexadas por {@code row * boardSize + column}. Os blocos da máscara
+     * só são alocados junto dos navios, pelo que o custo não cresce com a área do tabuleiro.
+     */
+    private final ChunkedBitSet halo;
+
+    /** Navio de cada célula ocupada, para que {@link #shipAt(IPosition)} não percorra a frota. */
+    private final PositionMap<IShip> occupied;
+
     /**
      * Construtor da classe Fleet.
-     * Inicializa a frota com uma lista vazia de navios.
+     * Inicializa a frota com uma lista vazia de navios, num tabuleiro com o tamanho por omissão.
      */
     public Fleet() {
+        this(BOARD_SIZE);
+    }
+
+    /**
+     * Construtor da classe Fleet para um tabuleiro com o tamanho indicado.
+     *
+     * @param boardSize O tamanho (lado) do tabuleiro, entre 1 e {@link IFleet#MAX_BOARD_SIZE}.
+     * @throws IllegalArgumentException Se o tamanho do tabuleiro for inválido.
+     */
+    public Fleet(int boardSize) {
+        if (boardSize < 1 || boardSize > MAX_BOARD_SIZE)
+            throw new IllegalArgumentException("ERROR! invalid board size: " + boardSize);
+
+        this.boardSize = boardSize;
         ships = new ArrayList<>();
+        halo = new ChunkedBitSet(boardSize * boardSize);
+        occupied = new PositionMap<>();
+    }
+
+    /**
+     * Obtém o tamanho (lado) do tabuleiro desta frota.
+     *
+     * @return O número de linhas e de colunas do tabuleiro.
+     */
+    @Override
+    public int getBoardSize() {
+        return boardSize;
     }
 
     /**
@@ -56,6 +96,9 @@ public class Fleet implements IFleet {
         boolean result = false;
         if ((ships.size() <= FLEET_SIZE) && (isInsideBoard(s)) && (!colisionRisk(s))) {
             ships.add(s);
+            markHalo(s);
+            for (IPosition p : s.getPositions())
+                occupied.put(p, s);
             result = true;
         }
         return result;
@@ -93,18 +136,58 @@ public class Fleet implements IFleet {
         return floatingShips;
     }
 
+    /**
+     * Obtém o número de navios da frota que ainda estão a flutuar.
+     * O valor é calculado a partir do estado dos navios, sem alocar listas intermédias.
+     *
+     * @return O número de navios a flutuar.
+     */
+    @Override
+    public int countFloatingShips() {
+        int count = 0;
+        for (int i = 0; i < ships.size(); i++)
+            if (ships.get(i).stillFloating())
+                count++;
+        return count;
+    }
+
+    /**
+     * Aplica uma ação a cada navio da frota que ainda está a flutuar, sem alocar listas intermédias.
+     *
+     * @param action A ação a aplicar a cada navio a flutuar.
+     */
+    @Override
+    public void forEachFloatingShip(Consumer<? super IShip> action) {
+        for (int i = 0; i < ships.size(); i++) {
+            IShip s = ships.get(i);
+            if (s.stillFloating())
+                action.accept(s);
+        }
+    }
+
     /**
      * Procura e devolve o navio que ocupa uma determinada posição no tabuleiro.
+     * A consulta é feita no índice de células ocupadas, com custo constante.
      *
      * @param pos A posição a verificar.
      * @return O navio que ocupa a posição fornecida, ou null se a posição estiver vazia.
      */
     @Override
     public IShip shipAt(IPosition pos) {
-        for (int i = 0; i < ships.size(); i++)
-            if (ships.get(i).occupies(pos))
-                return ships.get(i);
-        return null;
+        return occupied.get(pos);
+    }
+
+    /**
+     * Procura o navio que ocupa a célula indicada, sem criar nenhuma posição.
+     *
+     * @param cell O índice da célula ({@code row * boardSize + column}).
+     * @return O navio nessa célula, ou null se a célula estiver vazia ou fora do tabuleiro.
+     */
+    @Override
+    public IShip shipAt(int cell) {
+        if (cell < 0 || cell >= boardSize * boardSize)
+            return null;
+        return occupied.get(cell / boardSize, cell % boardSize);
     }
 
     /**
@@ -114,24 +197,45 @@ public class Fleet implements IFleet {
      * @return true se o navio estiver dentro do tabuleiro, false caso contrário.
      */
     private boolean isInsideBoard(IShip s) {
-        return (s.getLeftMostPos() >= 0 && s.getRightMostPos() <= BOARD_SIZE - 1 && s.getTopMostPos() >= 0
-                && s.getBottomMostPos() <= BOARD_SIZE - 1);
+        return (s.getLeftMostPos() >= 0 && s.getRightMostPos() <= boardSize - 1 && s.getTopMostPos() >= 0
+                && s.getBottomMostPos() <= boardSize - 1);
     }
 
     /**
      * Verifica se existe risco de colisão entre um novo navio e os navios já presentes na frota.
+     * Cada célula do navio é testada contra a máscara de células proibidas, o que equivale a
+     * verificar {@link IShip#tooCloseTo(IShip)} contra todos os navios da frota.
+     * Pressupõe que o navio já foi validado por {@link #isInsideBoard(IShip)}.
      *
      * @param s O navio a verificar.
      * @return true se houver risco de colisão (ou proximidade excessiva), false se for seguro colocar o navio.
      */
     private boolean colisionRisk(IShip s) {
-        for (int i = 0; i < ships.size(); i++) {
-            if (ships.get(i).tooCloseTo(s))
+        List<IPosition> positions = s.getPositions();
+        for (int i = 0; i < positions.size(); i++) {
+            IPosition p = positions.get(i);
+            if (halo.get(p.getRow() * boardSize + p.getColumn()))
                 return true;
         }
         return false;
     }
 
+    /**
+     * Marca na máscara de células proibidas as células do navio e todas as suas vizinhas
+     * (horizontais, verticais e diagonais) que estejam dentro do tabuleiro.
+     *
+     * @param s O navio acabado de adicionar à frota.
+     */
+    private void markHalo(IShip s) {
+        List<IPosition> positions = s.getPositions();
+        for (int i = 0; i < positions.size(); i++) {
+            IPosition p = positions.get(i);
+            for (int r = Math.max(0, p.getRow() - 1); r <= Math.min(boardSize - 1, p.getRow() + 1); r++)
+                for (int c = Math.max(0, p.getColumn() - 1); c <= Math.min(boardSize - 1, p.getColumn() + 1); c++)
+                    halo.add(r * boardSize + c);
+        }
+    }
+
 
     /**
      * Imprime na consola o estado atual e geral da frota.
@@ -0,0 +1,279 @@
+package iscteiul.ista.battleship;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+
+/**
+ * Carregamento em massa de frotas a partir de ficheiros CSV.
+ * <p>
+ * Cada linha descreve um navio: {@code fleet_id,kind,row,col,bearing} (ex: {@code 17,galeao,0,0,n}),
+ * sendo a primeira linha ignorada se for o cabeçalho. As linhas de uma frota têm de ser consecutivas.
+ * O ficheiro é lido em streaming pela thread que chama {@link #load(Reader, Listener)}; cada frota
+ * completa é entregue a um pool limitado de workers que a valida com as regras de
+ * {@link Fleet#addShip(IShip)} e verifica a composição regulamentar. A fila do pool tem capacidade
+ * limitada e, quando está cheia, a própria thread de leitura valida a frota
+ * ({@link ThreadPoolExecutor.CallerRunsPolicy}), pelo que a memória usada não depende do tamanho
+ * do ficheiro.
+ * </p>
+ * <p>
+ * Uma exceção lançada pelo {@link Listener} é tratada da mesma forma em qualquer thread: a leitura
+ * pára, as frotas já entregues ao pool terminam e {@link #load(Reader, Listener)} relança a
+ * primeira exceção.
+ * </p>
+ */
+public class FleetCsvLoader {
+
+    /**
+     * Destino das frotas carregadas. Os métodos são chamados pelas threads do pool (ou pela thread
+     * de leitura, quando a fila está cheia), em paralelo e sem ordem garantida, pelo que as
+     * implementações têm de ser thread-safe. Uma exceção lançada por um destes métodos interrompe
+     * o carregamento e é relançada por {@link #load(Reader, Listener)}.
+     */
+    public interface Listener {
+
+        /**
+         * Notifica uma frota válida.
+         *
+         * @param fleetId O identificador da frota no ficheiro.
+         * @param fleet   A frota construída.
+         */
+        void accepted(String fleetId, IFleet fleet);
+
+        /**
+         * Notifica uma frota rejeitada.
+         *
+         * @param fleetId O identificador da frota no ficheiro.
+         * @param line    O número da linha (a partir de 1) do navio que levou à rejeição, ou a do
+         *                primeiro navio da frota se a composição estiver errada.
+         * @param reason  O motivo da rejeição.
+         */
+        void rejected(String fleetId, long line, String reason);
+    }
+
+    /** Número de frotas em fila por worker. */
+    private static final int QUEUE_PER_WORKER = 4;
+
+    private static final String HEADER = "fleet_id";
+
+    private static final int ID = 0;
+    private static final int KIND = 1;
+    private static final int ROW = 2;
+    private static final int COLUMN = 3;
+    private static final int BEARING = 4;
+    private static final int COLUMNS = 5;
+
+    /**
+     * Linha de um navio, com o seu número de linha no ficheiro.
+     */
+    private static final class ShipRow {
+        private final long line;
+        private final String[] fields;
+
+        /**
+         * Construtor da classe ShipRow.
+         *
+         * @param line   O número da linha (a partir de 1).
+         * @param fields Os campos da linha.
+         */
+        ShipRow(long line, String[] fields) {
+            this.line = line;
+            this.fields = fields;
+        }
+    }
+
+    private final int boardSize;
+    private final int workers;
+
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Construtor da classe FleetCsvLoader para o tabuleiro por omissão, com um worker por processador.
+     */
+    public FleetCsvLoader() {
+        this(IFleet.BOARD_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Construtor da classe FleetCsvLoader.
+     *
+     * @param boardSize O tamanho (lado) do tabuleiro das frotas.
+     * @param workers   O número de threads de validação.
+     */
+    public FleetCsvLoader(int boardSize, int workers) {
+        if (workers < 1)
+            throw new IllegalArgumentException("ERROR! invalid number of workers: " + workers);
+        this.boardSize = boardSize;
+        this.workers = workers;
+    }
+
+    /**
+     * Lê todas as frotas do CSV, validando-as em paralelo, e espera até estarem todas processadas.
+     *
+     * @param in       A origem do CSV.
+     * @param listener O destino das frotas aceites e rejeitadas.
+     * @throws IOException      Se ocorrer um erro de leitura ou o CSV estiver mal formado.
+     * @throws RuntimeException A primeira exceção lançada pelo listener, depois de terminadas as
+     *                          frotas já entregues ao pool; as linhas seguintes não são lidas.
+     */
+    public void load(Reader in, Listener listener) throws IOException {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers * QUEUE_PER_WORKER), new ThreadPoolExecutor.CallerRunsPolicy());
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        try (CSVReader csv = new CSVReader(in)) {
+            String currentId = null;
+            List<ShipRow> ships = new ArrayList<>();
+            String[] row;
+            while (failure.get() == null && (row = csv.readNext()) != null) {
+                long line = csv.getLinesRead();
+                if (line == 1 && row.length > 0 && HEADER.equalsIgnoreCase(row[ID].trim()))
+                    continue;
+                if (row.length == 1 && row[0].isBlank())
+                    continue;
+                rows.increment();
+
+                String id = row[ID].trim();
+                if (!id.equals(currentId)) {
+                    if (currentId != null)
+                        submit(pool, currentId, ships, listener, failure);
+                    currentId = id;
+                    ships = new ArrayList<>();
+                }
+                ships.add(new ShipRow(line, row));
+            }
+            if (currentId != null && failure.get() == null)
+                submit(pool, currentId, ships, listener, failure);
+        } catch (CsvValidationException e) {
+            throw new IOException("ERROR! malformed CSV: " + e.getMessage(), e);
+        } finally {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (failure.get() != null)
+            throw failure.get();
+    }
+
+    /**
+     * Entrega uma frota ao pool de validação.
+     *
+     * @param pool     O pool de validação.
+     * @param fleetId  O identificador da frota.
+     * @param ships    As linhas dos navios da frota.
+     * @param listener O destino da frota.
+     * @param failure  A primeira exceção lançada pelo listener.
+     */
+    private void submit(ThreadPoolExecutor pool, String fleetId, List<ShipRow> ships, Listener listener,
+                        AtomicReference<RuntimeException> failure) {
+        pool.execute(() -> {
+            try {
+                validate(fleetId, ships, listener);
+            } catch (RuntimeException e) {
+                // a mesma captura serve os workers e a thread de leitura (CallerRunsPolicy)
+                failure.compareAndSet(null, e);
+            }
+        });
+    }
+
+    /**
+     * Constrói e valida uma frota, notificando o resultado.
+     *
+     * @param fleetId  O identificador da frota.
+     * @param ships    As linhas dos navios da frota.
+     * @param listener O destino da frota.
+     */
+    private void validate(String fleetId, List<ShipRow> ships, Listener listener) {
+        Fleet fleet = new Fleet(boardSize);
+        int[] counts = new int[ShipShape.values().length];
+        for (ShipRow ship : ships) {
+            String reason = addShip(fleet, ship.fields, counts);
+            if (reason != null) {
+                rejected.increment();
+                listener.rejected(fleetId, ship.line, reason);
+                return;
+            }
+        }
+        for (ShipShape shape : ShipShape.values())
+            if (counts[shape.ordinal()] != shape.getFleetCount()) {
+                rejected.increment();
+                listener.rejected(fleetId, ships.get(0).line, "ERROR! fleet must have " + shape.getFleetCount()
+                        + " " + shape.getKind() + " but has " + counts[shape.ordinal()]);
+                return;
+            }
+        accepted.increment();
+        listener.accepted(fleetId, fleet);
+    }
+
+    /**
+     * Constrói o navio de uma linha e acrescenta-o à frota.
+     *
+     * @param fleet  A frota.
+     * @param row    Os campos da linha.
+     * @param counts O número de navios de cada forma já acrescentados, atualizado em caso de sucesso.
+     * @return null se o navio foi acrescentado, ou o motivo da rejeição.
+     */
+    private static String addShip(Fleet fleet, String[] row, int[] counts) {
+        if (row.length != COLUMNS)
+            return "ERROR! expected " + COLUMNS + " columns but found " + row.length;
+        ShipShape shape = ShipShape.fromKind(row[KIND].trim());
+        if (shape == null)
+            return "ERROR! unknown ship kind: " + row[KIND];
+        String bearingText = row[BEARING].trim();
+        if (bearingText.length() != 1)
+            return "ERROR! invalid bearing: " + row[BEARING];
+
+        Ship s;
+        try {
+            int r = Integer.parseInt(row[ROW].trim());
+            int c = Integer.parseInt(row[COLUMN].trim());
+            s = Ship.buildShip(shape.getKind(), Compass.charToCompass(bearingText.charAt(0)), Position.of(r, c));
+        } catch (IllegalArgumentException e) {
+            return e instanceof NumberFormatException ? "ERROR! invalid coordinate: " + e.getMessage() : e.getMessage();
+        }
+        if (!fleet.addShip(s))
+            return "ERROR! ship breaks the fleet rules: " + String.join(",", row);
+        counts[shape.ordinal()]++;
+        return null;
+    }
+
+    /**
+     * Obtém o número de linhas de navios lidas.
+     *
+     * @return O número de linhas, sem contar o cabeçalho nem linhas vazias.
+     */
+    public long getRows() {
+        return rows.sum();
+    }
+
+    /**
+     * Obtém o número de frotas aceites.
+     *
+     * @return O número de frotas válidas.
+     */
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    /**
+     * Obtém o número de frotas rejeitadas.
+     *
+     * @return O número de frotas inválidas.
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
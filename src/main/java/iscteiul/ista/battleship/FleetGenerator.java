@@ -0,0 +1,273 @@
+package iscteiul.ista.battleship;
+
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Gerador de frotas aleatórias válidas para o jogo da Batalha Naval.
+ * <p>
+ * As frotas têm a composição regulamentar definida em {@link ShipShape#getFleetCount()}
+ * e respeitam as mesmas regras de {@link Fleet#addShip(IShip)} (dentro do tabuleiro e sem
+ * navios a tocar-se). A procura é feita por backtracking sobre as máscaras pré-calculadas
+ * de {@link PlacementTable}, colocando primeiro os navios maiores. Cada tentativa tem um limite
+ * de {@value #NODE_BUDGET} colocações experimentadas; quando o esgota, a procura recomeça com
+ * outra ordem aleatória, para que um mau início não obrigue a percorrer toda a árvore. Os
+ * tabuleiros onde a frota não cabe de certeza são rejeitados logo no construtor.
+ * </p>
+ * <p>
+ * Cada frota é gerada a partir de um {@link SplittableRandom} próprio, cuja semente resulta de
+ * misturar a semente do gerador com o índice da frota, pelo que as sequências de frotas vizinhas
+ * não estão correlacionadas. Assim, a frota de índice {@code i} é sempre a mesma para
+ * a mesma semente, quer seja gerada sequencialmente quer em paralelo por {@link #fleets(long)}.
+ * </p>
+ */
+public class FleetGenerator {
+
+    /** Número máximo de colocações experimentadas em cada tentativa, antes de recomeçar a procura. */
+    static final int NODE_BUDGET = 1_000;
+
+    /** Número de tentativas limitadas antes da procura exaustiva final. */
+    static final int MAX_RESTARTS = 1_000;
+
+    private final long seed;
+    private final PlacementTable table;
+
+    /** Tipo de navio a colocar em cada posição da frota, do maior para o menor. */
+    private final ShipShape[] slots;
+
+    /**
+     * Construtor da classe FleetGenerator para o tabuleiro por omissão.
+     *
+     * @param seed A semente a partir da qual todas as frotas são derivadas.
+     */
+    public FleetGenerator(long seed) {
+        this(seed, IFleet.BOARD_SIZE);
+    }
+
+    /**
+     * Construtor da classe FleetGenerator para um tabuleiro com o tamanho indicado.
+     * A procura usa máscaras completas do tabuleiro, pelo que o tamanho está limitado
+     * ao suportado por {@link PlacementTable}.
+     *
+     * @param seed      A semente a partir da qual todas as frotas são derivadas.
+     * @param boardSize O tamanho (lado) do tabuleiro.
+     * @throws IllegalArgumentException Se o tabuleiro for demasiado grande, ou demasiado pequeno
+     *                                  para a frota (ver {@link #requiredArea(PlacementTable, ShipShape)}).
+     */
+    public FleetGenerator(long seed, int boardSize) {
+        this.seed = seed;
+        this.table = PlacementTable.forBoard(boardSize);
+        this.slots = ShipShape.fleetSlots();
+
+        int area = 0;
+        for (ShipShape shape : slots) {
+            if (table.count(shape) == 0)
+                throw new IllegalArgumentException("ERROR! board too small for the fleet: " + boardSize);
+            area += requiredArea(table, shape);
+        }
+        if (area > (boardSize + 1) * (boardSize + 1))
+            throw new IllegalArgumentException("ERROR! board too small for the fleet: " + boardSize);
+    }
+
+    /**
+     * Obtém os tipos de navio de cada posição da frota gerada, pela ordem de colocação.
+     *
+     * @return Uma cópia da composição da frota.
+     */
+    public ShipShape[] getSlots() {
+        return slots.clone();
+    }
+
+    /**
+     * Gera a frota de índice indicado. O resultado depende apenas da semente e do índice.
+     *
+     * @param index O índice da frota.
+     * @return Uma frota válida e completa.
+     */
+    public IFleet generate(long index) {
+        return generate(randomFor(index));
+    }
+
+    /**
+     * Gera uma frota usando o gerador de números aleatórios indicado.
+     *
+     * @param random O gerador de números aleatórios.
+     * @return Uma frota válida e completa.
+     */
+    public IFleet generate(SplittableRandom random) {
+        int[] placements = generatePlacements(random, new int[slots.length]);
+        if (placements == null)
+            throw new IllegalStateException("ERROR! no valid fleet for this board");
+
+        Fleet fleet = new BitboardFleet(table.boardSize());
+        for (int i = 0; i < slots.length; i++) {
+            boolean added = fleet.addShip(table.build(slots[i], placements[i]));
+            assert added;
+        }
+        return fleet;
+    }
+
+    /**
+     * Gera, em paralelo, as frotas de índice {@code 0} a {@code count - 1}.
+     * A ordem e o conteúdo do fluxo são reprodutíveis a partir da semente.
+     *
+     * @param count O número de frotas a gerar.
+     * @return Um fluxo paralelo de frotas.
+     */
+    public Stream<IFleet> fleets(long count) {
+        return LongStream.range(0, count).parallel().mapToObj(this::generate);
+    }
+
+    /**
+     * Gera apenas os índices das colocações de cada navio da frota (ver {@link #getSlots()}),
+     * sem construir navios nem frotas.
+     *
+     * @param random O gerador de números aleatórios.
+     * @param out    O array onde escrever o índice da colocação de cada posição da frota.
+     * @return O array {@code out}, ou null se não existir nenhuma frota válida.
+     */
+    public int[] generatePlacements(SplittableRandom random, int[] out) {
+        assert out.length >= slots.length;
+
+        long[] forbidden = new long[(slots.length + 1) * table.words()];
+        int[] budget = new int[1];
+        for (int attempt = 0; attempt < MAX_RESTARTS; attempt++) {
+            budget[0] = NODE_BUDGET;
+            if (place(0, random, forbidden, out, budget))
+                return out;
+        }
+        // só um tabuleiro no limite da frota chega aqui: a última procura decide se existe solução
+        budget[0] = Integer.MAX_VALUE;
+        return place(0, random, forbidden, out, budget) ? out : null;
+    }
+
+    /**
+     * Calcula a área ocupada por um navio e pela parte do seu halo abaixo e à direita, isto é,
+     * o número de células cobertas pelos quadrados 2x2 com canto superior esquerdo em cada célula
+     * do navio. Como os navios não se tocam, nem na diagonal, estas áreas são disjuntas e cabem
+     * num tabuleiro com mais uma linha e mais uma coluna; a soma das áreas da frota é, portanto,
+     * um limite inferior de {@code (boardSize + 1)²}.
+     *
+     * @param table A tabela de colocações do tabuleiro.
+     * @param shape A forma do navio; tem de ter pelo menos uma colocação.
+     * @return O número de células cobertas.
+     */
+    private static int requiredArea(PlacementTable table, ShipShape shape) {
+        int size = table.boardSize();
+        int side = size + 1;
+        boolean[] covered = new boolean[side * side];
+        int area = 0;
+        for (int i = 0; i < shape.getSize(); i++) {
+            int cell = table.cell(shape, 0, i);
+            int row = cell / size;
+            int column = cell % size;
+            for (int dr = 0; dr <= 1; dr++)
+                for (int dc = 0; dc <= 1; dc++) {
+                    int k = (row + dr) * side + column + dc;
+                    if (!covered[k]) {
+                        covered[k] = true;
+                        area++;
+                    }
+                }
+        }
+        return area;
+    }
+
+    /**
+     * Deriva o gerador de números aleatórios da frota de índice indicado.
+     *
+     * @param index O índice da frota.
+     * @return Um gerador independente para essa frota.
+     */
+    SplittableRandom randomFor(long index) {
+        // somar um múltiplo do gama interno do SplittableRandom daria a mesma sequência desfasada
+        return new SplittableRandom(mix64(mix64(seed) + index));
+    }
+
+    /**
+     * Finalizador de 64 bits (variante 13 de Stafford): cada bit do resultado depende de todos
+     * os bits do argumento.
+     *
+     * @param z O valor a misturar.
+     * @return O valor misturado.
+     */
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Coloca recursivamente o navio da posição {@code slot} e os seguintes.
+     * As colocações candidatas são visitadas a partir de um ponto inicial e de um passo
+     * aleatórios, para que cada tentativa percorra a tabela por uma ordem diferente.
+     * Cada colocação experimentada gasta uma unidade do orçamento; esgotado o orçamento,
+     * a procura desiste sem percorrer as restantes colocações.
+     *
+     * @param slot      A posição da frota a preencher.
+     * @param random    O gerador de números aleatórios.
+     * @param forbidden As máscaras de células proibidas de cada nível da procura.
+     * @param out       O array onde escrever as colocações escolhidas.
+     * @param budget    O número de colocações que ainda podem ser experimentadas, em {@code budget[0]}.
+     * @return true se foi possível completar a frota dentro do orçamento.
+     */
+    private boolean place(int slot, SplittableRandom random, long[] forbidden, int[] out, int[] budget) {
+        if (slot == slots.length)
+            return true;
+
+        ShipShape shape = slots[slot];
+        int count = table.count(shape);
+        int words = table.words();
+        int current = slot * words;
+        int next = current + words;
+
+        int start = random.nextInt(count);
+        int step = coprimeStep(count, random);
+        for (int i = 0, p = start; i < count; i++, p = (p + step) % count) {
+            if (!table.fits(shape, p, forbidden, current))
+                continue;
+            if (budget[0]-- <= 0)
+                return false;
+
+            System.arraycopy(forbidden, current, forbidden, next, words);
+            table.markHalo(shape, p, forbidden, next);
+
+            out[slot] = p;
+            if (place(slot + 1, random, forbidden, out, budget))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Escolhe um passo aleatório primo com {@code count}, para que a sequência
+     * {@code start + k * step (mod count)} visite todas as colocações exatamente uma vez.
+     *
+     * @param count  O número de colocações.
+     * @param random O gerador de números aleatórios.
+     * @return Um passo entre 1 e {@code count}.
+     */
+    private static int coprimeStep(int count, SplittableRandom random) {
+        int step = 1 + random.nextInt(count);
+        while (gcd(step, count) != 1)
+            step = step == count ? 1 : step + 1;
+        return step;
+    }
+
+    /**
+     * Calcula o máximo divisor comum de dois inteiros positivos.
+     *
+     * @param a O primeiro inteiro.
+     * @param b O segundo inteiro.
+     * @return O máximo divisor comum.
+     */
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
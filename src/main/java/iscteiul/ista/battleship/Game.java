@@ -1,6 +1,9 @@
 package iscteiul.ista.battleship;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -9,66 +12,237 @@ import java.util.List;
  * contabilizar as estatísticas do jogo (tiros inválidos, repetidos, acertos e afundamentos).
  */
 public class Game implements IGame {
+    /** Capacidade inicial do registo compacto de tiros. */
+    private static final int INITIAL_SHOT_CAPACITY = 16;
+
+    private static final IShotObserver[] NO_OBSERVERS = new IShotObserver[0];
+
     private IFleet fleet;
-    private List<IPosition> shots;
 
-    private Integer countInvalidShots;
-    private Integer countRepeatedShots;
-    private Integer countHits;
-    private Integer countSinks;
+    /** Tamanho (lado) do tabuleiro, obtido da frota. */
+    private final int boardSize;
+
+    /**
+     * Células já alvejadas, indexadas por {@code row * boardSize + column}. Os blocos do conjunto
+     * só são alocados onde há tiros, pelo que tabuleiros muito grandes não custam memória à partida.
+     */
+    private final ChunkedBitSet firedCells;
+
+    /** Registo compacto dos tiros válidos, pela ordem em que foram disparados. */
+    private int[] shotLog;
+    private int shotCount;
+
+    /** Vista só de leitura sobre o registo de tiros, construída apenas quando pedida. */
+    private List<IPosition> shotsView;
+
+    private int countInvalidShots;
+    private int countRepeatedShots;
+    private int countHits;
+    private int countSinks;
+
+    /** Observadores dos disparos; o array é substituído (nunca alterado) quando muda. */
+    private IShotObserver[] observers = NO_OBSERVERS;
+
+    /** Renderer reutilizado para imprimir o tabuleiro. */
+    private BoardRenderer renderer;
+
+    /** Resultado do último disparo processado. */
+    private ShotOutcome lastOutcome;
 
     /**
      * Construtor da classe Game.
-     * Inicializa as listas e os contadores base para uma nova partida.
+     * Inicializa o registo de tiros e os contadores base para uma nova partida.
      *
      * @param fleet A frota de navios a ser utilizada nesta partida.
      */
     public Game(IFleet fleet) {
-        shots = new ArrayList<>();
+        boardSize = fleet.getBoardSize();
+        firedCells = new ChunkedBitSet(boardSize * boardSize);
+        shotLog = new int[INITIAL_SHOT_CAPACITY];
+        shotCount = 0;
         countInvalidShots = 0;
         countRepeatedShots = 0;
+        countHits = 0;
+        countSinks = 0;
         this.fleet = fleet;
     }
 
     /**
      * Processa um tiro disparado contra uma posição do tabuleiro.
      * Verifica se o tiro é válido, repetido, ou se acertou num navio,
-     * atualizando os respetivos contadores.
+     * atualizando os respetivos contadores e o resultado do último disparo.
      *
      * @param pos A posição alvo do tiro.
      * @return O navio caso este tiro o tenha afundado, ou null caso contrário.
      */
     @Override
     public IShip fire(IPosition pos) {
-        if (!validShot(pos))
+        IShip hit = null;
+        if (!validShot(pos)) {
+            countInvalidShots++;
+            lastOutcome = ShotOutcome.INVALID;
+        } else { // valid shot!
+            hit = shoot(cellOf(pos));
+        }
+        for (IShotObserver observer : observers)
+            observer.onShot(pos.getRow(), pos.getColumn(), lastOutcome, hit);
+        return lastOutcome == ShotOutcome.SUNK ? hit : null;
+    }
+
+    /**
+     * Processa um tiro disparado contra uma célula codificada como {@code row * boardSize + column},
+     * com as mesmas regras de {@link #fire(IPosition)} mas sem criar nenhuma posição.
+     *
+     * @param cell A célula alvo; fora de {@code [0, boardSize * boardSize)} o tiro é inválido.
+     * @return O navio caso este tiro o tenha afundado, ou null caso contrário.
+     */
+    @Override
+    public IShip fire(int cell) {
+        IShip hit = null;
+        if (cell < 0 || cell >= boardSize * boardSize) {
             countInvalidShots++;
-        else { // valid shot!
-            if (repeatedShot(pos))
-                countRepeatedShots++;
-            else {
-                shots.add(pos);
-                IShip s = fleet.shipAt(pos);
-                if (s != null) {
-                    s.shoot(pos);
-                    countHits++;
-                    if (!s.stillFloating()) {
-                        countSinks++;
-                        return s;
-                    }
-                }
+            lastOutcome = ShotOutcome.INVALID;
+        } else {
+            hit = shoot(cell);
+        }
+        notifyShot(cell, hit);
+        return lastOutcome == ShotOutcome.SUNK ? hit : null;
+    }
+
+    /**
+     * Dispara uma rajada (ou uma sequência longa de tiros) sobre células codificadas como
+     * {@code row * boardSize + column}. Ver {@link IGame#fireVolley(int[], byte[])}.
+     *
+     * @param cells    As células alvo, pela ordem de disparo.
+     * @param outcomes O array onde é escrito o código ({@link ShotOutcome#getCode()}) do resultado de cada tiro.
+     * @return O número de navios afundados pela rajada.
+     * @throws IllegalArgumentException Se {@code outcomes} for mais curto do que {@code cells}.
+     */
+    @Override
+    public int fireVolley(int[] cells, byte[] outcomes) {
+        if (outcomes.length < cells.length)
+            throw new IllegalArgumentException("ERROR! " + outcomes.length + " outcomes for " + cells.length + " shots");
+        int limit = boardSize * boardSize;
+        int capacity = (int) Math.min((long) shotCount + cells.length, limit);
+        if (capacity > shotLog.length)
+            shotLog = Arrays.copyOf(shotLog, Math.max(capacity, shotLog.length * 2));
+
+        int sunk = 0;
+        for (int i = 0; i < cells.length; i++) {
+            int cell = cells[i];
+            IShip hit = null;
+            if (cell < 0 || cell >= limit) {
+                countInvalidShots++;
+                lastOutcome = ShotOutcome.INVALID;
+            } else {
+                hit = shoot(cell);
+                if (lastOutcome == ShotOutcome.SUNK)
+                    sunk++;
+            }
+            outcomes[i] = lastOutcome.getCode();
+            notifyShot(cell, hit);
+        }
+        return sunk;
+    }
+
+    /**
+     * Notifica os observadores de um disparo feito por índice de célula. Uma célula fora do
+     * tabuleiro não identifica a coordenada original e é comunicada como
+     * {@link IShotObserver#UNKNOWN_COORDINATE}.
+     *
+     * @param cell A célula alvo.
+     * @param hit  O navio atingido, ou null.
+     */
+    private void notifyShot(int cell, IShip hit) {
+        if (observers.length == 0)
+            return;
+        boolean inside = cell >= 0 && cell < boardSize * boardSize;
+        int row = inside ? cell / boardSize : IShotObserver.UNKNOWN_COORDINATE;
+        int column = inside ? cell % boardSize : IShotObserver.UNKNOWN_COORDINATE;
+        for (IShotObserver observer : observers)
+            observer.onShot(row, column, lastOutcome, hit);
+    }
+
+    /**
+     * Processa um tiro dentro do tabuleiro: deteta a repetição, regista o tiro e resolve o
+     * acerto e o afundamento, atualizando os contadores e o resultado do último disparo.
+     *
+     * @param cell O índice da célula alvo.
+     * @return O navio atingido, ou null se o tiro for repetido ou cair na água.
+     */
+    private IShip shoot(int cell) {
+        if (!firedCells.add(cell)) {
+            countRepeatedShots++;
+            lastOutcome = ShotOutcome.REPEATED;
+            return null;
+        }
+        recordShot(cell);
+        lastOutcome = ShotOutcome.MISS;
+        IShip hit = fleet.shipAt(cell);
+        if (hit != null) {
+            hit.shoot(cell, boardSize);
+            countHits++;
+            lastOutcome = ShotOutcome.HIT;
+            if (!hit.stillFloating()) {
+                countSinks++;
+                lastOutcome = ShotOutcome.SUNK;
             }
         }
-        return null;
+        return hit;
+    }
+
+    /**
+     * Regista um observador, notificado após cada disparo processado por {@link #fire(IPosition)}.
+     *
+     * @param observer O observador a registar.
+     */
+    public void addObserver(IShotObserver observer) {
+        observers = Arrays.copyOf(observers, observers.length + 1);
+        observers[observers.length - 1] = observer;
+    }
+
+    /**
+     * Remove um observador previamente registado.
+     *
+     * @param observer O observador a remover.
+     */
+    public void removeObserver(IShotObserver observer) {
+        for (int i = 0; i < observers.length; i++)
+            if (observers[i] == observer) {
+                IShotObserver[] remaining = new IShotObserver[observers.length - 1];
+                System.arraycopy(observers, 0, remaining, 0, i);
+                System.arraycopy(observers, i + 1, remaining, i, remaining.length - i);
+                observers = remaining;
+                return;
+            }
+    }
+
+    /**
+     * Obtém o resultado do último disparo processado por {@link #fire(IPosition)}.
+     *
+     * @return O resultado do último disparo, ou null se ainda não foi efetuado nenhum disparo.
+     */
+    @Override
+    public ShotOutcome getLastOutcome() {
+        return lastOutcome;
     }
 
     /**
      * Obtém a lista de todas as posições onde já foram disparados tiros.
+     * A lista é uma vista só de leitura construída a partir do registo compacto de tiros,
+     * sendo reconstruída apenas quando foram disparados novos tiros desde o último pedido.
      *
-     * @return Uma lista com as posições dos tiros.
+     * @return Uma lista (não modificável) com as posições dos tiros.
      */
     @Override
     public List<IPosition> getShots() {
-        return shots;
+        if (shotsView == null) {
+            List<IPosition> shots = new ArrayList<>(shotCount);
+            for (int i = 0; i < shotCount; i++)
+                shots.add(Position.of(shotLog[i] / boardSize, shotLog[i] % boardSize));
+            shotsView = Collections.unmodifiableList(shots);
+        }
+        return shotsView;
     }
 
     /**
@@ -111,15 +285,37 @@ public class Game implements IGame {
         return this.countSinks;
     }
 
+    /**
+     * Obtém a frota atacada nesta partida.
+     *
+     * @return A frota do jogo.
+     */
+    @Override
+    public IFleet getFleet() {
+        return fleet;
+    }
+
+    /**
+     * Repõe os contadores de tiros inválidos e repetidos, que não deixam rasto no registo de tiros.
+     * Usado ao reconstruir uma partida a partir de um snapshot.
+     *
+     * @param invalid  O número de tiros inválidos.
+     * @param repeated O número de tiros repetidos.
+     */
+    void restoreCounters(int invalid, int repeated) {
+        countInvalidShots = invalid;
+        countRepeatedShots = repeated;
+    }
+
     /**
      * Obtém o número de navios que ainda não foram totalmente afundados.
+     * A contagem é feita pela frota a partir do estado dos navios, sem alocar listas.
      *
      * @return O número de navios restantes na frota.
      */
     @Override
     public int getRemainingShips() {
-        List<IShip> floatingShips = fleet.getFloatingShips();
-        return floatingShips.size();
+        return fleet.countFloatingShips();
     }
 
     /**
@@ -129,65 +325,89 @@ public class Game implements IGame {
      * @return true se o tiro for válido (dentro do tabuleiro), false caso contrário.
      */
     private boolean validShot(IPosition pos) {
-        return (pos.getRow() >= 0 && pos.getRow() <= Fleet.BOARD_SIZE && pos.getColumn() >= 0
-                && pos.getColumn() <= Fleet.BOARD_SIZE);
+        return (pos.getRow() >= 0 && pos.getRow() < boardSize && pos.getColumn() >= 0
+                && pos.getColumn() < boardSize);
     }
 
     /**
-     * Verifica se um tiro já foi disparado anteriormente para a mesma posição.
+     * Acrescenta um tiro válido e não repetido (já marcado no bitset) ao registo compacto de tiros.
      *
-     * @param pos A posição do tiro a verificar.
-     * @return true se a posição já tiver sido alvo de um tiro, false caso contrário.
+     * @param cell O índice da célula alvejada.
+     */
+    private void recordShot(int cell) {
+        if (shotCount == shotLog.length)
+            shotLog = Arrays.copyOf(shotLog, shotLog.length * 2);
+        shotLog[shotCount++] = cell;
+        shotsView = null;
+    }
+
+    /**
+     * Converte uma posição dentro do tabuleiro no índice linear da célula.
+     *
+     * @param pos A posição a converter.
+     * @return O índice {@code row * boardSize + column}.
      */
-    private boolean repeatedShot(IPosition pos) {
-        for (int i = 0; i < shots.size(); i++)
-            if (shots.get(i).equals(pos))
-                return true;
-        return false;
+    private int cellOf(IPosition pos) {
+        return pos.getRow() * boardSize + pos.getColumn();
     }
 
     /**
      * Método auxiliar genérico que imprime o tabuleiro de jogo na consola,
      * marcando posições específicas com o caracter indicado.
+     * O tabuleiro é composto em memória e escrito numa única operação.
      *
      * @param positions A lista de posições a marcar no tabuleiro.
      * @param marker O caracter a ser utilizado para a marcação.
      */
     public void printBoard(List<IPosition> positions, Character marker) {
-        char[][] map = new char[Fleet.BOARD_SIZE][Fleet.BOARD_SIZE];
-
-        for (int r = 0; r < Fleet.BOARD_SIZE; r++)
-            for (int c = 0; c < Fleet.BOARD_SIZE; c++)
-                map[r][c] = '.';
-
-        for (IPosition pos : positions)
-            map[pos.getRow()][pos.getColumn()] = marker;
-
-        for (int row = 0; row < Fleet.BOARD_SIZE; row++) {
-            for (int col = 0; col < Fleet.BOARD_SIZE; col++)
-                System.out.print(map[row][col]);
-            System.out.println();
-        }
-
+        renderer().clear().mark(positions, marker).appendTo(System.out);
     }
 
     /**
      * Imprime o tabuleiro de jogo mostrando todos os tiros válidos que já foram disparados.
      */
     public void printValidShots() {
-        printBoard(getShots(), 'X');
+        printBoard(getShots(), BoardRenderer.SHOT);
     }
 
     /**
      * Imprime o tabuleiro de jogo mostrando a disposição de todos os navios da frota.
      */
     public void printFleet() {
-        List<IPosition> shipPositions = new ArrayList<IPosition>();
+        renderer().clear().markFleet(fleet).appendTo(System.out);
+    }
+
+    /**
+     * Escreve o tabuleiro com todos os tiros válidos que já foram disparados no destino indicado.
+     *
+     * @param out O destino (ex: um ficheiro ou socket).
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    @Override
+    public void printValidShots(Appendable out) throws IOException {
+        renderer().clear().mark(getShots(), BoardRenderer.SHOT).appendTo(out);
+    }
 
-        for (IShip s : fleet.getShips())
-            shipPositions.addAll(s.getPositions());
+    /**
+     * Escreve o tabuleiro com a disposição de todos os navios da frota no destino indicado.
+     *
+     * @param out O destino (ex: um ficheiro ou socket).
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    @Override
+    public void printFleet(Appendable out) throws IOException {
+        renderer().clear().markFleet(fleet).appendTo(out);
+    }
 
-        printBoard(shipPositions, '#');
+    /**
+     * Obtém o renderer do tabuleiro desta partida, criado apenas no primeiro pedido.
+     *
+     * @return O renderer reutilizado por todas as impressões da partida.
+     */
+    private BoardRenderer renderer() {
+        if (renderer == null)
+            renderer = new BoardRenderer(boardSize);
+        return renderer;
     }
 
 }
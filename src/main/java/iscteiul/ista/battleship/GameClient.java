@@ -0,0 +1,96 @@
+package iscteiul.ista.battleship;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Cliente de linha de comandos para o {@link GameServer}.
+ * <p>
+ * Envia um comando de cada vez e lê a resposta completa, até à linha
+ * {@value GameServer#END_OF_REPLY_LINE}. Não é thread-safe: cada jogador usa o seu cliente.
+ * </p>
+ */
+public class GameClient implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 12;
+
+    private final Socket socket;
+    private final BufferedReader in;
+    private final Writer out;
+    private final StringBuilder reply = new StringBuilder();
+
+    /**
+     * Construtor da classe GameClient, que se liga de imediato ao servidor.
+     *
+     * @param host O nome ou endereço do servidor.
+     * @param port O porto do servidor.
+     * @throws IOException Se não for possível estabelecer a ligação.
+     */
+    public GameClient(String host, int port) throws IOException {
+        socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(new InetSocketAddress(host, port));
+        Reader reader = new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8);
+        in = new BufferedReader(reader, BUFFER_SIZE);
+        out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * Envia um comando e espera pela resposta.
+     *
+     * @param command O comando (ex: {@code "rajada 1 1 2 2 3 3"}).
+     * @return O texto da resposta, sem a linha terminadora.
+     * @throws IOException Se ocorrer um erro de comunicação ou o servidor fechar a ligação.
+     */
+    public String send(String command) throws IOException {
+        out.write(command);
+        out.write('\n');
+        out.flush();
+
+        reply.setLength(0);
+        String line;
+        while (!GameServer.END_OF_REPLY_LINE.equals(line = in.readLine())) {
+            if (line == null)
+                throw new EOFException("ERROR! connection closed by the server");
+            reply.append(line).append('\n');
+        }
+        return reply.toString();
+    }
+
+    /**
+     * Constrói o comando {@code nova} que cria uma frota igual à indicada.
+     *
+     * @param fleet A frota.
+     * @return O comando, com um navio por linha.
+     */
+    public static String newFleetCommand(IFleet fleet) {
+        StringBuilder sb = new StringBuilder("nova");
+        for (IShip ship : fleet.getShips()) {
+            IPosition pos = ship.getPosition();
+            sb.append('\n').append(ShipShape.fromCategory(ship.getCategory()).getKind())
+                    .append(' ').append(pos.getRow()).append(' ').append(pos.getColumn())
+                    .append(' ').append(ship.getBearing().getDirection());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Fecha a ligação ao servidor.
+     *
+     * @throws IOException Se ocorrer um erro ao fechar a ligação.
+     */
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,393 @@
+package iscteiul.ista.battleship;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Serialização de frotas e de jogos (snapshots) com a API de streaming do Jackson.
+ * <p>
+ * Os documentos são escritos e lidos diretamente com {@link JsonGenerator} e {@link JsonParser},
+ * sem databinding por reflexão nem objetos intermédios. Os nomes dos campos são pré-codificados
+ * ({@link SerializedString}), o estado de acerto de cada navio é uma máscara de bits e os disparos
+ * são uma lista de índices de célula. A mesma codificação serve para JSON e, através da
+ * respetiva {@link JsonFactory}, para os formatos binários Smile e CBOR.
+ * </p>
+ * <p>
+ * Formato de uma frota:
+ * {@code {"boardSize":10,"ships":[{"kind":"galeao","bearing":"n","row":0,"column":0,"hits":0},...]}},
+ * onde o bit {@code i} de {@code hits} indica que a {@code i}-ésima posição do navio foi atingida.
+ * Um jogo acrescenta à sua frota (sem acertos) os disparos válidos, pela ordem em que foram feitos,
+ * e os contadores de tiros inválidos e repetidos:
+ * {@code {"fleet":{...},"shots":[0,11,...],"invalid":0,"repeated":0}}. Ao ler um jogo, os disparos
+ * são repetidos sobre a frota, o que repõe os acertos, os afundamentos e os restantes contadores.
+ * </p>
+ */
+public class GameCodec {
+
+    private static final SerializableString BOARD_SIZE = new SerializedString("boardSize");
+    private static final SerializableString SHIPS = new SerializedString("ships");
+    private static final SerializableString KIND = new SerializedString("kind");
+    private static final SerializableString BEARING = new SerializedString("bearing");
+    private static final SerializableString ROW = new SerializedString("row");
+    private static final SerializableString COLUMN = new SerializedString("column");
+    private static final SerializableString HITS = new SerializedString("hits");
+    private static final SerializableString FLEET = new SerializedString("fleet");
+    private static final SerializableString SHOTS = new SerializedString("shots");
+    private static final SerializableString INVALID = new SerializedString("invalid");
+    private static final SerializableString REPEATED = new SerializedString("repeated");
+
+    private final JsonFactory factory;
+
+    /**
+     * Construtor da classe GameCodec para JSON.
+     */
+    public GameCodec() {
+        this(new JsonFactory());
+    }
+
+    /**
+     * Construtor da classe GameCodec para o formato da fábrica indicada.
+     *
+     * @param factory A fábrica de geradores e parsers (JSON, Smile, CBOR...).
+     */
+    public GameCodec(JsonFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Cria um codec para JSON.
+     *
+     * @return O codec.
+     */
+    public static GameCodec json() {
+        return new GameCodec(new JsonFactory());
+    }
+
+    /**
+     * Cria um codec para o formato binário Smile.
+     *
+     * @return O codec.
+     */
+    public static GameCodec smile() {
+        return new GameCodec(new SmileFactory());
+    }
+
+    /**
+     * Cria um codec para o formato binário CBOR.
+     *
+     * @return O codec.
+     */
+    public static GameCodec cbor() {
+        return new GameCodec(new CBORFactory());
+    }
+
+    // -----------------------------------------------------
+    // Escrita
+
+    /**
+     * Escreve uma frota, incluindo o estado de acerto dos navios.
+     *
+     * @param fleet A frota.
+     * @param out   O destino.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void writeFleet(IFleet fleet, OutputStream out) throws IOException {
+        try (JsonGenerator gen = factory.createGenerator(out)) {
+            writeFleet(fleet, true, gen);
+        }
+    }
+
+    /**
+     * Escreve um snapshot de um jogo: a frota, os disparos válidos e os contadores.
+     *
+     * @param game O jogo.
+     * @param out  O destino.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void writeGame(IGame game, OutputStream out) throws IOException {
+        try (JsonGenerator gen = factory.createGenerator(out)) {
+            writeGame(game, gen);
+        }
+    }
+
+    /**
+     * Codifica um snapshot de um jogo num array de bytes.
+     *
+     * @param game O jogo.
+     * @return Os bytes do snapshot.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public byte[] toBytes(IGame game) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        writeGame(game, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Escreve um snapshot de um jogo num gerador.
+     *
+     * @param game O jogo.
+     * @param gen  O gerador.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void writeGame(IGame game, JsonGenerator gen) throws IOException {
+        IFleet fleet = game.getFleet();
+        int boardSize = fleet.getBoardSize();
+        List<IPosition> shots = game.getShots();
+
+        gen.writeStartObject();
+        gen.writeFieldName(FLEET);
+        writeFleet(fleet, false, gen);
+        gen.writeFieldName(SHOTS);
+        gen.writeStartArray(shots, shots.size());
+        for (int i = 0; i < shots.size(); i++)
+            gen.writeNumber(shots.get(i).getRow() * boardSize + shots.get(i).getColumn());
+        gen.writeEndArray();
+        gen.writeFieldName(INVALID);
+        gen.writeNumber(game.getInvalidShots());
+        gen.writeFieldName(REPEATED);
+        gen.writeNumber(game.getRepeatedShots());
+        gen.writeEndObject();
+    }
+
+    /**
+     * Escreve uma frota num gerador.
+     *
+     * @param fleet    A frota.
+     * @param withHits true para incluir o estado de acerto dos navios.
+     * @param gen      O gerador.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    private static void writeFleet(IFleet fleet, boolean withHits, JsonGenerator gen) throws IOException {
+        List<IShip> ships = fleet.getShips();
+        gen.writeStartObject();
+        gen.writeFieldName(BOARD_SIZE);
+        gen.writeNumber(fleet.getBoardSize());
+        gen.writeFieldName(SHIPS);
+        gen.writeStartArray(ships, ships.size());
+        for (int i = 0; i < ships.size(); i++) {
+            IShip s = ships.get(i);
+            ShipShape shape = ShipShape.fromCategory(s.getCategory());
+            if (shape == null)
+                throw new IllegalArgumentException("ERROR! unknown ship category: " + s.getCategory());
+
+            gen.writeStartObject();
+            gen.writeFieldName(KIND);
+            gen.writeString(shape.getKind());
+            gen.writeFieldName(BEARING);
+            gen.writeString(s.getBearing().toString());
+            gen.writeFieldName(ROW);
+            gen.writeNumber(s.getPosition().getRow());
+            gen.writeFieldName(COLUMN);
+            gen.writeNumber(s.getPosition().getColumn());
+            if (withHits) {
+                gen.writeFieldName(HITS);
+                gen.writeNumber(hitMask(s));
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    /**
+     * Calcula a máscara das posições atingidas de um navio.
+     *
+     * @param s O navio.
+     * @return A máscara, com o bit {@code i} ativo se a {@code i}-ésima posição foi atingida.
+     */
+    private static int hitMask(IShip s) {
+        List<IPosition> positions = s.getPositions();
+        int mask = 0;
+        for (int i = 0; i < positions.size(); i++)
+            if (s.isHitAt(positions.get(i)))
+                mask |= 1 << i;
+        return mask;
+    }
+
+    // -----------------------------------------------------
+    // Leitura
+
+    /**
+     * Lê uma frota, repondo o estado de acerto dos navios.
+     *
+     * @param in A origem.
+     * @return A frota lida.
+     * @throws IOException Se ocorrer um erro de leitura ou o documento for inválido.
+     */
+    public IFleet readFleet(InputStream in) throws IOException {
+        try (JsonParser p = factory.createParser(in)) {
+            p.nextToken();
+            return readFleet(p);
+        }
+    }
+
+    /**
+     * Lê um snapshot de um jogo, repetindo os disparos sobre a frota.
+     *
+     * @param in A origem.
+     * @return O jogo no estado do snapshot.
+     * @throws IOException Se ocorrer um erro de leitura ou o documento for inválido.
+     */
+    public Game readGame(InputStream in) throws IOException {
+        try (JsonParser p = factory.createParser(in)) {
+            p.nextToken();
+            return readGame(p);
+        }
+    }
+
+    /**
+     * Descodifica um snapshot de um jogo a partir de um array de bytes.
+     *
+     * @param bytes Os bytes do snapshot.
+     * @return O jogo no estado do snapshot.
+     * @throws IOException Se o documento for inválido.
+     */
+    public Game fromBytes(byte[] bytes) throws IOException {
+        return readGame(new ByteArrayInputStream(bytes));
+    }
+
+    /**
+     * Lê um snapshot de um jogo de um parser posicionado no início do objeto.
+     *
+     * @param p O parser.
+     * @return O jogo no estado do snapshot.
+     * @throws IOException Se ocorrer um erro de leitura ou o documento for inválido.
+     */
+    public Game readGame(JsonParser p) throws IOException {
+        expect(p, JsonToken.START_OBJECT);
+        Game game = null;
+        int invalid = 0;
+        int repeated = 0;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            if (FLEET.getValue().equals(name)) {
+                game = new Game(readFleet(p));
+            } else if (SHOTS.getValue().equals(name)) {
+                if (game == null)
+                    throw new JsonParseException(p, "ERROR! shots before fleet");
+                expect(p, JsonToken.START_ARRAY);
+                int boardSize = game.getFleet().getBoardSize();
+                while (p.nextToken() != JsonToken.END_ARRAY) {
+                    int cell = p.getIntValue();
+                    game.fire(Position.of(cell / boardSize, cell % boardSize));
+                }
+            } else if (INVALID.getValue().equals(name)) {
+                invalid = p.getIntValue();
+            } else if (REPEATED.getValue().equals(name)) {
+                repeated = p.getIntValue();
+            } else {
+                p.skipChildren();
+            }
+        }
+        if (game == null)
+            throw new JsonParseException(p, "ERROR! game snapshot without fleet");
+        game.restoreCounters(invalid, repeated);
+        return game;
+    }
+
+    /**
+     * Lê uma frota de um parser posicionado no início do objeto.
+     *
+     * @param p O parser.
+     * @return A frota lida.
+     * @throws IOException Se ocorrer um erro de leitura ou o documento for inválido.
+     */
+    private static IFleet readFleet(JsonParser p) throws IOException {
+        expect(p, JsonToken.START_OBJECT);
+        Fleet fleet = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            if (BOARD_SIZE.getValue().equals(name)) {
+                fleet = new Fleet(p.getIntValue());
+            } else if (SHIPS.getValue().equals(name)) {
+                if (fleet == null)
+                    throw new JsonParseException(p, "ERROR! ships before boardSize");
+                expect(p, JsonToken.START_ARRAY);
+                while (p.nextToken() != JsonToken.END_ARRAY)
+                    readShip(p, fleet);
+            } else {
+                p.skipChildren();
+            }
+        }
+        if (fleet == null)
+            throw new JsonParseException(p, "ERROR! fleet without boardSize");
+        return fleet;
+    }
+
+    /**
+     * Lê um navio, acrescenta-o à frota e repõe o seu estado de acerto.
+     *
+     * @param p     O parser, posicionado no início do objeto do navio.
+     * @param fleet A frota onde acrescentar o navio.
+     * @throws IOException Se ocorrer um erro de leitura ou o navio for inválido.
+     */
+    private static void readShip(JsonParser p, Fleet fleet) throws IOException {
+        expect(p, JsonToken.START_OBJECT);
+        String kind = null;
+        Compass bearing = Compass.UNKNOWN;
+        int row = 0;
+        int column = 0;
+        int hits = 0;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            if (KIND.getValue().equals(name))
+                kind = p.getText();
+            else if (BEARING.getValue().equals(name))
+                bearing = Compass.charToCompass(p.getTextLength() > 0 ? p.getTextCharacters()[p.getTextOffset()] : 'u');
+            else if (ROW.getValue().equals(name))
+                row = p.getIntValue();
+            else if (COLUMN.getValue().equals(name))
+                column = p.getIntValue();
+            else if (HITS.getValue().equals(name))
+                hits = p.getIntValue();
+            else
+                p.skipChildren();
+        }
+
+        if (kind == null)
+            throw new JsonParseException(p, "ERROR! ship without kind");
+        Ship s;
+        try {
+            s = Ship.buildShip(kind, bearing, Position.of(row, column));
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException(p, e.getMessage());
+        }
+        if (s == null || !fleet.addShip(s))
+            throw new JsonParseException(p, "ERROR! invalid ship in fleet: " + kind);
+
+        List<IPosition> positions = s.getPositions();
+        for (int i = 0; i < positions.size(); i++)
+            if ((hits & (1 << i)) != 0)
+                s.shoot(positions.get(i));
+    }
+
+    /**
+     * Verifica que o token atual é o esperado.
+     *
+     * @param p        O parser.
+     * @param expected O token esperado.
+     * @throws JsonParseException Se o token atual for outro.
+     */
+    private static void expect(JsonParser p, JsonToken expected) throws JsonParseException {
+        if (p.currentToken() != expected)
+            throw new JsonParseException(p, "ERROR! expected " + expected + " but found " + p.currentToken());
+    }
+}
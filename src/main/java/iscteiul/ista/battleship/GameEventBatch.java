@@ -0,0 +1,110 @@
+package iscteiul.ista.battleship;
+
+/**
+ * Lote de eventos entregue a um {@link GameEventListener}.
+ * <p>
+ * É uma vista sobre as posições do buffer circular do {@link GameEventBus}, sem cópia nem um
+ * objeto por evento: os eventos são lidos por índice, de {@code 0} a {@code size() - 1}.
+ * O produtor não reescreve estas posições enquanto o subscritor não terminar o lote.
+ * </p>
+ */
+public final class GameEventBatch {
+
+    private final GameEventBus bus;
+    private long first;
+    private int size;
+
+    /**
+     * Construtor da classe GameEventBatch.
+     *
+     * @param bus O bus de onde são lidos os eventos.
+     */
+    GameEventBatch(GameEventBus bus) {
+        this.bus = bus;
+    }
+
+    /**
+     * Posiciona o lote sobre um intervalo de eventos publicados.
+     *
+     * @param first O número de sequência do primeiro evento.
+     * @param size  O número de eventos.
+     */
+    void reset(long first, int size) {
+        this.first = first;
+        this.size = size;
+    }
+
+    /**
+     * Obtém o número de eventos do lote.
+     *
+     * @return O número de eventos.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Obtém o número de sequência de um evento, contado desde o início do bus.
+     *
+     * @param i O índice do evento no lote.
+     * @return O número de sequência.
+     */
+    public long getSequence(int i) {
+        return first + check(i);
+    }
+
+    /**
+     * Obtém o tipo de um evento.
+     *
+     * @param i O índice do evento no lote.
+     * @return O tipo do evento.
+     */
+    public GameEventType getType(int i) {
+        return bus.type(first + check(i));
+    }
+
+    /**
+     * Obtém a linha alvejada por um evento de disparo.
+     *
+     * @param i O índice do evento no lote.
+     * @return A linha do disparo (a do último disparo, para {@link GameEventType#FLEET_DESTROYED}),
+     *         ou {@link IShotObserver#UNKNOWN_COORDINATE} num disparo inválido feito por índice de célula.
+     */
+    public int getRow(int i) {
+        return bus.row(first + check(i));
+    }
+
+    /**
+     * Obtém a coluna alvejada por um evento de disparo.
+     *
+     * @param i O índice do evento no lote.
+     * @return A coluna do disparo (a do último disparo, para {@link GameEventType#FLEET_DESTROYED}),
+     *         ou {@link IShotObserver#UNKNOWN_COORDINATE} num disparo inválido feito por índice de célula.
+     */
+    public int getColumn(int i) {
+        return bus.column(first + check(i));
+    }
+
+    /**
+     * Obtém o navio atingido por um evento de disparo.
+     *
+     * @param i O índice do evento no lote.
+     * @return O navio, para {@link GameEventType#HIT} e {@link GameEventType#SUNK}, ou null.
+     */
+    public IShip getShip(int i) {
+        return bus.ship(first + check(i));
+    }
+
+    /**
+     * Valida um índice do lote.
+     *
+     * @param i O índice.
+     * @return O próprio índice.
+     * @throws IndexOutOfBoundsException Se o índice estiver fora do lote.
+     */
+    private int check(int i) {
+        if (i < 0 || i >= size)
+            throw new IndexOutOfBoundsException("ERROR! event " + i + " outside batch of " + size);
+        return i;
+    }
+}
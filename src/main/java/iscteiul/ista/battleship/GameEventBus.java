@@ -0,0 +1,316 @@
+package iscteiul.ista.battleship;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Bus de eventos de jogo, com um buffer circular de produtor único e subscritores assíncronos.
+ * <p>
+ * O bus é ligado a um {@link Game} com {@link #attach(Game)} e recebe cada disparo como
+ * {@link IShotObserver}, na thread que joga. Publicar um evento é apenas escrever quatro valores
+ * nos arrays paralelos do buffer (sem objetos por evento) e avançar o cursor: a thread que joga
+ * nunca espera pelos subscritores. Cada subscritor tem uma thread própria que, sempre que há
+ * eventos novos, os recebe todos num único {@link GameEventBatch}.
+ * </p>
+ * <p>
+ * Se um subscritor ficar atrasado uma volta inteira do buffer, os eventos seguintes são descartados
+ * (e contados em {@link #getDroppedEvents()}) em vez de bloquear os disparos. Só uma thread pode
+ * disparar de cada vez sobre os jogos ligados ao bus, e os subscritores devem ser registados
+ * antes do primeiro disparo.
+ * </p>
+ */
+public class GameEventBus implements IShotObserver, Closeable {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /** Capacidade por omissão do buffer, em eventos. */
+    public static final int DEFAULT_CAPACITY = 1 << 14;
+
+    /** Tempo máximo de espera de um subscritor sem eventos, antes de voltar a verificar o cursor. */
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final GameEventType[] TYPES = GameEventType.values();
+
+    private final int mask;
+    private final byte[] types;
+    private final int[] rows;
+    private final int[] columns;
+    private final IShip[] ships;
+
+    /** Número de eventos publicados (o próximo número de sequência). */
+    private final AtomicLong cursor = new AtomicLong();
+
+    /** Menor posição de leitura dos subscritores, conhecida pelo produtor. */
+    private long cachedGate;
+    private volatile long droppedEvents;
+
+    private volatile Subscriber[] subscribers = new Subscriber[0];
+    private volatile boolean closed;
+    private Game game;
+
+    /**
+     * Subscritor registado, com a sua thread e a sua posição de leitura no buffer.
+     */
+    private final class Subscriber implements Runnable {
+
+        private final GameEventListener listener;
+        private final GameEventBatch batch = new GameEventBatch(GameEventBus.this);
+
+        /** Número de eventos já processados por este subscritor. */
+        private final AtomicLong consumed = new AtomicLong();
+        private volatile boolean waiting;
+        private Thread thread;
+
+        /**
+         * Construtor de um subscritor.
+         *
+         * @param listener O subscritor.
+         * @param start    O número de sequência do primeiro evento a entregar.
+         */
+        Subscriber(GameEventListener listener, long start) {
+            this.listener = listener;
+            consumed.set(start);
+        }
+
+        /**
+         * Entrega em lote os eventos publicados, até o bus ser fechado e não haver eventos pendentes.
+         */
+        @Override
+        public void run() {
+            long next = consumed.get();
+            while (true) {
+                long available = cursor.getAcquire();
+                if (available > next) {
+                    batch.reset(next, (int) (available - next));
+                    try {
+                        listener.onEvents(batch);
+                    } catch (RuntimeException e) {
+                        LOGGER.error("Erro num subscritor de eventos", e);
+                    }
+                    next = available;
+                    consumed.setRelease(next);
+                } else if (closed) {
+                    return;
+                } else {
+                    waiting = true;
+                    if (cursor.getAcquire() == next && !closed)
+                        LockSupport.parkNanos(this, IDLE_NANOS);
+                    waiting = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Construtor da classe GameEventBus com a capacidade por omissão.
+     */
+    public GameEventBus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Construtor da classe GameEventBus.
+     *
+     * @param capacity O número de eventos do buffer circular (uma potência de 2).
+     * @throws IllegalArgumentException Se a capacidade não for uma potência de 2 positiva.
+     */
+    public GameEventBus(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("ERROR! capacity must be a power of two: " + capacity);
+        mask = capacity - 1;
+        types = new byte[capacity];
+        rows = new int[capacity];
+        columns = new int[capacity];
+        ships = new IShip[capacity];
+    }
+
+    /**
+     * Liga o bus a um jogo: os disparos seguintes desse jogo passam a ser publicados.
+     * Um bus pode ser ligado a vários jogos sucessivos, jogados pela mesma thread; ao ligar
+     * um jogo novo, o bus deixa de observar o anterior.
+     *
+     * @param game O jogo.
+     * @return Este bus.
+     */
+    public GameEventBus attach(Game game) {
+        if (this.game == game)
+            return this;
+        if (this.game != null)
+            this.game.removeObserver(this);
+        this.game = game;
+        game.addObserver(this);
+        return this;
+    }
+
+    /**
+     * Regista um subscritor, que recebe os eventos publicados a partir deste momento numa thread própria.
+     *
+     * @param name     O nome do subscritor, usado no nome da thread.
+     * @param listener O subscritor.
+     * @throws IllegalStateException Se o bus já estiver fechado.
+     */
+    public synchronized void subscribe(String name, GameEventListener listener) {
+        if (closed)
+            throw new IllegalStateException("ERROR! event bus is closed");
+        Subscriber subscriber = new Subscriber(listener, cursor.get());
+        subscriber.thread = Thread.ofPlatform().daemon().name("battleship-events-" + name).unstarted(subscriber);
+        Subscriber[] next = Arrays.copyOf(subscribers, subscribers.length + 1);
+        next[next.length - 1] = subscriber;
+        subscribers = next;
+        subscriber.thread.start();
+    }
+
+    /**
+     * Publica o evento de um disparo e, se for o caso, o da destruição da frota.
+     *
+     * @param row     A linha alvejada.
+     * @param column  A coluna alvejada.
+     * @param outcome O resultado do disparo.
+     * @param ship    O navio atingido, ou null.
+     */
+    @Override
+    public void onShot(int row, int column, ShotOutcome outcome, IShip ship) {
+        publish(GameEventType.of(outcome), row, column, outcome.isHit() ? ship : null);
+        if (outcome == ShotOutcome.SUNK && game != null && game.getRemainingShips() == 0)
+            publish(GameEventType.FLEET_DESTROYED, row, column, null);
+    }
+
+    /**
+     * Escreve um evento na próxima posição livre do buffer, ou descarta-o se algum subscritor
+     * ainda não tiver lido essa posição.
+     *
+     * @param type   O tipo do evento.
+     * @param row    A linha.
+     * @param column A coluna.
+     * @param ship   O navio, ou null.
+     */
+    private void publish(GameEventType type, int row, int column, IShip ship) {
+        long sequence = cursor.get();
+        if (sequence - cachedGate > mask && sequence - (cachedGate = gate(sequence)) > mask) {
+            droppedEvents++;
+            return;
+        }
+        int slot = (int) sequence & mask;
+        types[slot] = (byte) type.ordinal();
+        rows[slot] = row;
+        columns[slot] = column;
+        ships[slot] = ship;
+        cursor.setRelease(sequence + 1);
+
+        for (Subscriber subscriber : subscribers)
+            if (subscriber.waiting)
+                LockSupport.unpark(subscriber.thread);
+    }
+
+    /**
+     * Calcula a menor posição de leitura dos subscritores.
+     *
+     * @param sequence A posição do produtor, usada se não houver subscritores.
+     * @return A posição do subscritor mais atrasado.
+     */
+    private long gate(long sequence) {
+        long min = sequence;
+        for (Subscriber subscriber : subscribers)
+            min = Math.min(min, subscriber.consumed.getAcquire());
+        return min;
+    }
+
+    /**
+     * Obtém o tipo de um evento do buffer.
+     *
+     * @param sequence O número de sequência do evento.
+     * @return O tipo do evento.
+     */
+    GameEventType type(long sequence) {
+        return TYPES[types[(int) sequence & mask]];
+    }
+
+    /**
+     * Obtém a linha de um evento do buffer.
+     *
+     * @param sequence O número de sequência do evento.
+     * @return A linha do disparo.
+     */
+    int row(long sequence) {
+        return rows[(int) sequence & mask];
+    }
+
+    /**
+     * Obtém a coluna de um evento do buffer.
+     *
+     * @param sequence O número de sequência do evento.
+     * @return A coluna do disparo.
+     */
+    int column(long sequence) {
+        return columns[(int) sequence & mask];
+    }
+
+    /**
+     * Obtém o navio de um evento do buffer.
+     *
+     * @param sequence O número de sequência do evento.
+     * @return O navio atingido, ou null.
+     */
+    IShip ship(long sequence) {
+        return ships[(int) sequence & mask];
+    }
+
+    /**
+     * Obtém o número de eventos publicados.
+     *
+     * @return O número de eventos escritos no buffer.
+     */
+    public long getPublishedEvents() {
+        return cursor.get();
+    }
+
+    /**
+     * Obtém o número de eventos descartados por o buffer estar cheio.
+     *
+     * @return O número de eventos descartados.
+     */
+    public long getDroppedEvents() {
+        return droppedEvents;
+    }
+
+    /**
+     * Espera até todos os subscritores terem processado todos os eventos já publicados.
+     *
+     * @throws InterruptedException Se a thread for interrompida durante a espera.
+     */
+    public void flush() throws InterruptedException {
+        long target = cursor.get();
+        for (Subscriber subscriber : subscribers)
+            while (subscriber.consumed.getAcquire() < target && subscriber.thread.isAlive()) {
+                LockSupport.unpark(subscriber.thread);
+                LockSupport.parkNanos(IDLE_NANOS);
+                if (Thread.interrupted())
+                    throw new InterruptedException();
+            }
+    }
+
+    /**
+     * Entrega os eventos pendentes e termina as threads dos subscritores.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        for (Subscriber subscriber : subscribers) {
+            LockSupport.unpark(subscriber.thread);
+            try {
+                subscriber.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package iscteiul.ista.battleship;
+
+/**
+ * Subscritor dos eventos de um {@link GameEventBus}.
+ * <p>
+ * É chamado sempre pela mesma thread, dedicada a este subscritor, com todos os eventos
+ * publicados desde a chamada anterior. Um subscritor lento não atrasa os disparos nem os
+ * outros subscritores.
+ * </p>
+ */
+@FunctionalInterface
+public interface GameEventListener {
+
+    /**
+     * Processa um lote de eventos, pela ordem em que foram publicados.
+     *
+     * @param events Os eventos do lote; o objeto só é válido durante esta chamada.
+     */
+    void onEvents(GameEventBatch events);
+}
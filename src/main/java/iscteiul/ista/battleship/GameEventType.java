@@ -0,0 +1,78 @@
+package iscteiul.ista.battleship;
+
+/**
+ * Tipos de evento publicados pelo {@link GameEventBus}.
+ * <p>
+ * Cada disparo gera exatamente um evento com o tipo do seu resultado (os cinco primeiros tipos,
+ * pela mesma ordem de {@link ShotOutcome}); o disparo que afunda o último navio gera ainda um
+ * evento {@link #FLEET_DESTROYED}.
+ * </p>
+ */
+public enum GameEventType {
+
+    /** Disparo fora do tabuleiro. */
+    INVALID(ShotOutcome.INVALID),
+
+    /** Disparo numa posição já alvejada anteriormente. */
+    REPEATED(ShotOutcome.REPEATED),
+
+    /** Disparo válido que caiu na água. */
+    MISS(ShotOutcome.MISS),
+
+    /** Disparo que atingiu um navio sem o afundar. */
+    HIT(ShotOutcome.HIT),
+
+    /** Disparo que atingiu e afundou um navio. */
+    SUNK(ShotOutcome.SUNK),
+
+    /** Toda a frota foi afundada. */
+    FLEET_DESTROYED(null);
+
+    private static final GameEventType[] BY_OUTCOME = new GameEventType[ShotOutcome.values().length];
+
+    static {
+        for (GameEventType type : values())
+            if (type.outcome != null)
+                BY_OUTCOME[type.outcome.ordinal()] = type;
+    }
+
+    /** O resultado do disparo correspondente, ou null se o evento não for um disparo. */
+    private final ShotOutcome outcome;
+
+    /**
+     * Construtor do enumerador GameEventType.
+     *
+     * @param outcome O resultado do disparo correspondente.
+     */
+    GameEventType(ShotOutcome outcome) {
+        this.outcome = outcome;
+    }
+
+    /**
+     * Indica se o evento corresponde a um disparo.
+     *
+     * @return true para todos os tipos exceto {@link #FLEET_DESTROYED}.
+     */
+    public boolean isShot() {
+        return outcome != null;
+    }
+
+    /**
+     * Obtém o resultado do disparo correspondente.
+     *
+     * @return O resultado, ou null para {@link #FLEET_DESTROYED}.
+     */
+    public ShotOutcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Obtém o tipo de evento de um resultado de disparo.
+     *
+     * @param outcome O resultado do disparo.
+     * @return O tipo de evento correspondente.
+     */
+    public static GameEventType of(ShotOutcome outcome) {
+        return BY_OUTCOME[outcome.ordinal()];
+    }
+}
@@ -0,0 +1,104 @@
+package iscteiul.ista.battleship;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Definição do formato binário dos arquivos de jogos, partilhada por {@link GameRecordWriter}
+ * e {@link GameRecordReader}.
+ * <p>
+ * Um arquivo começa por um cabeçalho de {@value #HEADER_SIZE} bytes: a assinatura {@code "BSGR"},
+ * a versão do formato, o tamanho do tabuleiro, o número de navios por frota e um byte reservado.
+ * Segue-se uma sequência de registos, um por jogo:
+ * </p>
+ * <ul>
+ *     <li>2 bytes (sem sinal) com o número de disparos do jogo;</li>
+ *     <li>1 byte por navio da frota, com o índice da sua colocação na {@link PlacementTable},
+ *     pela ordem de {@link ShipShape#fleetSlots()};</li>
+ *     <li>2 bytes por disparo: a célula {@code row * boardSize + column} (ou {@value #INVALID_CELL}
+ *     para um disparo fora do tabuleiro) e o código do {@link ShotOutcome}.</li>
+ * </ul>
+ * <p>
+ * Uma frota regulamentar no tabuleiro de 10x10 ocupa assim 11 bytes e um jogo típico pouco mais
+ * de 100 bytes. Como cada célula e cada colocação cabem num byte, o formato só é aplicável a
+ * tabuleiros onde isso aconteça (o tabuleiro por omissão e os menores).
+ * </p>
+ */
+final class GameRecord {
+
+    /** Assinatura do arquivo ({@code "BSGR"}). */
+    static final int MAGIC = 0x42534752;
+
+    /** Versão atual do formato. */
+    static final byte VERSION = 1;
+
+    /** Tamanho do cabeçalho do arquivo, em bytes. */
+    static final int HEADER_SIZE = 8;
+
+    /** Valor da célula que representa um disparo fora do tabuleiro. */
+    static final int INVALID_CELL = 0xFF;
+
+    /** Número máximo de disparos por jogo. */
+    static final int MAX_SHOTS = 0xFFFF;
+
+    /** Tipo de navio de cada posição da frota registada. */
+    static final ShipShape[] SLOTS = ShipShape.fleetSlots();
+
+    private GameRecord() {
+    }
+
+    /**
+     * Obtém a tabela de colocações de um tabuleiro, verificando que é representável no formato.
+     *
+     * @param boardSize O tamanho (lado) do tabuleiro.
+     * @return A tabela de colocações.
+     * @throws IllegalArgumentException Se as células ou as colocações não couberem num byte.
+     */
+    static PlacementTable table(int boardSize) {
+        if (boardSize * boardSize > INVALID_CELL)
+            throw new IllegalArgumentException("ERROR! board too large for game records: " + boardSize);
+        PlacementTable table = PlacementTable.forBoard(boardSize);
+        for (ShipShape shape : ShipShape.values())
+            if (table.count(shape) > 256)
+                throw new IllegalArgumentException("ERROR! board too large for game records: " + boardSize);
+        return table;
+    }
+
+    /**
+     * Obtém o tamanho de um registo com o número de disparos indicado.
+     *
+     * @param shots O número de disparos.
+     * @return O tamanho do registo, em bytes.
+     */
+    static int recordSize(int shots) {
+        return 2 + SLOTS.length + 2 * shots;
+    }
+
+    /**
+     * Escreve o cabeçalho do arquivo.
+     *
+     * @param out       O buffer de destino.
+     * @param boardSize O tamanho (lado) do tabuleiro.
+     */
+    static void writeHeader(ByteBuffer out, int boardSize) {
+        out.putInt(MAGIC).put(VERSION).put((byte) boardSize).put((byte) SLOTS.length).put((byte) 0);
+    }
+
+    /**
+     * Lê e valida o cabeçalho do arquivo.
+     *
+     * @param in O buffer posicionado no início do arquivo.
+     * @return O tamanho do tabuleiro dos jogos do arquivo.
+     * @throws IllegalStateException Se o cabeçalho for inválido ou de outra versão.
+     */
+    static int readHeader(ByteBuffer in) {
+        if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC)
+            throw new IllegalStateException("ERROR! not a game record archive");
+        if (in.get() != VERSION)
+            throw new IllegalStateException("ERROR! unsupported game record version");
+        int boardSize = in.get() & 0xFF;
+        if ((in.get() & 0xFF) != SLOTS.length)
+            throw new IllegalStateException("ERROR! unexpected fleet size in game record archive");
+        in.get();
+        return boardSize;
+    }
+}
@@ -0,0 +1,215 @@
+package iscteiul.ista.battleship;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lê um arquivo de jogos no formato de {@link GameRecord}, mapeando-o em memória.
+ * <p>
+ * O ficheiro é mapeado com {@link FileChannel#map} em janelas de até {@value #WINDOW_SIZE} bytes,
+ * pelo que arquivos com milhões de jogos (e maiores do que 2 GB) podem ser percorridos sem os
+ * ler para a heap. O leitor funciona como um cursor: {@link #next()} avança para o jogo seguinte
+ * e os restantes métodos leem os campos desse jogo diretamente do mapeamento, sem criar objetos
+ * por registo. Só {@link #fleet()} e {@link #replay()} constroem navios e jogos.
+ * </p>
+ */
+public class GameRecordReader implements Closeable {
+
+    /** Tamanho máximo de cada janela mapeada. */
+    static final int WINDOW_SIZE = 1 << 30;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int boardSize;
+    private final PlacementTable table;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    /** Posição, dentro da janela, do registo atual e do seguinte. */
+    private int record = -1;
+    private int nextRecord;
+    private int shotCount;
+    private long games;
+
+    /**
+     * Abre um arquivo de jogos.
+     *
+     * @param file O caminho do arquivo.
+     * @throws IOException           Se ocorrer um erro de acesso ao ficheiro.
+     * @throws IllegalStateException Se o ficheiro não for um arquivo de jogos válido.
+     */
+    public GameRecordReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            size = channel.size();
+            map(0);
+            boardSize = GameRecord.readHeader(window);
+            table = GameRecord.table(boardSize);
+            nextRecord = GameRecord.HEADER_SIZE;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Mapeia a janela que começa na posição indicada do ficheiro.
+     *
+     * @param start A posição do ficheiro onde começa a janela.
+     * @throws IOException Se ocorrer um erro ao mapear o ficheiro.
+     */
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, size - start));
+    }
+
+    /**
+     * Avança para o jogo seguinte do arquivo.
+     *
+     * @return true se existir um jogo seguinte, false no fim do arquivo.
+     * @throws IOException           Se ocorrer um erro ao mapear o ficheiro.
+     * @throws IllegalStateException Se o último registo estiver truncado.
+     */
+    public boolean next() throws IOException {
+        if (windowStart + nextRecord >= size)
+            return false;
+        if (window.limit() - nextRecord < GameRecord.recordSize(GameRecord.MAX_SHOTS)
+                && windowStart + window.limit() < size) {
+            map(windowStart + nextRecord);
+            nextRecord = 0;
+        }
+        if (window.limit() - nextRecord < 2)
+            throw new IllegalStateException("ERROR! truncated game record");
+        int shots = window.getShort(nextRecord) & 0xFFFF;
+        if (window.limit() - nextRecord < GameRecord.recordSize(shots))
+            throw new IllegalStateException("ERROR! truncated game record");
+
+        record = nextRecord;
+        shotCount = shots;
+        nextRecord += GameRecord.recordSize(shots);
+        games++;
+        return true;
+    }
+
+    /**
+     * Obtém o tamanho (lado) do tabuleiro dos jogos do arquivo.
+     *
+     * @return O tamanho do tabuleiro.
+     */
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    /**
+     * Obtém o número de jogos lidos até ao momento.
+     *
+     * @return O número de chamadas a {@link #next()} bem sucedidas.
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Obtém o número de navios de cada frota.
+     *
+     * @return O número de navios.
+     */
+    public int getShipCount() {
+        return GameRecord.SLOTS.length;
+    }
+
+    /**
+     * Obtém o tipo do navio numa posição da frota.
+     *
+     * @param slot A posição na frota.
+     * @return O tipo de navio.
+     */
+    public ShipShape getShipShape(int slot) {
+        return GameRecord.SLOTS[slot];
+    }
+
+    /**
+     * Obtém o índice da colocação de um navio da frota do jogo atual.
+     *
+     * @param slot A posição na frota.
+     * @return O índice da colocação na tabela de colocações do tabuleiro.
+     */
+    public int getPlacement(int slot) {
+        return window.get(record + 2 + slot) & 0xFF;
+    }
+
+    /**
+     * Obtém o número de disparos do jogo atual.
+     *
+     * @return O número de disparos.
+     */
+    public int getShotCount() {
+        return shotCount;
+    }
+
+    /**
+     * Obtém a célula de um disparo do jogo atual.
+     *
+     * @param shot O índice do disparo.
+     * @return A célula {@code row * boardSize + column}, ou -1 para um disparo fora do tabuleiro.
+     */
+    public int getShotCell(int shot) {
+        int cell = window.get(record + 2 + GameRecord.SLOTS.length + 2 * shot) & 0xFF;
+        return cell == GameRecord.INVALID_CELL ? -1 : cell;
+    }
+
+    /**
+     * Obtém o resultado de um disparo do jogo atual.
+     *
+     * @param shot O índice do disparo.
+     * @return O resultado do disparo.
+     */
+    public ShotOutcome getShotOutcome(int shot) {
+        return ShotOutcome.fromCode(window.get(record + 2 + GameRecord.SLOTS.length + 2 * shot + 1));
+    }
+
+    /**
+     * Constrói a frota do jogo atual.
+     *
+     * @return Uma nova frota com os navios do jogo atual.
+     */
+    public IFleet fleet() {
+        Fleet fleet = new BitboardFleet(boardSize);
+        for (int slot = 0; slot < GameRecord.SLOTS.length; slot++)
+            fleet.addShip(table.build(GameRecord.SLOTS[slot], getPlacement(slot)));
+        return fleet;
+    }
+
+    /**
+     * Reproduz o jogo atual: constrói a frota e repete todos os disparos registados.
+     * Os disparos fora do tabuleiro são repetidos numa posição inválida.
+     *
+     * @return O jogo no estado final.
+     * @throws IllegalStateException Se algum resultado não coincidir com o registado.
+     */
+    public Game replay() {
+        Game game = new Game(fleet());
+        for (int i = 0; i < shotCount; i++) {
+            int cell = getShotCell(i);
+            game.fire(cell < 0 ? Position.of(-1, -1) : Position.of(cell / boardSize, cell % boardSize));
+            if (game.getLastOutcome() != getShotOutcome(i))
+                throw new IllegalStateException("ERROR! replayed shot " + i + " does not match the record");
+        }
+        return game;
+    }
+
+    /**
+     * Fecha o ficheiro. O mapeamento é libertado pelo coletor de lixo.
+     *
+     * @throws IOException Se ocorrer um erro ao fechar o ficheiro.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,217 @@
+package iscteiul.ista.battleship;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Escreve jogos num arquivo binário no formato de {@link GameRecord}.
+ * <p>
+ * O escritor é um {@link IShotObserver}: depois de {@link #startGame(IFleet)}, cada disparo
+ * notificado por {@link Game#fire(IPosition)} é acrescentado ao registo em curso (2 bytes por
+ * disparo), e {@link #endGame()} copia o registo completo para um buffer de escrita, que só é
+ * enviado para o ficheiro quando está cheio ou quando o escritor é fechado. Se o ficheiro já
+ * existir, os novos jogos são acrescentados no fim.
+ * </p>
+ */
+public class GameRecordWriter implements IShotObserver, Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 18;
+
+    private final FileChannel channel;
+    private final PlacementTable table;
+    private final int boardSize;
+    private final ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /** Colocação de cada navio da frota do jogo em curso. */
+    private final byte[] placements = new byte[GameRecord.SLOTS.length];
+
+    /** Disparos do jogo em curso, 2 bytes por disparo. */
+    private byte[] shots = new byte[256];
+    private int shotCount;
+    private boolean recording;
+    private long games;
+
+    /**
+     * Abre (ou cria) um arquivo de jogos no tabuleiro por omissão.
+     *
+     * @param file O caminho do arquivo.
+     * @throws IOException Se ocorrer um erro de acesso ao ficheiro.
+     */
+    public GameRecordWriter(Path file) throws IOException {
+        this(file, IFleet.BOARD_SIZE);
+    }
+
+    /**
+     * Abre (ou cria) um arquivo de jogos num tabuleiro com o tamanho indicado.
+     *
+     * @param file      O caminho do arquivo.
+     * @param boardSize O tamanho (lado) do tabuleiro.
+     * @throws IOException              Se ocorrer um erro de acesso ao ficheiro.
+     * @throws IllegalArgumentException Se o tabuleiro não for representável no formato.
+     * @throws IllegalStateException    Se o ficheiro existente não for um arquivo compatível.
+     */
+    public GameRecordWriter(Path file, int boardSize) throws IOException {
+        this.table = GameRecord.table(boardSize);
+        this.boardSize = boardSize;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                GameRecord.writeHeader(out, boardSize);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(GameRecord.HEADER_SIZE);
+                channel.read(header, 0);
+                header.flip();
+                if (GameRecord.readHeader(header) != boardSize)
+                    throw new IllegalStateException("ERROR! game record archive has another board size");
+                channel.position(channel.size());
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Cria um novo jogo para a frota indicada, já ligado a este escritor.
+     *
+     * @param fleet A frota do jogo.
+     * @return O jogo criado; o registo é concluído com {@link #endGame()}.
+     */
+    public Game newGame(IFleet fleet) {
+        startGame(fleet);
+        Game game = new Game(fleet);
+        game.addObserver(this);
+        return game;
+    }
+
+    /**
+     * Inicia o registo de um jogo, codificando a frota como o índice da colocação de cada navio.
+     *
+     * @param fleet A frota do jogo, com a composição regulamentar.
+     * @throws IllegalStateException    Se já houver um jogo em curso.
+     * @throws IllegalArgumentException Se a frota não tiver a composição regulamentar ou o tamanho de tabuleiro.
+     */
+    public void startGame(IFleet fleet) {
+        if (recording)
+            throw new IllegalStateException("ERROR! a game is already being recorded");
+        if (fleet.getBoardSize() != boardSize || fleet.getShips().size() != placements.length)
+            throw new IllegalArgumentException("ERROR! fleet cannot be recorded");
+
+        int[] next = new int[ShipShape.values().length];
+        for (IShip s : fleet.getShips()) {
+            ShipShape shape = ShipShape.fromCategory(s.getCategory());
+            int slot = shape == null ? -1 : slotOf(shape, next[shape.ordinal()]++);
+            int placement = slot < 0 ? -1 : table.indexOf(shape, s);
+            if (placement < 0)
+                throw new IllegalArgumentException("ERROR! fleet cannot be recorded");
+            placements[slot] = (byte) placement;
+        }
+        shotCount = 0;
+        recording = true;
+    }
+
+    /**
+     * Obtém a posição na frota do {@code n}-ésimo navio de uma forma.
+     *
+     * @param shape A forma do navio.
+     * @param n     O número de ordem do navio dentro da forma.
+     * @return A posição na frota, ou -1 se a forma não tiver tantos navios.
+     */
+    private static int slotOf(ShipShape shape, int n) {
+        for (int slot = 0; slot < GameRecord.SLOTS.length; slot++)
+            if (GameRecord.SLOTS[slot] == shape && n-- == 0)
+                return slot;
+        return -1;
+    }
+
+    /**
+     * Acrescenta um disparo ao registo do jogo em curso; fora de um jogo é ignorado.
+     *
+     * @param row     A linha alvejada.
+     * @param column  A coluna alvejada.
+     * @param outcome O resultado do disparo.
+     * @param ship    O navio atingido, ou null.
+     */
+    @Override
+    public void onShot(int row, int column, ShotOutcome outcome, IShip ship) {
+        if (!recording)
+            return;
+        if (shotCount == GameRecord.MAX_SHOTS)
+            throw new IllegalStateException("ERROR! too many shots for a game record");
+
+        if (2 * shotCount == shots.length)
+            shots = Arrays.copyOf(shots, shots.length * 2);
+        boolean inside = row >= 0 && row < boardSize && column >= 0 && column < boardSize;
+        shots[2 * shotCount] = (byte) (inside ? row * boardSize + column : GameRecord.INVALID_CELL);
+        shots[2 * shotCount + 1] = outcome.getCode();
+        shotCount++;
+    }
+
+    /**
+     * Conclui o registo do jogo em curso, copiando-o para o buffer de escrita.
+     *
+     * @throws IOException           Se ocorrer um erro ao esvaziar o buffer para o ficheiro.
+     * @throws IllegalStateException Se não houver nenhum jogo em curso.
+     */
+    public void endGame() throws IOException {
+        if (!recording)
+            throw new IllegalStateException("ERROR! no game is being recorded");
+        recording = false;
+
+        if (out.remaining() < GameRecord.recordSize(shotCount))
+            drain();
+        out.putShort((short) shotCount).put(placements).put(shots, 0, 2 * shotCount);
+        games++;
+    }
+
+    /**
+     * Obtém o número de jogos registados por este escritor.
+     *
+     * @return O número de jogos concluídos com {@link #endGame()}.
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Envia o conteúdo do buffer de escrita para o ficheiro.
+     *
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public void flush() throws IOException {
+        drain();
+        channel.force(false);
+    }
+
+    /**
+     * Escreve o buffer no ficheiro e esvazia-o.
+     *
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    private void drain() throws IOException {
+        out.flip();
+        while (out.hasRemaining())
+            channel.write(out);
+        out.clear();
+    }
+
+    /**
+     * Escreve os jogos ainda no buffer e fecha o ficheiro. Um jogo ainda em curso é descartado.
+     *
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package iscteiul.ista.battleship;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Repositório SQLite de jogos: frotas, navios e a sequência de disparos de cada jogo.
+ * <p>
+ * As escritas nunca são feitas na thread que joga. {@link #newGame(IFleet)} e os disparos
+ * notificados por {@link Game#fire(IPosition)} apenas colocam pequenos pedidos numa fila;
+ * uma thread de escrita dedicada retira-os em lotes de até {@value #BATCH_SIZE}, acumula-os em
+ * {@link PreparedStatement#addBatch() batches} e grava cada lote numa única transação.
+ * A base de dados usa o modo WAL, pelo que as consultas, feitas por uma ligação de leitura
+ * separada, não bloqueiam nem são bloqueadas pela escrita.
+ * </p>
+ * <p>
+ * As consultas veem apenas os lotes já gravados; {@link #flush()} espera que todos os pedidos
+ * anteriores estejam na base de dados.
+ * </p>
+ */
+public class GameRepository implements Closeable {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /** Número máximo de pedidos gravados em cada transação. */
+    static final int BATCH_SIZE = 4096;
+
+    /** Intervalo com que {@link #flush()} verifica se a thread de escrita ainda está ativa. */
+    private static final long FLUSH_POLL_MILLIS = 100;
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS games (id INTEGER PRIMARY KEY, board_size INTEGER NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS ships (game_id INTEGER NOT NULL, slot INTEGER NOT NULL, "
+                    + "category TEXT NOT NULL, bearing TEXT NOT NULL, row INTEGER NOT NULL, col INTEGER NOT NULL, "
+                    + "size INTEGER NOT NULL, PRIMARY KEY (game_id, slot))",
+            "CREATE TABLE IF NOT EXISTS shots (game_id INTEGER NOT NULL, seq INTEGER NOT NULL, "
+                    + "row INTEGER NOT NULL, col INTEGER NOT NULL, outcome INTEGER NOT NULL, ship_slot INTEGER, "
+                    + "PRIMARY KEY (game_id, seq))",
+            "CREATE INDEX IF NOT EXISTS ships_category ON ships (category)",
+            "CREATE INDEX IF NOT EXISTS shots_ship ON shots (game_id, ship_slot) WHERE ship_slot IS NOT NULL",
+            "CREATE INDEX IF NOT EXISTS shots_outcome ON shots (outcome)"
+    };
+
+    private static final String HIT_RATE_BY_CATEGORY =
+            "SELECT s.category, SUM(s.size), "
+                    + "(SELECT COUNT(*) FROM shots h JOIN ships t ON h.game_id = t.game_id AND h.ship_slot = t.slot "
+                    + "WHERE t.category = s.category) "
+                    + "FROM ships s GROUP BY s.category";
+
+    /** Pedido de escrita, executado na thread de escrita. */
+    private interface Write {
+
+        /**
+         * Acrescenta o pedido aos batches da transação em curso.
+         *
+         * @param repository O repositório.
+         * @throws SQLException Se ocorrer um erro na base de dados.
+         */
+        void apply(GameRepository repository) throws SQLException;
+    }
+
+    /** Pedido que indica o fim da thread de escrita. */
+    private static final Write STOP = repository -> {
+    };
+
+    /**
+     * Pedido de controlo de {@link #flush()}: regista o latch a libertar depois da transação em
+     * curso. Ao contrário das escritas, é sempre processado, mesmo depois de uma falha.
+     */
+    private static final class Barrier implements Write {
+        private final CountDownLatch latch;
+
+        /**
+         * Construtor da classe Barrier.
+         *
+         * @param latch O latch a libertar.
+         */
+        Barrier(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        /**
+         * Regista o latch na lista dos que são libertados no fim da transação.
+         *
+         * @param repository O repositório.
+         */
+        @Override
+        public void apply(GameRepository repository) {
+            repository.committed.add(latch);
+        }
+    }
+
+    private final Connection writer;
+    private final Connection reader;
+    private final PreparedStatement insertGame;
+    private final PreparedStatement insertShip;
+    private final PreparedStatement insertShot;
+
+    private final BlockingQueue<Write> queue = new LinkedBlockingQueue<>();
+    private final List<CountDownLatch> committed = new ArrayList<>();
+    private final Thread thread;
+    private final AtomicLong nextGameId;
+    private volatile SQLException failure;
+
+    /** Indica que a thread de escrita terminou (ou está a terminar) e não aceita mais pedidos. */
+    private volatile boolean stopped;
+
+    /**
+     * Abre (ou cria) a base de dados indicada e inicia a thread de escrita.
+     *
+     * @param file O caminho do ficheiro da base de dados.
+     * @throws SQLException Se ocorrer um erro ao abrir ou preparar a base de dados.
+     */
+    public GameRepository(Path file) throws SQLException {
+        String url = "jdbc:sqlite:" + file.toAbsolutePath();
+        writer = DriverManager.getConnection(url);
+        try (Statement st = writer.createStatement()) {
+            st.execute("PRAGMA journal_mode=WAL");
+            st.execute("PRAGMA synchronous=NORMAL");
+            for (String ddl : SCHEMA)
+                st.execute(ddl);
+        }
+        writer.setAutoCommit(false);
+        writer.commit();
+        insertGame = writer.prepareStatement("INSERT INTO games (id, board_size) VALUES (?, ?)");
+        insertShip = writer.prepareStatement(
+                "INSERT INTO ships (game_id, slot, category, bearing, row, col, size) VALUES (?, ?, ?, ?, ?, ?, ?)");
+        insertShot = writer.prepareStatement(
+                "INSERT INTO shots (game_id, seq, row, col, outcome, ship_slot) VALUES (?, ?, ?, ?, ?, ?)");
+
+        reader = DriverManager.getConnection(url);
+        reader.setReadOnly(true);
+        try (Statement st = reader.createStatement(); ResultSet rs = st.executeQuery("SELECT MAX(id) FROM games")) {
+            nextGameId = new AtomicLong(rs.next() ? rs.getLong(1) + 1 : 1);
+        }
+
+        thread = new Thread(this::writeLoop, "game-repository-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Regista uma nova frota e cria o respetivo jogo, cujos disparos são gravados automaticamente.
+     *
+     * @param fleet A frota do jogo.
+     * @return O jogo criado.
+     */
+    public Game newGame(IFleet fleet) {
+        long id = saveFleet(fleet);
+        Game game = new Game(fleet);
+        game.addObserver(new ShotRecorder(id, fleet.getShips()));
+        return game;
+    }
+
+    /**
+     * Regista uma frota (o jogo e os seus navios) sem associar nenhum jogo em curso.
+     *
+     * @param fleet A frota a registar.
+     * @return O identificador do jogo na base de dados.
+     */
+    public long saveFleet(IFleet fleet) {
+        long id = nextGameId.getAndIncrement();
+        int boardSize = fleet.getBoardSize();
+        List<IShip> ships = new ArrayList<>(fleet.getShips());
+        enqueue(repository -> {
+            repository.insertGame.setLong(1, id);
+            repository.insertGame.setInt(2, boardSize);
+            repository.insertGame.addBatch();
+            for (int slot = 0; slot < ships.size(); slot++) {
+                IShip s = ships.get(slot);
+                PreparedStatement st = repository.insertShip;
+                st.setLong(1, id);
+                st.setInt(2, slot);
+                st.setString(3, s.getCategory());
+                st.setString(4, s.getBearing().toString());
+                st.setInt(5, s.getPosition().getRow());
+                st.setInt(6, s.getPosition().getColumn());
+                st.setInt(7, s.getSize());
+                st.addBatch();
+            }
+        });
+        return id;
+    }
+
+    /**
+     * Observador que grava os disparos de um jogo, pela ordem em que são feitos.
+     */
+    private final class ShotRecorder implements IShotObserver {
+        private final long gameId;
+        private final IShip[] ships;
+        private int seq;
+
+        /**
+         * Construtor da classe ShotRecorder.
+         *
+         * @param gameId O identificador do jogo.
+         * @param ships  Os navios da frota, pela ordem em que foram registados.
+         */
+        ShotRecorder(long gameId, List<IShip> ships) {
+            this.gameId = gameId;
+            this.ships = ships.toArray(new IShip[0]);
+        }
+
+        /**
+         * Coloca o disparo na fila de escrita.
+         *
+         * @param row     A linha alvejada.
+         * @param column  A coluna alvejada.
+         * @param outcome O resultado do disparo.
+         * @param ship    O navio atingido, ou null.
+         */
+        @Override
+        public void onShot(int row, int column, ShotOutcome outcome, IShip ship) {
+            int slot = -1;
+            for (int i = 0; ship != null && i < ships.length; i++)
+                if (ships[i] == ship)
+                    slot = i;
+            int s = slot;
+            int n = seq++;
+            byte code = outcome.getCode();
+            enqueue(repository -> {
+                PreparedStatement st = repository.insertShot;
+                st.setLong(1, gameId);
+                st.setInt(2, n);
+                st.setInt(3, row);
+                st.setInt(4, column);
+                st.setInt(5, code);
+                if (s < 0)
+                    st.setNull(6, Types.INTEGER);
+                else
+                    st.setInt(6, s);
+                st.addBatch();
+            });
+        }
+    }
+
+    /**
+     * Coloca um pedido na fila de escrita.
+     *
+     * @param write O pedido.
+     * @throws IllegalStateException Se a thread de escrita tiver falhado ou o repositório estiver fechado.
+     */
+    private void enqueue(Write write) {
+        if (failure != null)
+            throw new IllegalStateException("ERROR! game repository writer failed", failure);
+        if (stopped || !thread.isAlive())
+            throw new IllegalStateException("ERROR! game repository is closed");
+        queue.add(write);
+    }
+
+    /**
+     * Ciclo da thread de escrita: retira lotes de pedidos da fila e grava cada lote numa transação.
+     * Termina com {@link #STOP}, com uma interrupção ou na primeira falha; em qualquer caso liberta
+     * todos os latches de {@link #flush()} registados ou ainda na fila.
+     */
+    private void writeLoop() {
+        List<Write> batch = new ArrayList<>(BATCH_SIZE);
+        boolean running = true;
+        try {
+            while (running) {
+                batch.add(queue.take());
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                for (Write w : batch) {
+                    if (w == STOP)
+                        running = false;
+                    else if (w instanceof Barrier || failure == null)
+                        apply(w);
+                }
+                batch.clear();
+                if (failure == null)
+                    commit();
+                if (failure != null)
+                    running = false;
+                release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stopped = true;
+            for (Write w : batch)
+                if (w instanceof Barrier)
+                    ((Barrier) w).apply(this);
+            for (Write w : queue)
+                if (w instanceof Barrier)
+                    ((Barrier) w).apply(this);
+            release();
+        }
+    }
+
+    /**
+     * Acrescenta um pedido à transação em curso, registando a falha se ocorrer.
+     *
+     * @param w O pedido.
+     */
+    private void apply(Write w) {
+        try {
+            w.apply(this);
+        } catch (SQLException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Executa os batches acumulados e grava a transação em curso, registando a falha se ocorrer.
+     */
+    private void commit() {
+        try {
+            insertGame.executeBatch();
+            insertShip.executeBatch();
+            insertShot.executeBatch();
+            writer.commit();
+        } catch (SQLException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Regista a falha da thread de escrita e desfaz a transação em curso.
+     *
+     * @param e A falha.
+     */
+    private void fail(SQLException e) {
+        LOGGER.error("Erro ao gravar jogos: {}", e.getMessage(), e);
+        failure = e;
+        try {
+            writer.rollback();
+        } catch (SQLException ignored) {
+            // a falha original é a que interessa
+        }
+    }
+
+    /**
+     * Liberta os latches de {@link #flush()} registados até agora.
+     */
+    private void release() {
+        for (CountDownLatch latch : committed)
+            latch.countDown();
+        committed.clear();
+    }
+
+    /**
+     * Espera até que todos os pedidos feitos até agora estejam gravados.
+     *
+     * @throws SQLException          Se a thread de escrita tiver falhado ou a espera for interrompida
+     *                               antes de os pedidos estarem gravados.
+     * @throws IllegalStateException Se o repositório estiver fechado.
+     */
+    public void flush() throws SQLException {
+        if (failure != null)
+            throw failure;
+        CountDownLatch latch = new CountDownLatch(1);
+        enqueue(new Barrier(latch));
+        try {
+            // o pedido pode chegar à fila depois de a thread de escrita a ter esvaziado pela última vez
+            while (!latch.await(FLUSH_POLL_MILLIS, TimeUnit.MILLISECONDS))
+                if (!thread.isAlive() && latch.getCount() > 0) {
+                    if (failure != null)
+                        throw failure;
+                    throw new IllegalStateException("ERROR! game repository is closed");
+                }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("ERROR! interrupted before the game repository was flushed", e);
+        }
+        if (failure != null)
+            throw failure;
+    }
+
+    /**
+     * Obtém o número de jogos gravados.
+     *
+     * @return O número de jogos.
+     * @throws SQLException Se ocorrer um erro na base de dados.
+     */
+    public long countGames() throws SQLException {
+        try (Statement st = reader.createStatement(); ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM games")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Obtém o número de disparos gravados com o resultado indicado.
+     *
+     * @param outcome O resultado dos disparos a contar.
+     * @return O número de disparos.
+     * @throws SQLException Se ocorrer um erro na base de dados.
+     */
+    public long countShots(ShotOutcome outcome) throws SQLException {
+        try (PreparedStatement st = reader.prepareStatement("SELECT COUNT(*) FROM shots WHERE outcome = ?")) {
+            st.setInt(1, outcome.getCode());
+            try (ResultSet rs = st.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Obtém, por categoria de navio, a taxa de acerto: a fração das células dos navios dessa
+     * categoria (em todos os jogos gravados) que foram atingidas.
+     *
+     * @return A taxa de acerto de cada categoria, entre 0 e 1.
+     * @throws SQLException Se ocorrer um erro na base de dados.
+     */
+    public Map<String, Double> getHitRateByCategory() throws SQLException {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        try (Statement st = reader.createStatement(); ResultSet rs = st.executeQuery(HIT_RATE_BY_CATEGORY)) {
+            while (rs.next()) {
+                long cells = rs.getLong(2);
+                rates.put(rs.getString(1), cells == 0 ? 0.0 : (double) rs.getLong(3) / cells);
+            }
+        }
+        return rates;
+    }
+
+    /**
+     * Grava os pedidos pendentes, termina a thread de escrita e fecha as ligações.
+     *
+     * @throws IOException Se ocorrer um erro ao fechar a base de dados.
+     */
+    @Override
+    public void close() throws IOException {
+        if (thread.isAlive()) {
+            queue.add(STOP);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            reader.close();
+            writer.close();
+        } catch (SQLException e) {
+            throw new IOException("ERROR! closing game repository", e);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package iscteiul.ista.battleship;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Servidor TCP de jogos, com uma sessão independente por ligação.
+ * <p>
+ * Cada ligação é servida por uma virtual thread própria, com o seu {@link BatchCommandProcessor}
+ * (e portanto a sua frota e o seu jogo), pelo que o servidor aceita milhares de sessões em
+ * simultâneo sem um pool de threads de plataforma. As sessões falam a linguagem de comandos da
+ * {@link Tasks#taskD() tarefa D}, em UTF-8; cada resposta termina com a linha
+ * {@value #END_OF_REPLY_LINE} (ver {@link GameClient}). A sessão termina com o comando
+ * {@code desisto} ou quando o cliente fecha a ligação.
+ * </p>
+ */
+public class GameServer implements Closeable {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /** Porto por omissão. */
+    public static final int DEFAULT_PORT = 4242;
+
+    /** Linha que termina cada resposta do servidor. */
+    public static final String END_OF_REPLY_LINE = ".";
+
+    /** Tamanho do buffer de escrita de cada sessão. */
+    private static final int WRITE_BUFFER_SIZE = 1 << 12;
+
+    /** Espera inicial e máxima, em milissegundos, depois de uma falha persistente a aceitar ligações. */
+    private static final long MIN_ACCEPT_BACKOFF_MILLIS = 10;
+    private static final long MAX_ACCEPT_BACKOFF_MILLIS = 1000;
+
+    private final int boardSize;
+    private final ServerSocket server;
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private Thread acceptor;
+
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final LongAdder sessions = new LongAdder();
+    private final LongAdder commands = new LongAdder();
+
+    /**
+     * Construtor da classe GameServer, ligado a todos os endereços locais.
+     *
+     * @param port      O porto (0 para escolher um porto livre).
+     * @param boardSize O tamanho (lado) do tabuleiro das frotas de cada sessão.
+     * @throws IOException Se não for possível abrir o porto.
+     */
+    public GameServer(int port, int boardSize) throws IOException {
+        this(new InetSocketAddress(port), boardSize);
+    }
+
+    /**
+     * Construtor da classe GameServer.
+     *
+     * @param address   O endereço e porto onde aceitar ligações.
+     * @param boardSize O tamanho (lado) do tabuleiro das frotas de cada sessão.
+     * @throws IOException Se não for possível abrir o porto.
+     */
+    public GameServer(InetSocketAddress address, int boardSize) throws IOException {
+        this.boardSize = boardSize;
+        this.server = new ServerSocket();
+        server.setReuseAddress(true);
+        server.bind(address, 1 << 12);
+    }
+
+    /**
+     * Cria um servidor apenas para ligações locais, num porto livre, útil para testes.
+     *
+     * @param boardSize O tamanho (lado) do tabuleiro das frotas de cada sessão.
+     * @return O servidor criado (ainda por iniciar).
+     * @throws IOException Se não for possível abrir o porto.
+     */
+    public static GameServer loopback(int boardSize) throws IOException {
+        return new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), boardSize);
+    }
+
+    /**
+     * Começa a aceitar ligações, numa virtual thread dedicada.
+     *
+     * @return Este servidor.
+     */
+    public synchronized GameServer start() {
+        if (acceptor == null)
+            acceptor = Thread.ofVirtual().name("battleship-acceptor").start(this::acceptLoop);
+        return this;
+    }
+
+    /**
+     * Aceita ligações até o servidor ser fechado, lançando uma sessão por ligação.
+     * Depois de uma falha a aceitar (por exemplo, sem descritores de ficheiro livres), espera
+     * antes de tentar de novo, duplicando a espera a cada falha seguida até
+     * {@value #MAX_ACCEPT_BACKOFF_MILLIS} ms, para não ocupar um processador a repetir o erro.
+     */
+    private void acceptLoop() {
+        Thread.Builder sessionThreads = Thread.ofVirtual().name("battleship-session-", 0);
+        long backoff = MIN_ACCEPT_BACKOFF_MILLIS;
+        while (!server.isClosed()) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                if (server.isClosed())
+                    break;
+                LOGGER.error("Erro ao aceitar ligação, nova tentativa dentro de {} ms", backoff, e);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                backoff = Math.min(2 * backoff, MAX_ACCEPT_BACKOFF_MILLIS);
+                continue;
+            }
+            backoff = MIN_ACCEPT_BACKOFF_MILLIS;
+            sockets.add(socket);
+            // se close() já percorreu as sessões, esta ligação tem de ser fechada aqui
+            if (server.isClosed()) {
+                sockets.remove(socket);
+                closeSession(socket);
+                break;
+            }
+            sessions.increment();
+            activeSessions.incrementAndGet();
+            sessionThreads.start(() -> serve(socket));
+        }
+    }
+
+    /**
+     * Serve uma sessão até ao comando {@code desisto} ou ao fecho da ligação.
+     *
+     * @param socket A ligação do cliente.
+     */
+    private void serve(Socket socket) {
+        BatchCommandProcessor processor = null;
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8),
+                    WRITE_BUFFER_SIZE);
+            processor = new BatchCommandProcessor(out, boardSize);
+            processor.setCommandTerminator(END_OF_REPLY_LINE + "\n");
+            processor.process(socket.getInputStream());
+        } catch (SocketException e) {
+            // ligação fechada pelo cliente ou pelo fecho do servidor
+        } catch (IOException e) {
+            LOGGER.error("Erro na sessão {}: {}", socket.getRemoteSocketAddress(), e.getMessage());
+        } finally {
+            if (processor != null)
+                commands.add(processor.getCommands());
+            sockets.remove(socket);
+            activeSessions.decrementAndGet();
+        }
+    }
+
+    /**
+     * Obtém o porto onde o servidor aceita ligações.
+     *
+     * @return O porto local.
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Obtém o número de sessões abertas neste momento.
+     *
+     * @return O número de sessões ativas.
+     */
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    /**
+     * Obtém o número total de sessões aceites desde o início.
+     *
+     * @return O número de sessões.
+     */
+    public long getSessions() {
+        return sessions.sum();
+    }
+
+    /**
+     * Obtém o número de comandos processados pelas sessões já terminadas.
+     *
+     * @return O número de comandos.
+     */
+    public long getCommands() {
+        return commands.sum();
+    }
+
+    /**
+     * Espera até o servidor ser fechado.
+     *
+     * @throws InterruptedException Se a thread for interrompida durante a espera.
+     */
+    public void awaitClose() throws InterruptedException {
+        Thread t;
+        synchronized (this) {
+            t = acceptor;
+        }
+        if (t != null)
+            t.join();
+    }
+
+    /**
+     * Deixa de aceitar ligações e fecha todas as sessões abertas.
+     *
+     * @throws IOException Se ocorrer um erro ao fechar o porto.
+     */
+    @Override
+    public void close() throws IOException {
+        server.close();
+        for (Socket socket : sockets)
+            closeSession(socket);
+    }
+
+    /**
+     * Fecha a ligação de uma sessão, registando eventuais erros.
+     *
+     * @param socket A ligação a fechar.
+     */
+    private void closeSession(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            LOGGER.error("Erro ao fechar a sessão {}: {}", socket.getRemoteSocketAddress(), e.getMessage());
+        }
+    }
+}
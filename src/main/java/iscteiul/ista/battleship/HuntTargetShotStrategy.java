@@ -0,0 +1,174 @@
+package iscteiul.ista.battleship;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Estratégia "caça e alvo" (hunt/target).
+ * <p>
+ * Em modo de caça dispara aleatoriamente nas células de uma das paridades do tabuleiro
+ * (as células com {@code row + column} par), já que todos os navios com mais de uma célula
+ * ocupam pelo menos uma delas; esgotadas essas, passa às restantes. Quando acerta num navio
+ * passa a modo de alvo e dispara nas células vizinhas (Norte, Sul, Este e Oeste) dos acertos.
+ * Quando um navio é afundado, as células à sua volta são excluídas, pois nenhum outro navio
+ * lhe pode tocar.
+ * </p>
+ */
+public class HuntTargetShotStrategy implements IShotStrategy {
+
+    private static final byte UNKNOWN = 0;
+    private static final byte FIRED = 1;
+    private static final byte EXCLUDED = 2;
+
+    /** Capacidade inicial da pilha de alvos, que chega para os vizinhos de um navio inteiro. */
+    private static final int INITIAL_TARGETS = 32;
+
+    private final int boardSize;
+    private final byte[] state;
+
+    /** Ordem de caça: células pares baralhadas seguidas das ímpares baralhadas. */
+    private final int[] huntOrder;
+    private int huntNext;
+
+    /** Pilha de células candidatas em modo de alvo, que cresce quando necessário. */
+    private int[] targets = new int[INITIAL_TARGETS];
+    private int targetCount;
+
+    /**
+     * Construtor da classe HuntTargetShotStrategy para o tabuleiro por omissão.
+     *
+     * @param random O gerador de números aleatórios usado para baralhar a ordem de caça.
+     */
+    public HuntTargetShotStrategy(SplittableRandom random) {
+        this(random, IFleet.BOARD_SIZE);
+    }
+
+    /**
+     * Construtor da classe HuntTargetShotStrategy para um tabuleiro com o tamanho indicado.
+     * O estado das células é guardado em arrays densos, pelo que a memória cresce com a área do tabuleiro.
+     *
+     * @param random    O gerador de números aleatórios usado para baralhar a ordem de caça.
+     * @param boardSize O tamanho (lado) do tabuleiro.
+     */
+    public HuntTargetShotStrategy(SplittableRandom random, int boardSize) {
+        this.boardSize = boardSize;
+        int cells = boardSize * boardSize;
+        state = new byte[cells];
+        huntOrder = new int[cells];
+
+        int even = 0;
+        for (int cell = 0; cell < cells; cell++)
+            if ((cell / boardSize + cell % boardSize) % 2 == 0)
+                huntOrder[even++] = cell;
+        int odd = even;
+        for (int cell = 0; cell < cells; cell++)
+            if ((cell / boardSize + cell % boardSize) % 2 != 0)
+                huntOrder[odd++] = cell;
+        shuffle(huntOrder, 0, even, random);
+        shuffle(huntOrder, even, cells, random);
+    }
+
+    /**
+     * Baralha o intervalo {@code [from, to)} de um array (Fisher-Yates).
+     *
+     * @param a      O array a baralhar.
+     * @param from   O início do intervalo.
+     * @param to     O fim (exclusive) do intervalo.
+     * @param random O gerador de números aleatórios.
+     */
+    private static void shuffle(int[] a, int from, int to, SplittableRandom random) {
+        for (int i = to - 1; i > from; i--) {
+            int j = from + random.nextInt(i - from + 1);
+            int t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+    }
+
+    /**
+     * Escolhe a próxima célula: a última candidata de alvo ainda desconhecida ou,
+     * se não houver, a próxima célula da ordem de caça.
+     *
+     * @return A posição alvo.
+     * @throws IllegalStateException Se não restar nenhuma célula por alvejar.
+     */
+    @Override
+    public IPosition nextShot() {
+        while (targetCount > 0) {
+            int cell = targets[--targetCount];
+            if (state[cell] == UNKNOWN)
+                return toPosition(cell);
+        }
+        while (huntNext < huntOrder.length) {
+            int cell = huntOrder[huntNext++];
+            if (state[cell] == UNKNOWN)
+                return toPosition(cell);
+        }
+        throw new IllegalStateException("ERROR! no cells left to fire at");
+    }
+
+    /**
+     * Atualiza o estado das células com o resultado de um disparo.
+     *
+     * @param shot    A posição alvejada.
+     * @param outcome O resultado do disparo.
+     * @param sunk    O navio afundado, ou null.
+     */
+    @Override
+    public void shotResult(IPosition shot, ShotOutcome outcome, IShip sunk) {
+        if (outcome == ShotOutcome.INVALID)
+            return;
+
+        int row = shot.getRow();
+        int col = shot.getColumn();
+        state[row * boardSize + col] = FIRED;
+        if (outcome == ShotOutcome.HIT) {
+            pushTarget(row - 1, col);
+            pushTarget(row + 1, col);
+            pushTarget(row, col - 1);
+            pushTarget(row, col + 1);
+        } else if (outcome == ShotOutcome.SUNK && sunk != null) {
+            for (IPosition p : sunk.getPositions())
+                for (int r = p.getRow() - 1; r <= p.getRow() + 1; r++)
+                    for (int c = p.getColumn() - 1; c <= p.getColumn() + 1; c++)
+                        if (inside(r, c) && state[r * boardSize + c] == UNKNOWN)
+                            state[r * boardSize + c] = EXCLUDED;
+        }
+    }
+
+    /**
+     * Empilha uma célula candidata de alvo, se estiver dentro do tabuleiro e ainda for desconhecida.
+     * A pilha duplica de tamanho quando está cheia.
+     *
+     * @param row A linha da célula.
+     * @param col A coluna da célula.
+     */
+    private void pushTarget(int row, int col) {
+        if (!inside(row, col) || state[row * boardSize + col] != UNKNOWN)
+            return;
+        if (targetCount == targets.length)
+            targets = Arrays.copyOf(targets, targetCount * 2);
+        targets[targetCount++] = row * boardSize + col;
+    }
+
+    /**
+     * Verifica se uma célula está dentro do tabuleiro.
+     *
+     * @param row A linha da célula.
+     * @param col A coluna da célula.
+     * @return true se estiver dentro do tabuleiro.
+     */
+    private boolean inside(int row, int col) {
+        return row >= 0 && row < boardSize && col >= 0 && col < boardSize;
+    }
+
+    /**
+     * Converte um índice de célula na coordenada partilhada correspondente.
+     *
+     * @param cell O índice da célula.
+     * @return A posição correspondente.
+     */
+    private IPosition toPosition(int cell) {
+        return Position.of(cell / boardSize, cell % boardSize);
+    }
+}
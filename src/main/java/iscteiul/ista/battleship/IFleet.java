@@ -1,6 +1,7 @@
 package iscteiul.ista.battleship;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Representa a frota de navios do jogo Battleship.
@@ -8,12 +9,22 @@ import java.util.List;
  */
 public interface IFleet {
 
-    /** Tamanho do tabuleiro (10x10). */
+    /** Tamanho do tabuleiro por omissão (10x10). */
     Integer BOARD_SIZE = 10;
 
+    /** Tamanho máximo do tabuleiro, para que o índice {@code row * size + column} caiba num {@code int}. */
+    Integer MAX_BOARD_SIZE = 46340;
+
     /** Número máximo de navios na frota. */
     Integer FLEET_SIZE = 10;
 
+    /**
+     * Devolve o tamanho (lado) do tabuleiro desta frota.
+     *
+     * @return número de linhas e de colunas do tabuleiro
+     */
+    int getBoardSize();
+
     /**
      * Devolve todos os navios da frota.
      *
@@ -44,6 +55,20 @@ public interface IFleet {
      */
     List<IShip> getFloatingShips();
 
+    /**
+     * Devolve o número de navios que ainda não foram afundados, sem construir listas.
+     *
+     * @return número de navios a flutuar
+     */
+    int countFloatingShips();
+
+    /**
+     * Aplica a ação indicada a cada navio que ainda não foi afundado, sem alocar coleções.
+     *
+     * @param action ação a aplicar
+     */
+    void forEachFloatingShip(Consumer<? super IShip> action);
+
     /**
      * Devolve o navio que ocupa a posição indicada.
      *
@@ -52,6 +77,14 @@ public interface IFleet {
      */
     IShip shipAt(IPosition pos);
 
+    /**
+     * Devolve o navio que ocupa a célula indicada, codificada como {@code row * getBoardSize() + column}.
+     *
+     * @param cell índice da célula
+     * @return navio presente na célula ou null se não existir (ou se a célula estiver fora do tabuleiro)
+     */
+    IShip shipAt(int cell);
+
     /**
      * Imprime o estado atual da frota.
      */
@@ -1,5 +1,6 @@
 package iscteiul.ista.battleship;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -16,6 +17,49 @@ public interface IGame {
      */
     IShip fire(IPosition pos);
 
+    /**
+     * Efetua um disparo na célula indicada, codificada como {@code row * boardSize + column}
+     * (ver {@link #cellOf(int, int, int)}), sem criar nenhuma posição.
+     *
+     * @param cell célula alvo; fora de {@code [0, boardSize * boardSize)} o tiro é inválido
+     * @return navio afundado por este disparo ou null
+     */
+    IShip fire(int cell);
+
+    /**
+     * Efetua uma rajada (ou uma sequência longa de tiros) sobre células codificadas como
+     * {@code row * boardSize + column} (ver {@link #cellOf(int, int, int)}), sem criar objetos por tiro.
+     * Os tiros são resolvidos pela ordem do array, com as mesmas regras de {@link #fire(IPosition)}:
+     * células fora de {@code [0, boardSize * boardSize)} são inválidas e uma célula repetida dentro
+     * da própria rajada conta como tiro repetido.
+     *
+     * @param cells    células alvo
+     * @param outcomes array onde é escrito o código ({@link ShotOutcome#getCode()}) do resultado de cada tiro
+     * @return número de navios afundados pela rajada
+     */
+    int fireVolley(int[] cells, byte[] outcomes);
+
+    /**
+     * Codifica uma posição como índice de célula, para {@link #fireVolley(int[], byte[])}.
+     *
+     * @param row       linha
+     * @param column    coluna
+     * @param boardSize tamanho (lado) do tabuleiro
+     * @return índice da célula, ou -1 se a posição estiver fora do tabuleiro
+     */
+    static int cellOf(int row, int column, int boardSize) {
+        if (row < 0 || row >= boardSize || column < 0 || column >= boardSize)
+            return -1;
+        return row * boardSize + column;
+    }
+
+    /**
+     * Devolve o resultado do último disparo efetuado.
+     *
+     * @return resultado do último disparo ou null se ainda não houve disparos
+     */
+    ShotOutcome getLastOutcome();
+
     /**
      * Devolve todas as posições onde já foram efetuados disparos.
      *
@@ -23,6 +67,13 @@ public interface IGame {
      */
     List<IPosition> getShots();
 
+    /**
+     * Devolve a frota atacada neste jogo.
+     *
+     * @return a frota do jogo
+     */
+    IFleet getFleet();
+
     /**
      * Devolve o número de disparos repetidos.
      *
@@ -67,4 +118,20 @@ public interface IGame {
      * Imprime o estado atual da frota.
      */
     void printFleet();
+
+    /**
+     * Escreve o tabuleiro com os disparos válidos efetuados no destino indicado.
+     *
+     * @param out O destino (ex: um ficheiro ou socket).
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    void printValidShots(Appendable out) throws IOException;
+
+    /**
+     * Escreve o tabuleiro com a disposição da frota no destino indicado.
+     *
+     * @param out O destino (ex: um ficheiro ou socket).
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    void printFleet(Appendable out) throws IOException;
 }
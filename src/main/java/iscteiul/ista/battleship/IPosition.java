@@ -28,6 +28,14 @@ public interface IPosition {
      */
     boolean equals(Object other);
 
+    /**
+     * Devolve o código hash da posição. Depende apenas da linha e da coluna, de forma coerente
+     * com {@link #equals(Object)}.
+     *
+     * @return código hash
+     */
+    int hashCode();
+
     /**
      * Verifica se esta posição é adjacente a outra.
      *
@@ -38,11 +46,21 @@ public interface IPosition {
 
     /**
      * Marca a posição como ocupada.
+     *
+     * @throws UnsupportedOperationException se for uma coordenada partilhada de
+     *                                       {@link Position#of(int, int)}
      */
     void occupy();
 
     /**
      * Marca a posição como alvo de um disparo.
+     * <p>
+     * As posições dos navios ({@link IShip#getPositions()}) são coordenadas partilhadas de
+     * {@link Position#of(int, int)} e não aceitam disparos; para atingir um navio usa-se
+     * {@link IShip#shoot(IPosition)}.
+     *
+     * @throws UnsupportedOperationException se for uma coordenada partilhada de
+     *                                       {@link Position#of(int, int)}
      */
     void shoot();
 
@@ -55,6 +73,10 @@ public interface IPosition {
 
     /**
      * Indica se a posição já foi atingida.
+     * <p>
+     * As coordenadas partilhadas de {@link Position#of(int, int)}, incluindo as posições dos
+     * navios, não guardam o estado de tiro e devolvem sempre {@code false}; o estado de cada
+     * célula de um navio obtém-se com {@link IShip#isHitAt(IPosition)}.
      *
      * @return true se tiver sido atingida
      */
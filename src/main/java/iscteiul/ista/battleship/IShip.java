@@ -24,8 +24,14 @@ public interface IShip {
 
     /**
      * Devolve as posições ocupadas pelo navio.
+     * <p>
+     * As posições são coordenadas imutáveis partilhadas, obtidas com {@link Position#of(int, int)},
+     * e não guardam o estado de tiro do navio: {@code getPositions().get(i).isHit()} é sempre
+     * {@code false} e {@link IPosition#shoot()} ou {@link IPosition#occupy()} sobre elas lançam
+     * {@link UnsupportedOperationException}. Para saber se uma célula do navio foi atingida deve
+     * usar-se {@link #isHitAt(IPosition)}; para a atingir, {@link #shoot(IPosition)}.
      *
-     * @return lista de posições
+     * @return lista só de leitura das posições
      */
     List<IPosition> getPositions();
 
@@ -86,6 +92,16 @@ public interface IShip {
      */
     boolean occupies(IPosition pos);
 
+    /**
+     * Verifica se o navio ocupa a célula indicada, codificada como {@code row * width + column},
+     * sem criar nenhuma posição.
+     *
+     * @param cell  índice da célula
+     * @param width largura (lado) do tabuleiro usada na codificação
+     * @return true se ocupar essa célula
+     */
+    boolean occupies(int cell, int width);
+
     /**
      * Verifica se este navio está demasiado próximo de outro navio.
      *
@@ -108,4 +124,20 @@ public interface IShip {
      * @param pos posição atingida
      */
     void shoot(IPosition pos);
+
+    /**
+     * Regista um disparo numa célula do navio, codificada como {@code row * width + column}.
+     *
+     * @param cell  índice da célula atingida
+     * @param width largura (lado) do tabuleiro usada na codificação
+     */
+    void shoot(int cell, int width);
+
+    /**
+     * Indica se a posição indicada do navio já foi atingida.
+     *
+     * @param pos posição a verificar
+     * @return true se o navio ocupar essa posição e ela já tiver sido atingida
+     */
+    boolean isHitAt(IPosition pos);
 }
@@ -0,0 +1,26 @@
+package iscteiul.ista.battleship;
+
+/**
+ * Observador dos disparos de um jogo.
+ * É notificado por {@link Game#fire(IPosition)} depois de cada disparo ter sido processado,
+ * com o resultado já determinado e os contadores do jogo já atualizados.
+ */
+public interface IShotObserver {
+
+    /**
+     * Linha e coluna comunicadas para um disparo inválido feito por índice de célula
+     * ({@link IGame#fire(int)} e {@link IGame#fireVolley(int[], byte[])}), cuja coordenada
+     * original não é conhecida. Nunca é uma coordenada real de um disparo.
+     */
+    int UNKNOWN_COORDINATE = Integer.MIN_VALUE;
+
+    /**
+     * Notifica um disparo processado.
+     *
+     * @param row     A linha alvejada, ou {@link #UNKNOWN_COORDINATE}.
+     * @param column  A coluna alvejada, ou {@link #UNKNOWN_COORDINATE}.
+     * @param outcome O resultado do disparo.
+     * @param ship    O navio atingido (para {@link ShotOutcome#HIT} e {@link ShotOutcome#SUNK}), ou null.
+     */
+    void onShot(int row, int column, ShotOutcome outcome, IShip ship);
+}
@@ -0,0 +1,24 @@
+package iscteiul.ista.battleship;
+
+/**
+ * Estratégia de escolha de disparos contra uma frota.
+ * É informada do resultado de cada disparo para poder ajustar as escolhas seguintes.
+ */
+public interface IShotStrategy {
+
+    /**
+     * Escolhe a próxima posição a alvejar.
+     *
+     * @return posição alvo
+     */
+    IPosition nextShot();
+
+    /**
+     * Informa a estratégia do resultado de um disparo.
+     *
+     * @param shot    posição alvejada
+     * @param outcome resultado do disparo
+     * @param sunk    navio afundado pelo disparo, ou null se nenhum navio foi afundado
+     */
+    void shotResult(IPosition shot, ShotOutcome outcome, IShip sunk);
+}
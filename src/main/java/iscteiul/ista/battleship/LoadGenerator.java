@@ -0,0 +1,133 @@
+package iscteiul.ista.battleship;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Gerador de carga para o {@link GameServer}.
+ * <p>
+ * Simula o número indicado de jogadores em simultâneo, cada um numa virtual thread com o seu
+ * {@link GameClient}: cria uma frota gerada por {@link FleetGenerator}, dispara o número indicado
+ * de rajadas sobre células aleatórias e desiste. A latência de cada pedido é medida do envio do
+ * comando até ao fim da resposta e o resultado é agregado num {@link LoadReport}.
+ * </p>
+ */
+public class LoadGenerator {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final int NUMBER_SHOTS = 3;
+
+    private final String host;
+    private final int port;
+    private final int clients;
+    private final int volleys;
+    private final int boardSize;
+    private final long seed;
+    private final FleetGenerator fleets;
+
+    /**
+     * Construtor da classe LoadGenerator.
+     *
+     * @param host      O nome ou endereço do servidor.
+     * @param port      O porto do servidor.
+     * @param clients   O número de jogadores simultâneos.
+     * @param volleys   O número de rajadas disparadas por cada jogador.
+     * @param boardSize O tamanho (lado) do tabuleiro usado pelo servidor.
+     * @param seed      A semente das frotas e dos disparos.
+     */
+    public LoadGenerator(String host, int port, int clients, int volleys, int boardSize, long seed) {
+        if (clients < 1 || volleys < 0)
+            throw new IllegalArgumentException("ERROR! invalid load: " + clients + " clients, " + volleys + " volleys");
+        this.host = host;
+        this.port = port;
+        this.clients = clients;
+        this.volleys = volleys;
+        this.boardSize = boardSize;
+        this.seed = seed;
+        this.fleets = new FleetGenerator(seed, boardSize);
+    }
+
+    /**
+     * Executa a carga e espera que todos os jogadores terminem.
+     *
+     * @return O relatório da execução.
+     */
+    public LoadReport run() {
+        int perClient = volleys + 2; // nova + rajadas + desisto
+        long[] latencies = new long[clients * perClient];
+        int[] completed = new int[clients];
+        LongAdder errors = new LongAdder();
+
+        long start = System.nanoTime();
+        try (ExecutorService players = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                int player = i;
+                players.execute(() -> {
+                    try {
+                        completed[player] = play(player, latencies, player * perClient);
+                    } catch (IOException e) {
+                        errors.increment();
+                        LOGGER.error("Erro no jogador {}: {}", player, e.getMessage());
+                    }
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        int n = 0;
+        for (int i = 0; i < clients; i++) {
+            System.arraycopy(latencies, i * perClient, latencies, n, completed[i]);
+            n += completed[i];
+        }
+        return new LoadReport(clients, Arrays.copyOf(latencies, n), errors.sum(), elapsed);
+    }
+
+    /**
+     * Joga uma sessão completa, registando a latência de cada pedido.
+     *
+     * @param player    O índice do jogador.
+     * @param latencies O array onde registar as latências.
+     * @param offset    A posição do array onde começa o registo deste jogador.
+     * @return O número de pedidos respondidos.
+     * @throws IOException Se ocorrer um erro de comunicação.
+     */
+    private int play(int player, long[] latencies, int offset) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed + player);
+        StringBuilder volley = new StringBuilder(64);
+        int n = 0;
+        try (GameClient client = new GameClient(host, port)) {
+            latencies[offset + n++] = timed(client, GameClient.newFleetCommand(fleets.generate(player)));
+            for (int v = 0; v < volleys; v++) {
+                volley.setLength(0);
+                volley.append("rajada");
+                for (int s = 0; s < NUMBER_SHOTS; s++)
+                    volley.append(' ').append(random.nextInt(boardSize)).append(' ').append(random.nextInt(boardSize));
+                latencies[offset + n++] = timed(client, volley.toString());
+            }
+            latencies[offset + n++] = timed(client, "desisto");
+        }
+        return n;
+    }
+
+    /**
+     * Envia um comando e mede o tempo até à resposta completa.
+     *
+     * @param client  O cliente.
+     * @param command O comando.
+     * @return A latência, em nanossegundos.
+     * @throws IOException Se ocorrer um erro de comunicação.
+     */
+    private static long timed(GameClient client, String command) throws IOException {
+        long t0 = System.nanoTime();
+        client.send(command);
+        return System.nanoTime() - t0;
+    }
+}
@@ -0,0 +1,94 @@
+package iscteiul.ista.battleship;
+
+import java.util.Arrays;
+
+/**
+ * Resultado de uma execução do {@link LoadGenerator}: número de pedidos, erros, débito e
+ * a distribuição da latência de cada pedido (do envio do comando até ao fim da resposta).
+ */
+public class LoadReport {
+
+    private final int clients;
+    private final long[] latencies;
+    private final long errors;
+    private final long elapsedNanos;
+
+    /**
+     * Construtor da classe LoadReport.
+     *
+     * @param clients      O número de clientes simultâneos.
+     * @param latencies    As latências de todos os pedidos respondidos, em nanossegundos (o array é ordenado).
+     * @param errors       O número de clientes que terminaram com erro.
+     * @param elapsedNanos O tempo total da execução, em nanossegundos.
+     */
+    LoadReport(int clients, long[] latencies, long errors, long elapsedNanos) {
+        Arrays.sort(latencies);
+        this.clients = clients;
+        this.latencies = latencies;
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Obtém o número de clientes simultâneos.
+     *
+     * @return O número de clientes.
+     */
+    public int getClients() {
+        return clients;
+    }
+
+    /**
+     * Obtém o número de pedidos respondidos.
+     *
+     * @return O número de pedidos.
+     */
+    public long getRequests() {
+        return latencies.length;
+    }
+
+    /**
+     * Obtém o número de clientes que terminaram com erro.
+     *
+     * @return O número de erros.
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Obtém o débito da execução, em pedidos por segundo.
+     *
+     * @return O número de pedidos respondidos por segundo.
+     */
+    public double getRequestsPerSecond() {
+        return elapsedNanos == 0 ? 0 : latencies.length * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Obtém o percentil indicado da latência dos pedidos.
+     *
+     * @param percentile O percentil pretendido (entre 0 e 100).
+     * @return A menor latência, em nanossegundos, que cobre essa fração dos pedidos (0 se não houve pedidos).
+     */
+    public long getLatencyPercentile(double percentile) {
+        if (latencies.length == 0)
+            return 0;
+        int index = (int) Math.ceil(latencies.length * percentile / 100.0) - 1;
+        return latencies[Math.max(0, Math.min(index, latencies.length - 1))];
+    }
+
+    /**
+     * Retorna um resumo textual do relatório.
+     *
+     * @return Uma string com o débito e os principais percentis da latência, em microssegundos.
+     */
+    @Override
+    public String toString() {
+        return String.format("%d clientes, %d pedidos, %d erros, %.0f pedidos/s, latência (us) p50=%d p90=%d "
+                        + "p99=%d p99.9=%d max=%d",
+                clients, getRequests(), errors, getRequestsPerSecond(), getLatencyPercentile(50) / 1000,
+                getLatencyPercentile(90) / 1000, getLatencyPercentile(99) / 1000,
+                getLatencyPercentile(99.9) / 1000, getLatencyPercentile(100) / 1000);
+    }
+}
@@ -0,0 +1,338 @@
+package iscteiul.ista.battleship;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Tabela pré-calculada de todas as colocações legais de cada tipo de navio num tabuleiro.
+ * <p>
+ * Para cada {@link ShipShape} enumera as colocações que cabem inteiramente no tabuleiro,
+ * ignorando orientações cuja forma coincide com outra já enumerada (por exemplo, uma fragata
+ * a Norte ocupa as mesmas células que a Sul). Cada colocação guarda as células ocupadas,
+ * a máscara dessas células e a máscara do seu "halo" (células ocupadas e vizinhas), pelo que
+ * testar e marcar uma colocação se reduz a operações sobre {@code long}.
+ * </p>
+ */
+final class PlacementTable {
+
+    /** Número máximo de células para o qual se constroem máscaras completas do tabuleiro. */
+    static final int MAX_CELLS = 64 * 64;
+
+    private static final ConcurrentMap<Integer, PlacementTable> TABLES = new ConcurrentHashMap<>();
+
+    /**
+     * Obtém a tabela de colocações para um tabuleiro com o tamanho indicado.
+     * As tabelas são construídas uma única vez e partilhadas.
+     *
+     * @param boardSize O tamanho (lado) do tabuleiro.
+     * @return A tabela de colocações.
+     * @throws IllegalArgumentException Se o tabuleiro for demasiado grande para máscaras completas.
+     */
+    static PlacementTable forBoard(int boardSize) {
+        if (boardSize <= 0 || boardSize * boardSize > MAX_CELLS)
+            throw new IllegalArgumentException("ERROR! board too large for placement tables: " + boardSize);
+        return TABLES.computeIfAbsent(boardSize, PlacementTable::new);
+    }
+
+    private final int boardSize;
+    private final int words;
+
+    /** Por forma: orientação e posição base de cada colocação. */
+    private final Compass[][] bearings;
+    private final int[][] anchors;
+
+    /** Por forma: células ocupadas por cada colocação, com passo {@code shape.getSize()}. */
+    private final int[][] cells;
+
+    /** Por forma: máscaras das células e do halo de cada colocação, com passo {@link #words}. */
+    private final long[][] masks;
+    private final long[][] halos;
+
+    /**
+     * Por forma: colocações que cobrem cada célula, em formato comprimido. As colocações que
+     * cobrem a célula {@code c} estão em {@code covering[s][coveringStart[s][c]..coveringStart[s][c + 1])}.
+     */
+    private final int[][] coveringStart;
+    private final int[][] covering;
+
+    /**
+     * Constrói a tabela enumerando todas as colocações legais de todas as formas.
+     *
+     * @param boardSize O tamanho (lado) do tabuleiro.
+     */
+    private PlacementTable(int boardSize) {
+        this.boardSize = boardSize;
+        this.words = (boardSize * boardSize + Long.SIZE - 1) / Long.SIZE;
+
+        int shapes = ShipShape.values().length;
+        bearings = new Compass[shapes][];
+        anchors = new int[shapes][];
+        cells = new int[shapes][];
+        masks = new long[shapes][];
+        halos = new long[shapes][];
+        coveringStart = new int[shapes][];
+        covering = new int[shapes][];
+
+        Compass[] directions = {Compass.NORTH, Compass.SOUTH, Compass.EAST, Compass.WEST};
+        for (ShipShape shape : ShipShape.values()) {
+            int size = shape.getSize();
+            Compass[] distinct = distinctBearings(shape, directions);
+
+            int capacity = distinct.length * boardSize * boardSize;
+            Compass[] b = new Compass[capacity];
+            int[] a = new int[capacity];
+            int[] c = new int[capacity * size];
+            int n = 0;
+            for (int row = 0; row < boardSize; row++)
+                for (int col = 0; col < boardSize; col++)
+                    for (Compass bearing : distinct) {
+                        if (!fits(shape, bearing, row, col))
+                            continue;
+                        b[n] = bearing;
+                        a[n] = row * boardSize + col;
+                        for (int i = 0; i < size; i++)
+                            c[n * size + i] = (row + shape.rowOffset(bearing, i)) * boardSize
+                                    + col + shape.columnOffset(bearing, i);
+                        n++;
+                    }
+
+            int s = shape.ordinal();
+            bearings[s] = Arrays.copyOf(b, n);
+            anchors[s] = Arrays.copyOf(a, n);
+            cells[s] = Arrays.copyOf(c, n * size);
+            masks[s] = new long[n * words];
+            halos[s] = new long[n * words];
+            for (int p = 0; p < n; p++)
+                for (int i = 0; i < size; i++) {
+                    int cell = cells[s][p * size + i];
+                    masks[s][p * words + (cell >>> 6)] |= 1L << cell;
+                    int row = cell / boardSize;
+                    int col = cell % boardSize;
+                    for (int r = Math.max(0, row - 1); r <= Math.min(boardSize - 1, row + 1); r++)
+                        for (int cc = Math.max(0, col - 1); cc <= Math.min(boardSize - 1, col + 1); cc++) {
+                            int h = r * boardSize + cc;
+                            halos[s][p * words + (h >>> 6)] |= 1L << h;
+                        }
+                }
+
+            int cellCount = boardSize * boardSize;
+            coveringStart[s] = new int[cellCount + 1];
+            for (int i = 0; i < n * size; i++)
+                coveringStart[s][cells[s][i] + 1]++;
+            for (int cell = 0; cell < cellCount; cell++)
+                coveringStart[s][cell + 1] += coveringStart[s][cell];
+            covering[s] = new int[n * size];
+            int[] fill = Arrays.copyOf(coveringStart[s], cellCount);
+            for (int p = 0; p < n; p++)
+                for (int i = 0; i < size; i++)
+                    covering[s][fill[cells[s][p * size + i]]++] = p;
+        }
+    }
+
+    /**
+     * Seleciona as orientações cuja forma ainda não foi produzida por uma orientação anterior.
+     *
+     * @param shape      A forma do navio.
+     * @param directions As orientações candidatas, por ordem de preferência.
+     * @return As orientações com formas distintas.
+     */
+    private static Compass[] distinctBearings(ShipShape shape, Compass[] directions) {
+        Compass[] distinct = new Compass[directions.length];
+        int n = 0;
+        for (Compass bearing : directions) {
+            boolean repeated = false;
+            for (int i = 0; i < n; i++)
+                if (shape.mask(distinct[i]) == shape.mask(bearing))
+                    repeated = true;
+            if (!repeated)
+                distinct[n++] = bearing;
+        }
+        return Arrays.copyOf(distinct, n);
+    }
+
+    /**
+     * Verifica se a forma, colocada na posição base indicada, fica dentro do tabuleiro.
+     *
+     * @param shape   A forma do navio.
+     * @param bearing A orientação do navio.
+     * @param row     A linha da posição base.
+     * @param col     A coluna da posição base.
+     * @return true se todas as células ficarem dentro do tabuleiro.
+     */
+    private boolean fits(ShipShape shape, Compass bearing, int row, int col) {
+        for (int i = 0; i < shape.getSize(); i++) {
+            int r = row + shape.rowOffset(bearing, i);
+            int c = col + shape.columnOffset(bearing, i);
+            if (r < 0 || r >= boardSize || c < 0 || c >= boardSize)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Obtém o tamanho (lado) do tabuleiro desta tabela.
+     *
+     * @return O tamanho do tabuleiro.
+     */
+    int boardSize() {
+        return boardSize;
+    }
+
+    /**
+     * Obtém o número de {@code long} usados por cada máscara do tabuleiro.
+     *
+     * @return O número de palavras de 64 bits por máscara.
+     */
+    int words() {
+        return words;
+    }
+
+    /**
+     * Obtém o número de colocações legais de uma forma.
+     *
+     * @param shape A forma do navio.
+     * @return O número de colocações.
+     */
+    int count(ShipShape shape) {
+        return anchors[shape.ordinal()].length;
+    }
+
+    /**
+     * Obtém a orientação de uma colocação.
+     *
+     * @param shape     A forma do navio.
+     * @param placement O índice da colocação.
+     * @return A orientação.
+     */
+    Compass bearing(ShipShape shape, int placement) {
+        return bearings[shape.ordinal()][placement];
+    }
+
+    /**
+     * Obtém a célula da posição base de uma colocação.
+     *
+     * @param shape     A forma do navio.
+     * @param placement O índice da colocação.
+     * @return O índice {@code row * boardSize + column} da posição base.
+     */
+    int anchor(ShipShape shape, int placement) {
+        return anchors[shape.ordinal()][placement];
+    }
+
+    /**
+     * Obtém a célula {@code i} ocupada por uma colocação.
+     *
+     * @param shape     A forma do navio.
+     * @param placement O índice da colocação.
+     * @param i         O índice da célula dentro do navio.
+     * @return O índice {@code row * boardSize + column} da célula.
+     */
+    int cell(ShipShape shape, int placement, int i) {
+        return cells[shape.ordinal()][placement * shape.getSize() + i];
+    }
+
+    /**
+     * Obtém o número de colocações de uma forma que cobrem a célula indicada.
+     *
+     * @param shape A forma do navio.
+     * @param cell  O índice {@code row * boardSize + column} da célula.
+     * @return O número de colocações que cobrem a célula.
+     */
+    int coveringCount(ShipShape shape, int cell) {
+        int[] start = coveringStart[shape.ordinal()];
+        return start[cell + 1] - start[cell];
+    }
+
+    /**
+     * Obtém a {@code k}-ésima colocação de uma forma que cobre a célula indicada.
+     *
+     * @param shape A forma do navio.
+     * @param cell  O índice {@code row * boardSize + column} da célula.
+     * @param k     O índice entre 0 e {@code coveringCount(shape, cell) - 1}.
+     * @return O índice da colocação.
+     */
+    int covering(ShipShape shape, int cell, int k) {
+        return covering[shape.ordinal()][coveringStart[shape.ordinal()][cell] + k];
+    }
+
+    /**
+     * Verifica se uma colocação não interseta nenhuma das células proibidas indicadas.
+     *
+     * @param shape     A forma do navio.
+     * @param placement O índice da colocação.
+     * @param forbidden O array que contém a máscara de células proibidas.
+     * @param offset    A posição no array onde começam as {@link #words()} palavras da máscara.
+     * @return true se a colocação for compatível com a máscara.
+     */
+    boolean fits(ShipShape shape, int placement, long[] forbidden, int offset) {
+        long[] m = masks[shape.ordinal()];
+        int base = placement * words;
+        for (int w = 0; w < words; w++)
+            if ((m[base + w] & forbidden[offset + w]) != 0)
+                return false;
+        return true;
+    }
+
+    /**
+     * Acrescenta o halo de uma colocação à máscara de células proibidas.
+     *
+     * @param shape     A forma do navio.
+     * @param placement O índice da colocação.
+     * @param forbidden O array que contém a máscara de células proibidas a atualizar.
+     * @param offset    A posição no array onde começam as {@link #words()} palavras da máscara.
+     */
+    void markHalo(ShipShape shape, int placement, long[] forbidden, int offset) {
+        long[] h = halos[shape.ordinal()];
+        int base = placement * words;
+        for (int w = 0; w < words; w++)
+            forbidden[offset + w] |= h[base + w];
+    }
+
+    /**
+     * Constrói o navio correspondente a uma colocação.
+     *
+     * @param shape     A forma do navio.
+     * @param placement O índice da colocação.
+     * @return O navio colocado.
+     */
+    Ship build(ShipShape shape, int placement) {
+        int anchor = anchor(shape, placement);
+        return Ship.buildShip(shape.getKind(), bearing(shape, placement),
+                Position.of(anchor / boardSize, anchor % boardSize));
+    }
+
+    /**
+     * Procura a colocação que ocupa exatamente as mesmas células que o navio indicado.
+     *
+     * @param shape A forma do navio.
+     * @param ship  O navio a procurar.
+     * @return O índice da colocação, ou -1 se o navio não corresponder a nenhuma colocação legal.
+     */
+    int indexOf(ShipShape shape, IShip ship) {
+        List<IPosition> positions = ship.getPositions();
+        int size = shape.getSize();
+        if (positions.size() != size)
+            return -1;
+
+        long[] target = new long[words];
+        for (IPosition p : positions) {
+            if (p.getRow() < 0 || p.getRow() >= boardSize || p.getColumn() < 0 || p.getColumn() >= boardSize)
+                return -1;
+            int cell = p.getRow() * boardSize + p.getColumn();
+            target[cell >>> 6] |= 1L << cell;
+        }
+
+        long[] m = masks[shape.ordinal()];
+        for (int placement = 0; placement < count(shape); placement++) {
+            int base = placement * words;
+            boolean same = true;
+            for (int w = 0; w < words && same; w++)
+                same = m[base + w] == target[w];
+            if (same)
+                return placement;
+        }
+        return -1;
+    }
+}
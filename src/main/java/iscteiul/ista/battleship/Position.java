@@ -1,13 +1,46 @@
 package iscteiul.ista.battleship;
 
-import java.util.Objects;
-
 /**
  * Representa uma posição (coordenada) específica no tabuleiro do jogo da Batalha Naval.
  * Guarda a informação sobre a sua localização (linha e coluna), se está ocupada por um navio
  * e se já foi atingida por um tiro.
+ * <p>
+ * Para além das instâncias mutáveis criadas pelo construtor, a classe disponibiliza
+ * coordenadas imutáveis através de {@link #of(int, int)}, em qualquer tabuleiro e para
+ * qualquer linha e coluna: {@link #occupy()} e {@link #shoot()} lançam sempre
+ * {@link UnsupportedOperationException}. As células do tabuleiro por omissão
+ * ({@value IFleet#BOARD_SIZE}x{@value IFleet#BOARD_SIZE}) são partilhadas (flyweight), pelo que
+ * obtê-las não aloca memória; as restantes são criadas a cada chamada. A partilha é apenas uma
+ * otimização: as coordenadas devem ser comparadas com {@link #equals(Object)}, nunca por identidade.
+ * </p>
  */
 public class Position implements IPosition {
+
+    /** Coordenadas imutáveis pré-construídas, indexadas por {@code row * BOARD_SIZE + column}. */
+    private static final Position[] COORDINATES = new Position[IFleet.BOARD_SIZE * IFleet.BOARD_SIZE];
+
+    static {
+        for (int r = 0; r < IFleet.BOARD_SIZE; r++)
+            for (int c = 0; c < IFleet.BOARD_SIZE; c++)
+                COORDINATES[r * IFleet.BOARD_SIZE + c] = new Coordinate(r, c);
+    }
+
+    /**
+     * Obtém a coordenada imutável correspondente à linha e coluna indicadas.
+     * Dentro do tabuleiro por omissão é devolvida sempre a mesma instância partilhada; noutros
+     * tabuleiros, ou fora do tabuleiro, é criada uma nova coordenada, igualmente imutável.
+     * As coordenadas devolvidas não guardam estado de ocupação nem de tiro.
+     *
+     * @param row    A linha da coordenada.
+     * @param column A coluna da coordenada.
+     * @return A coordenada imutável correspondente.
+     */
+    public static Position of(int row, int column) {
+        if (row >= 0 && row < IFleet.BOARD_SIZE && column >= 0 && column < IFleet.BOARD_SIZE)
+            return COORDINATES[row * IFleet.BOARD_SIZE + column];
+        return new Coordinate(row, column);
+    }
+
     private int row;
     private int column;
     private boolean isOccupied;
@@ -48,12 +81,16 @@ public class Position implements IPosition {
     }
 
     /**
-     * Gera um código hash para a posição com base nos seus atributos.
-     * * @return O código hash gerado.
+     * Gera um código hash para a posição com base na sua linha e coluna, misturadas como as
+     * chaves de {@link PositionMap} para que coordenadas vizinhas não colidam em tabuleiros largos.
+     * Tal como {@link #equals(Object)}, ignora o estado de ocupação e de tiro, pelo que o código
+     * não muda quando a posição é ocupada ou atingida.
+     *
+     * @return O código hash gerado.
      */
     @Override
     public int hashCode() {
-        return Objects.hash(column, isHit, isOccupied, row);
+        return PositionMap.mix(PositionMap.pack(row, column));
     }
 
     /**
@@ -132,4 +169,41 @@ public class Position implements IPosition {
     public String toString() {
         return ("Linha = " + row + " Coluna = " + column);
     }
+
+    /**
+     * Coordenada imutável usada pelas instâncias partilhadas de {@link #of(int, int)}.
+     * Não guarda estado de ocupação nem de tiro; esse estado pertence aos navios.
+     */
+    private static final class Coordinate extends Position {
+
+        /**
+         * Cria uma coordenada imutável.
+         *
+         * @param row    A linha da coordenada.
+         * @param column A coluna da coordenada.
+         */
+        private Coordinate(int row, int column) {
+            super(row, column);
+        }
+
+        /**
+         * As coordenadas partilhadas não podem ser marcadas como ocupadas.
+         *
+         * @throws UnsupportedOperationException sempre
+         */
+        @Override
+        public void occupy() {
+            throw new UnsupportedOperationException("ERROR! shared coordinates are immutable");
+        }
+
+        /**
+         * As coordenadas partilhadas não podem ser marcadas como atingidas.
+         *
+         * @throws UnsupportedOperationException sempre
+         */
+        @Override
+        public void shoot() {
+            throw new UnsupportedOperationException("ERROR! shared coordinates are immutable");
+        }
+    }
 }
@@ -0,0 +1,315 @@
+package iscteiul.ista.battleship;
+
+import java.util.Arrays;
+
+/**
+ * Mapa de coordenadas para valores, com endereçamento aberto e chaves primitivas.
+ * <p>
+ * Cada chave é a linha e a coluna empacotadas num {@code long}, guardado diretamente num array
+ * e procurado por sondagem linear. Ao contrário de um {@code HashMap<IPosition, V>}, inserir
+ * ou procurar não aloca entradas nem posições, e a igualdade reduz-se a comparar dois
+ * {@code long}. Qualquer coordenada pode ser chave, incluindo as de fora do tabuleiro.
+ * </p>
+ * <p>
+ * Os valores não podem ser null: {@link #get(int, int)} devolve null para indicar uma chave ausente.
+ * A classe não é thread-safe.
+ * </p>
+ *
+ * @param <V> O tipo dos valores.
+ */
+public class PositionMap<V> {
+
+    /** Fator de carga máximo, em oitavos da capacidade. */
+    static final int MAX_LOAD_EIGHTHS = 5;
+
+    private static final int MIN_CAPACITY = 8;
+
+    /**
+     * Ação aplicada a cada entrada do mapa por {@link #forEach(Visitor)}.
+     *
+     * @param <V> O tipo dos valores.
+     */
+    @FunctionalInterface
+    public interface Visitor<V> {
+
+        /**
+         * Processa uma entrada.
+         *
+         * @param row    A linha da coordenada.
+         * @param column A coluna da coordenada.
+         * @param value  O valor associado.
+         */
+        void accept(int row, int column, V value);
+    }
+
+    private long[] keys;
+
+    /** Valores, na mesma posição das chaves; null indica uma posição livre. */
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    /**
+     * Construtor da classe PositionMap com a capacidade mínima.
+     */
+    public PositionMap() {
+        this(0);
+    }
+
+    /**
+     * Construtor da classe PositionMap dimensionado para o número de entradas indicado.
+     *
+     * @param expected O número de entradas esperado.
+     * @throws IllegalArgumentException Se o número de entradas for negativo.
+     */
+    public PositionMap(int expected) {
+        if (expected < 0)
+            throw new IllegalArgumentException("ERROR! invalid expected size: " + expected);
+        allocate(capacityFor(expected));
+    }
+
+    /**
+     * Empacota uma coordenada num {@code long}: a linha nos 32 bits altos e a coluna nos baixos.
+     *
+     * @param row    A linha.
+     * @param column A coluna.
+     * @return A chave empacotada.
+     */
+    static long pack(int row, int column) {
+        return (long) row << 32 | (column & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Espalha os bits de uma chave empacotada, para que coordenadas vizinhas não colidam.
+     *
+     * @param key A chave empacotada.
+     * @return O código de dispersão.
+     */
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ h >>> 32);
+    }
+
+    /**
+     * Calcula a capacidade (uma potência de 2) necessária para o número de entradas indicado.
+     *
+     * @param expected O número de entradas.
+     * @return A capacidade da tabela.
+     */
+    static int capacityFor(int expected) {
+        long needed = (long) expected * 8 / MAX_LOAD_EIGHTHS + 1;
+        if (needed > 1 << 30)
+            throw new IllegalArgumentException("ERROR! too many positions: " + expected);
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+
+    /**
+     * Aloca uma tabela vazia com a capacidade indicada.
+     *
+     * @param capacity A capacidade (uma potência de 2).
+     */
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity / 8 * MAX_LOAD_EIGHTHS;
+    }
+
+    /**
+     * Procura a posição da tabela onde está, ou deveria estar, uma chave.
+     *
+     * @param key A chave empacotada.
+     * @return A posição da chave, ou a posição livre onde a sondagem terminou.
+     */
+    private int slot(long key) {
+        int i = mix(key) & mask;
+        while (values[i] != null && keys[i] != key)
+            i = (i + 1) & mask;
+        return i;
+    }
+
+    /**
+     * Obtém o valor associado a uma coordenada.
+     *
+     * @param row    A linha.
+     * @param column A coluna.
+     * @return O valor, ou null se a coordenada não estiver no mapa.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int row, int column) {
+        return (V) values[slot(pack(row, column))];
+    }
+
+    /**
+     * Obtém o valor associado a uma posição.
+     *
+     * @param pos A posição.
+     * @return O valor, ou null se a posição não estiver no mapa.
+     */
+    public V get(IPosition pos) {
+        return get(pos.getRow(), pos.getColumn());
+    }
+
+    /**
+     * Verifica se uma coordenada está no mapa.
+     *
+     * @param row    A linha.
+     * @param column A coluna.
+     * @return true se a coordenada tiver um valor associado.
+     */
+    public boolean containsKey(int row, int column) {
+        return values[slot(pack(row, column))] != null;
+    }
+
+    /**
+     * Verifica se uma posição está no mapa.
+     *
+     * @param pos A posição.
+     * @return true se a posição tiver um valor associado.
+     */
+    public boolean containsKey(IPosition pos) {
+        return containsKey(pos.getRow(), pos.getColumn());
+    }
+
+    /**
+     * Associa um valor a uma coordenada, substituindo o valor anterior.
+     *
+     * @param row    A linha.
+     * @param column A coluna.
+     * @param value  O valor (não null).
+     * @return O valor anterior, ou null se a coordenada não estava no mapa.
+     * @throws NullPointerException Se o valor for null.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int row, int column, V value) {
+        if (value == null)
+            throw new NullPointerException("ERROR! null values are not allowed");
+        long key = pack(row, column);
+        int i = slot(key);
+        V previous = (V) values[i];
+        keys[i] = key;
+        values[i] = value;
+        if (previous == null && ++size > resizeAt)
+            rehash(keys.length << 1);
+        return previous;
+    }
+
+    /**
+     * Associa um valor a uma posição, substituindo o valor anterior.
+     *
+     * @param pos   A posição.
+     * @param value O valor (não null).
+     * @return O valor anterior, ou null se a posição não estava no mapa.
+     */
+    public V put(IPosition pos, V value) {
+        return put(pos.getRow(), pos.getColumn(), value);
+    }
+
+    /**
+     * Remove uma coordenada do mapa. As chaves seguintes da mesma sequência de sondagem são
+     * recuadas, pelo que a tabela nunca acumula marcas de remoção.
+     *
+     * @param row    A linha.
+     * @param column A coluna.
+     * @return O valor removido, ou null se a coordenada não estava no mapa.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int row, int column) {
+        int i = slot(pack(row, column));
+        V previous = (V) values[i];
+        if (previous != null) {
+            shiftBack(i);
+            size--;
+        }
+        return previous;
+    }
+
+    /**
+     * Remove uma posição do mapa.
+     *
+     * @param pos A posição.
+     * @return O valor removido, ou null se a posição não estava no mapa.
+     */
+    public V remove(IPosition pos) {
+        return remove(pos.getRow(), pos.getColumn());
+    }
+
+    /**
+     * Liberta uma posição da tabela, recuando para ela as chaves seguintes cuja posição
+     * de origem a antecede na sequência de sondagem.
+     *
+     * @param free A posição a libertar.
+     */
+    private void shiftBack(int free) {
+        int i = free;
+        while (true) {
+            i = (i + 1) & mask;
+            if (values[i] == null)
+                break;
+            int home = mix(keys[i]) & mask;
+            // a chave fica se a sua origem estiver no intervalo circular (free, i]
+            if (((i - home) & mask) >= ((i - free) & mask)) {
+                keys[free] = keys[i];
+                values[free] = values[i];
+                free = i;
+            }
+        }
+        values[free] = null;
+    }
+
+    /**
+     * Copia todas as entradas para uma tabela nova com a capacidade indicada.
+     *
+     * @param capacity A nova capacidade (uma potência de 2).
+     */
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++)
+            if (oldValues[j] != null) {
+                int i = slot(oldKeys[j]);
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+    }
+
+    /**
+     * Obtém o número de entradas do mapa.
+     *
+     * @return O número de coordenadas com valor associado.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Verifica se o mapa está vazio.
+     *
+     * @return true se não houver nenhuma entrada.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove todas as entradas, mantendo a capacidade atual.
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Aplica uma ação a cada entrada do mapa, por uma ordem não especificada, sem criar posições.
+     *
+     * @param visitor A ação a aplicar.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Visitor<? super V> visitor) {
+        for (int i = 0; i < keys.length; i++)
+            if (values[i] != null)
+                visitor.accept((int) (keys[i] >> 32), (int) keys[i], (V) values[i]);
+    }
+}
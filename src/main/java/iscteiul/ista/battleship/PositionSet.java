@@ -0,0 +1,238 @@
+package iscteiul.ista.battleship;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Conjunto de coordenadas com endereçamento aberto e chaves primitivas.
+ * <p>
+ * É a variante sem valores de {@link PositionMap}: cada coordenada é guardada como um
+ * {@code long} empacotado e procurada por sondagem linear, sem alocar posições nem entradas.
+ * Qualquer coordenada pode pertencer ao conjunto, incluindo as de fora do tabuleiro, pelo
+ * que serve também para tabuleiros muito grandes onde um bitset denso seria desproporcionado.
+ * A classe não é thread-safe.
+ * </p>
+ */
+public class PositionSet {
+
+    /**
+     * Ação aplicada a cada coordenada do conjunto por {@link #forEach(Visitor)}.
+     */
+    @FunctionalInterface
+    public interface Visitor {
+
+        /**
+         * Processa uma coordenada.
+         *
+         * @param row    A linha.
+         * @param column A coluna.
+         */
+        void accept(int row, int column);
+    }
+
+    private long[] keys;
+
+    /** Posições ocupadas da tabela. */
+    private boolean[] used;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    /**
+     * Construtor da classe PositionSet com a capacidade mínima.
+     */
+    public PositionSet() {
+        this(0);
+    }
+
+    /**
+     * Construtor da classe PositionSet dimensionado para o número de coordenadas indicado.
+     *
+     * @param expected O número de coordenadas esperado.
+     * @throws IllegalArgumentException Se o número de coordenadas for negativo.
+     */
+    public PositionSet(int expected) {
+        if (expected < 0)
+            throw new IllegalArgumentException("ERROR! invalid expected size: " + expected);
+        allocate(PositionMap.capacityFor(expected));
+    }
+
+    /**
+     * Aloca uma tabela vazia com a capacidade indicada.
+     *
+     * @param capacity A capacidade (uma potência de 2).
+     */
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity / 8 * PositionMap.MAX_LOAD_EIGHTHS;
+    }
+
+    /**
+     * Procura a posição da tabela onde está, ou deveria estar, uma chave.
+     *
+     * @param key A chave empacotada.
+     * @return A posição da chave, ou a posição livre onde a sondagem terminou.
+     */
+    private int slot(long key) {
+        int i = PositionMap.mix(key) & mask;
+        while (used[i] && keys[i] != key)
+            i = (i + 1) & mask;
+        return i;
+    }
+
+    /**
+     * Verifica se uma coordenada pertence ao conjunto.
+     *
+     * @param row    A linha.
+     * @param column A coluna.
+     * @return true se a coordenada pertencer ao conjunto.
+     */
+    public boolean contains(int row, int column) {
+        return used[slot(PositionMap.pack(row, column))];
+    }
+
+    /**
+     * Verifica se uma posição pertence ao conjunto.
+     *
+     * @param pos A posição.
+     * @return true se a posição pertencer ao conjunto.
+     */
+    public boolean contains(IPosition pos) {
+        return contains(pos.getRow(), pos.getColumn());
+    }
+
+    /**
+     * Acrescenta uma coordenada ao conjunto.
+     *
+     * @param row    A linha.
+     * @param column A coluna.
+     * @return true se a coordenada ainda não pertencia ao conjunto.
+     */
+    public boolean add(int row, int column) {
+        long key = PositionMap.pack(row, column);
+        int i = slot(key);
+        if (used[i])
+            return false;
+        keys[i] = key;
+        used[i] = true;
+        if (++size > resizeAt)
+            rehash(keys.length << 1);
+        return true;
+    }
+
+    /**
+     * Acrescenta uma posição ao conjunto.
+     *
+     * @param pos A posição.
+     * @return true se a posição ainda não pertencia ao conjunto.
+     */
+    public boolean add(IPosition pos) {
+        return add(pos.getRow(), pos.getColumn());
+    }
+
+    /**
+     * Remove uma coordenada do conjunto, recuando as chaves seguintes da mesma sequência de sondagem.
+     *
+     * @param row    A linha.
+     * @param column A coluna.
+     * @return true se a coordenada pertencia ao conjunto.
+     */
+    public boolean remove(int row, int column) {
+        int free = slot(PositionMap.pack(row, column));
+        if (!used[free])
+            return false;
+        int i = free;
+        while (true) {
+            i = (i + 1) & mask;
+            if (!used[i])
+                break;
+            int home = PositionMap.mix(keys[i]) & mask;
+            // a chave fica se a sua origem estiver no intervalo circular (free, i]
+            if (((i - home) & mask) >= ((i - free) & mask)) {
+                keys[free] = keys[i];
+                free = i;
+            }
+        }
+        used[free] = false;
+        size--;
+        return true;
+    }
+
+    /**
+     * Remove uma posição do conjunto.
+     *
+     * @param pos A posição.
+     * @return true se a posição pertencia ao conjunto.
+     */
+    public boolean remove(IPosition pos) {
+        return remove(pos.getRow(), pos.getColumn());
+    }
+
+    /**
+     * Copia todas as coordenadas para uma tabela nova com a capacidade indicada.
+     *
+     * @param capacity A nova capacidade (uma potência de 2).
+     */
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++)
+            if (oldUsed[j]) {
+                int i = slot(oldKeys[j]);
+                keys[i] = oldKeys[j];
+                used[i] = true;
+            }
+    }
+
+    /**
+     * Obtém o número de coordenadas do conjunto.
+     *
+     * @return O número de coordenadas.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Verifica se o conjunto está vazio.
+     *
+     * @return true se não houver nenhuma coordenada.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove todas as coordenadas, mantendo a capacidade atual.
+     */
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    /**
+     * Aplica uma ação a cada coordenada do conjunto, por uma ordem não especificada, sem criar posições.
+     *
+     * @param visitor A ação a aplicar.
+     */
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++)
+            if (used[i])
+                visitor.accept((int) (keys[i] >> 32), (int) keys[i]);
+    }
+
+    /**
+     * Obtém as coordenadas do conjunto como posições imutáveis partilhadas ({@link Position#of(int, int)}).
+     *
+     * @return Uma nova lista com as posições, por uma ordem não especificada.
+     */
+    public List<IPosition> toList() {
+        List<IPosition> positions = new ArrayList<>(size);
+        forEach((row, column) -> positions.add(Position.of(row, column)));
+        return positions;
+    }
+}
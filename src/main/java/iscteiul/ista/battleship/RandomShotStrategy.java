@@ -0,0 +1,97 @@
+package iscteiul.ista.battleship;
+
+import java.util.SplittableRandom;
+
+/**
+ * Estratégia que dispara em posições aleatórias do tabuleiro, sem nunca repetir uma posição.
+ * <p>
+ * Em tabuleiros até {@value #MAX_SHUFFLED_CELLS} células, as posições são obtidas por uma
+ * baralhação de Fisher-Yates feita à medida que são pedidas. Em tabuleiros maiores, onde
+ * um array com todas as células seria demasiado grande, as posições são sorteadas e
+ * rejeitadas se já tiverem sido alvejadas.
+ * </p>
+ */
+public class RandomShotStrategy implements IShotStrategy {
+
+    /** Número máximo de células para o qual se mantém um array com todas as células. */
+    static final int MAX_SHUFFLED_CELLS = 1 << 20;
+
+    private final SplittableRandom random;
+    private final int boardSize;
+
+    /** Células ainda por alvejar nas posições {@code [0, remaining)}, ou null em tabuleiros grandes. */
+    private final int[] cells;
+    private long remaining;
+
+    /** Células já alvejadas, usado apenas em tabuleiros grandes. */
+    private final ChunkedBitSet fired;
+
+    /**
+     * Construtor da classe RandomShotStrategy para o tabuleiro por omissão.
+     *
+     * @param random O gerador de números aleatórios a usar.
+     */
+    public RandomShotStrategy(SplittableRandom random) {
+        this(random, IFleet.BOARD_SIZE);
+    }
+
+    /**
+     * Construtor da classe RandomShotStrategy para um tabuleiro com o tamanho indicado.
+     *
+     * @param random    O gerador de números aleatórios a usar.
+     * @param boardSize O tamanho (lado) do tabuleiro.
+     */
+    public RandomShotStrategy(SplittableRandom random, int boardSize) {
+        this.random = random;
+        this.boardSize = boardSize;
+        int total = boardSize * boardSize;
+        remaining = total;
+        if (total <= MAX_SHUFFLED_CELLS) {
+            cells = new int[total];
+            for (int i = 0; i < cells.length; i++)
+                cells[i] = i;
+            fired = null;
+        } else {
+            cells = null;
+            fired = new ChunkedBitSet(total);
+        }
+    }
+
+    /**
+     * Escolhe aleatoriamente uma das células ainda não alvejadas.
+     *
+     * @return A posição alvo.
+     * @throws IllegalStateException Se todas as células já tiverem sido alvejadas.
+     */
+    @Override
+    public IPosition nextShot() {
+        if (remaining == 0)
+            throw new IllegalStateException("ERROR! no cells left to fire at");
+
+        int cell;
+        if (cells != null) {
+            int i = random.nextInt((int) remaining);
+            cell = cells[i];
+            cells[i] = cells[(int) --remaining];
+            cells[(int) remaining] = cell;
+        } else {
+            do
+                cell = random.nextInt(boardSize * boardSize);
+            while (!fired.add(cell));
+            remaining--;
+        }
+        return Position.of(cell / boardSize, cell % boardSize);
+    }
+
+    /**
+     * A estratégia aleatória ignora o resultado dos disparos.
+     *
+     * @param shot    A posição alvejada.
+     * @param outcome O resultado do disparo.
+     * @param sunk    O navio afundado, ou null.
+     */
+    @Override
+    public void shotResult(IPosition shot, ShotOutcome outcome, IShip sunk) {
+        // nada a fazer
+    }
+}
@@ -1,6 +1,8 @@
 package iscteiul.ista.battleship;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -11,11 +13,8 @@ import java.util.List;
  */
 public abstract class Ship implements IShip {
 
-    private static final String GALEAO = "galeao";
-    private static final String FRAGATA = "fragata";
-    private static final String NAU = "nau";
-    private static final String CARAVELA = "caravela";
-    private static final String BARCA = "barca";
+    /** Capacidade inicial dos arrays de linhas e colunas (o tamanho do maior navio). */
+    private static final int INITIAL_POSITIONS = 5;
 
     /**
      * Método fábrica (Factory) estático que constrói e devolve uma instância específica 
@@ -27,8 +26,12 @@ public abstract class Ship implements IShip {
      * @return Uma instância da subclasse correspondente ao tipo de navio, ou null se o tipo for inválido.
      */
     static Ship buildShip(String shipKind, Compass bearing, Position pos) {
+        ShipShape shape = ShipShape.fromKind(shipKind);
+        if (shape == null)
+            return null;
+
         Ship s;
-        switch (shipKind) {
+        switch (shape) {
             case BARCA:
                 s = new Barge(bearing, pos);
                 break;
@@ -54,7 +57,28 @@ public abstract class Ship implements IShip {
     private String category;
     private Compass bearing;
     private IPosition pos;
-    protected List<IPosition> positions;
+
+    /** Posições ocupadas, preenchidas apenas por {@link #addPosition(int, int)}. */
+    private final List<IPosition> positions;
+
+    /** Vista só de leitura de {@link #positions}, devolvida por {@link #getPositions()}. */
+    private final List<IPosition> readOnlyPositions;
+
+    /** Caixa envolvente do navio, atualizada à medida que as posições são acrescentadas. */
+    private int topMost;
+    private int bottomMost;
+    private int leftMost;
+    private int rightMost;
+
+    /** Linha e coluna de cada posição, pela ordem de {@code positions}, para consultas sem objetos. */
+    private int[] rows;
+    private int[] columns;
+
+    /** Posições já atingidas: o bit {@code i} corresponde a {@code positions.get(i)}. */
+    private int hitMask;
+
+    /** Número de posições do navio já atingidas. */
+    private int hitCount;
 
 
     /**
@@ -73,6 +97,52 @@ public abstract class Ship implements IShip {
         this.bearing = bearing;
         this.pos = pos;
         positions = new ArrayList<>();
+        readOnlyPositions = Collections.unmodifiableList(positions);
+        rows = new int[INITIAL_POSITIONS];
+        columns = new int[INITIAL_POSITIONS];
+        topMost = Integer.MAX_VALUE;
+        bottomMost = Integer.MIN_VALUE;
+        leftMost = Integer.MAX_VALUE;
+        rightMost = Integer.MIN_VALUE;
+        hitMask = 0;
+        hitCount = 0;
+    }
+
+    /**
+     * Acrescenta uma posição ao navio e atualiza a sua caixa envolvente.
+     * Deve ser usado pelos construtores das subclasses para preencher as posições ocupadas,
+     * de forma a que as consultas de limites não tenham de percorrer a lista de posições.
+     * As posições são coordenadas partilhadas ({@link Position#of(int, int)}); o estado de
+     * tiro de cada posição é guardado no próprio navio.
+     *
+     * @param row    A linha da posição ocupada.
+     * @param column A coluna da posição ocupada.
+     */
+    protected final void addPosition(int row, int column) {
+        int i = positions.size();
+        if (i == rows.length) {
+            rows = Arrays.copyOf(rows, i * 2);
+            columns = Arrays.copyOf(columns, i * 2);
+        }
+        rows[i] = row;
+        columns[i] = column;
+        positions.add(Position.of(row, column));
+        topMost = Math.min(topMost, row);
+        bottomMost = Math.max(bottomMost, row);
+        leftMost = Math.min(leftMost, column);
+        rightMost = Math.max(rightMost, column);
+    }
+
+    /**
+     * Preenche as posições do navio transladando a forma pré-calculada do seu tipo
+     * (ver {@link ShipShape}) para a posição base indicada, segundo a orientação do navio.
+     *
+     * @param shape A forma do tipo de navio.
+     * @param pos   A posição base do navio.
+     */
+    protected final void placeFootprint(ShipShape shape, IPosition pos) {
+        for (int i = 0; i < shape.getSize(); i++)
+            addPosition(pos.getRow() + shape.rowOffset(bearing, i), pos.getColumn() + shape.columnOffset(bearing, i));
     }
 
     /**
@@ -88,10 +158,10 @@ public abstract class Ship implements IShip {
     /**
      * Obtém a lista de todas as posições do tabuleiro que este navio ocupa.
      *
-     * @return Uma lista de objetos IPosition.
+     * @return Uma lista só de leitura de objetos IPosition.
      */
     public List<IPosition> getPositions() {
-        return positions;
+        return readOnlyPositions;
     }
 
     /**
@@ -121,10 +191,7 @@ public abstract class Ship implements IShip {
      */
     @Override
     public boolean stillFloating() {
-        for (int i = 0; i < getSize(); i++)
-            if (!getPositions().get(i).isHit())
-                return true;
-        return false;
+        return hitCount < positions.size();
     }
 
     /**
@@ -134,11 +201,7 @@ public abstract class Ship implements IShip {
      */
     @Override
     public int getTopMostPos() {
-        int top = getPositions().get(0).getRow();
-        for (int i = 1; i < getSize(); i++)
-            if (getPositions().get(i).getRow() < top)
-                top = getPositions().get(i).getRow();
-        return top;
+        return topMost;
     }
 
     /**
@@ -148,11 +211,7 @@ public abstract class Ship implements IShip {
      */
     @Override
     public int getBottomMostPos() {
-        int bottom = getPositions().get(0).getRow();
-        for (int i = 1; i < getSize(); i++)
-            if (getPositions().get(i).getRow() > bottom)
-                bottom = getPositions().get(i).getRow();
-        return bottom;
+        return bottomMost;
     }
 
     /**
@@ -162,11 +221,7 @@ public abstract class Ship implements IShip {
      */
     @Override
     public int getLeftMostPos() {
-        int left = getPositions().get(0).getColumn();
-        for (int i = 1; i < getSize(); i++)
-            if (getPositions().get(i).getColumn() < left)
-                left = getPositions().get(i).getColumn();
-        return left;
+        return leftMost;
     }
 
     /**
@@ -176,11 +231,7 @@ public abstract class Ship implements IShip {
      */
     @Override
     public int getRightMostPos() {
-        int right = getPositions().get(0).getColumn();
-        for (int i = 1; i < getSize(); i++)
-            if (getPositions().get(i).getColumn() > right)
-                right = getPositions().get(i).getColumn();
-        return right;
+        return rightMost;
     }
 
     /**
@@ -193,10 +244,36 @@ public abstract class Ship implements IShip {
     public boolean occupies(IPosition pos) {
         assert pos != null;
 
-        for (int i = 0; i < getSize(); i++)
-            if (getPositions().get(i).equals(pos))
-                return true;
-        return false;
+        return indexOf(pos.getRow(), pos.getColumn()) >= 0;
+    }
+
+    /**
+     * Verifica se este navio ocupa uma célula codificada como {@code row * width + column}.
+     *
+     * @param cell  O índice da célula.
+     * @param width A largura do tabuleiro usada na codificação.
+     * @return true se o navio estiver nessa célula, false caso contrário.
+     */
+    @Override
+    public boolean occupies(int cell, int width) {
+        return cell >= 0 && indexOf(cell / width, cell % width) >= 0;
+    }
+
+    /**
+     * Procura a posição do navio com as coordenadas indicadas, rejeitando primeiro as
+     * coordenadas fora da caixa envolvente.
+     *
+     * @param row    A linha.
+     * @param column A coluna.
+     * @return O índice da posição em {@link #getPositions()}, ou -1 se o navio não ocupar essas coordenadas.
+     */
+    private int indexOf(int row, int column) {
+        if (row < topMost || row > bottomMost || column < leftMost || column > rightMost)
+            return -1;
+        for (int i = 0; i < positions.size(); i++)
+            if (rows[i] == row && columns[i] == column)
+                return i;
+        return -1;
     }
 
     /**
@@ -235,7 +312,8 @@ public abstract class Ship implements IShip {
 
     /**
      * Regista um tiro neste navio. Se a posição fornecida corresponder a uma das
-     * posições ocupadas pelo navio, essa posição é marcada como atingida.
+     * posições ocupadas pelo navio, essa posição é marcada como atingida e, caso ainda
+     * não o estivesse, o contador de posições atingidas é incrementado.
      *
      * @param pos A posição do tiro disparado.
      */
@@ -243,12 +321,50 @@ public abstract class Ship implements IShip {
     public void shoot(IPosition pos) {
         assert pos != null;
 
-        for (IPosition position : getPositions()) {
-            if (position.equals(pos))
-                position.shoot();
+        markHit(indexOf(pos.getRow(), pos.getColumn()));
+    }
+
+    /**
+     * Regista um tiro numa célula codificada como {@code row * width + column}.
+     *
+     * @param cell  O índice da célula do tiro.
+     * @param width A largura do tabuleiro usada na codificação.
+     */
+    @Override
+    public void shoot(int cell, int width) {
+        if (cell >= 0)
+            markHit(indexOf(cell / width, cell % width));
+    }
+
+    /**
+     * Marca uma posição do navio como atingida, se ainda não o estava.
+     *
+     * @param i O índice da posição, ou -1 se o tiro não atingiu o navio.
+     */
+    private void markHit(int i) {
+        if (i < 0)
+            return;
+        int bit = 1 << i;
+        if ((hitMask & bit) == 0) {
+            hitMask |= bit;
+            hitCount++;
         }
     }
 
+    /**
+     * Verifica se a posição indicada deste navio já foi atingida.
+     *
+     * @param pos A posição a verificar.
+     * @return true se o navio ocupar a posição e esta já tiver sido atingida, false caso contrário.
+     */
+    @Override
+    public boolean isHitAt(IPosition pos) {
+        assert pos != null;
+
+        int i = indexOf(pos.getRow(), pos.getColumn());
+        return i >= 0 && (hitMask & (1 << i)) != 0;
+    }
+
     /**
      * Retorna uma representação textual do navio, útil para depuração (debug).
      *
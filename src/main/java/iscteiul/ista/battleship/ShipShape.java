@@ -0,0 +1,254 @@
+package iscteiul.ista.battleship;
+
+/**
+ * Tabela estática das formas (footprints) de cada tipo de navio para cada orientação.
+ * <p>
+ * Cada forma é descrita pelos deslocamentos relativos (linha, coluna) das células ocupadas
+ * em relação à posição base do navio, pela mesma ordem em que os navios sempre as
+ * preencheram, e pela respetiva máscara de bits numa grelha local de
+ * {@value #GRID}x{@value #GRID} centrada na posição base. Colocar um navio passa a ser
+ * apenas transladar estes deslocamentos, sem lógica específica por orientação.
+ * </p>
+ */
+public enum ShipShape {
+
+    /** Galeão: forma em "T" com 5 células. */
+    GALEAO("galeao", "Galeao", 1,
+            new int[][]{{0, 0}, {0, 1}, {0, 2}, {1, 1}, {2, 1}},
+            new int[][]{{0, 0}, {1, 0}, {2, -1}, {2, 0}, {2, 1}},
+            new int[][]{{0, 0}, {1, -2}, {1, -1}, {1, 0}, {2, 0}},
+            new int[][]{{0, 0}, {1, 0}, {1, 1}, {1, 2}, {2, 0}},
+            null),
+
+    /** Fragata: 4 células em linha reta. */
+    FRAGATA("fragata", "Fragata", 1,
+            vertical(4), vertical(4), horizontal(4), horizontal(4), null),
+
+    /** Nau: 3 células em linha reta. */
+    NAU("nau", "Nau", 2,
+            vertical(3), vertical(3), horizontal(3), horizontal(3), null),
+
+    /** Caravela: 2 células em linha reta. */
+    CARAVELA("caravela", "Caravela", 3,
+            vertical(2), vertical(2), horizontal(2), horizontal(2), null),
+
+    /** Barca: uma única célula, qualquer que seja a orientação. */
+    BARCA("barca", "Barca", 4,
+            vertical(1), vertical(1), vertical(1), vertical(1), vertical(1));
+
+    /**
+     * Dimensão da grelha local usada pelas máscaras das formas: a forma mais longa (a fragata,
+     * com deslocamentos até 3) tem de caber em qualquer sentido a partir do centro.
+     */
+    public static final int GRID = 7;
+
+    /** Deslocamento da posição base dentro da grelha local. */
+    private static final int ORIGIN = GRID / 2;
+
+    private final String kind;
+    private final String category;
+
+    /** Número de navios deste tipo numa frota regulamentar. */
+    private final int fleetCount;
+
+    /** Deslocamentos de linha e coluna, indexados por {@link Compass#ordinal()}; null se a orientação for inválida. */
+    private final int[][] rowOffsets;
+    private final int[][] columnOffsets;
+
+    /** Máscaras locais das formas, indexadas por {@link Compass#ordinal()}. */
+    private final long[] masks;
+
+    /**
+     * Construtor do enumerador ShipShape.
+     *
+     * @param kind       O nome usado nos comandos (ex: "galeao").
+     * @param category   A categoria devolvida pelos navios (ex: "Galeao").
+     * @param fleetCount O número de navios deste tipo numa frota regulamentar.
+     * @param north      Deslocamentos {linha, coluna} para Norte.
+     * @param south      Deslocamentos {linha, coluna} para Sul.
+     * @param east       Deslocamentos {linha, coluna} para Este.
+     * @param west       Deslocamentos {linha, coluna} para Oeste.
+     * @param unknown    Deslocamentos para orientação desconhecida, ou null se não for permitida.
+     */
+    ShipShape(String kind, String category, int fleetCount, int[][] north, int[][] south, int[][] east, int[][] west,
+              int[][] unknown) {
+        this.kind = kind;
+        this.category = category;
+        this.fleetCount = fleetCount;
+
+        int[][][] byBearing = new int[Compass.values().length][][];
+        byBearing[Compass.NORTH.ordinal()] = north;
+        byBearing[Compass.SOUTH.ordinal()] = south;
+        byBearing[Compass.EAST.ordinal()] = east;
+        byBearing[Compass.WEST.ordinal()] = west;
+        byBearing[Compass.UNKNOWN.ordinal()] = unknown;
+
+        rowOffsets = new int[byBearing.length][];
+        columnOffsets = new int[byBearing.length][];
+        masks = new long[byBearing.length];
+        for (int b = 0; b < byBearing.length; b++) {
+            if (byBearing[b] == null)
+                continue;
+            rowOffsets[b] = new int[byBearing[b].length];
+            columnOffsets[b] = new int[byBearing[b].length];
+            for (int i = 0; i < byBearing[b].length; i++) {
+                rowOffsets[b][i] = byBearing[b][i][0];
+                columnOffsets[b][i] = byBearing[b][i][1];
+                if (Math.abs(byBearing[b][i][0]) > ORIGIN || Math.abs(byBearing[b][i][1]) > ORIGIN)
+                    throw new IllegalStateException("ERROR! shape " + kind + " does not fit the local grid");
+                masks[b] |= 1L << ((byBearing[b][i][0] + ORIGIN) * GRID + byBearing[b][i][1] + ORIGIN);
+            }
+        }
+    }
+
+    /**
+     * Gera os deslocamentos de um navio vertical com o tamanho indicado.
+     *
+     * @param size O número de células.
+     * @return Os deslocamentos {linha, coluna}.
+     */
+    private static int[][] vertical(int size) {
+        int[][] offsets = new int[size][];
+        for (int r = 0; r < size; r++)
+            offsets[r] = new int[]{r, 0};
+        return offsets;
+    }
+
+    /**
+     * Gera os deslocamentos de um navio horizontal com o tamanho indicado.
+     *
+     * @param size O número de células.
+     * @return Os deslocamentos {linha, coluna}.
+     */
+    private static int[][] horizontal(int size) {
+        int[][] offsets = new int[size][];
+        for (int c = 0; c < size; c++)
+            offsets[c] = new int[]{0, c};
+        return offsets;
+    }
+
+    /**
+     * Obtém a forma correspondente ao nome usado nos comandos.
+     *
+     * @param kind O nome do tipo de navio (ex: "galeao", "barca").
+     * @return A forma correspondente, ou null se o tipo for desconhecido.
+     */
+    public static ShipShape fromKind(String kind) {
+        for (ShipShape shape : values())
+            if (shape.kind.equals(kind))
+                return shape;
+        return null;
+    }
+
+    /**
+     * Obtém a forma correspondente à categoria de um navio.
+     *
+     * @param category A categoria do navio (ex: "Galeao", "Barca").
+     * @return A forma correspondente, ou null se a categoria for desconhecida.
+     */
+    public static ShipShape fromCategory(String category) {
+        for (ShipShape shape : values())
+            if (shape.category.equals(category))
+                return shape;
+        return null;
+    }
+
+    /**
+     * Obtém o tipo de navio de cada posição de uma frota regulamentar, do maior para o menor
+     * (os {@link #getFleetCount()} navios de cada forma, pela ordem das formas).
+     *
+     * @return Um novo array com a composição da frota.
+     */
+    static ShipShape[] fleetSlots() {
+        int total = 0;
+        for (ShipShape shape : values())
+            total += shape.fleetCount;
+        ShipShape[] slots = new ShipShape[total];
+        int n = 0;
+        for (ShipShape shape : values())
+            for (int i = 0; i < shape.fleetCount; i++)
+                slots[n++] = shape;
+        return slots;
+    }
+
+    /**
+     * Obtém o nome usado nos comandos para este tipo de navio.
+     *
+     * @return O nome do tipo de navio (ex: "galeao").
+     */
+    public String getKind() {
+        return kind;
+    }
+
+    /**
+     * Obtém a categoria dos navios com esta forma.
+     *
+     * @return A categoria (ex: "Galeao").
+     */
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * Obtém o número de navios deste tipo numa frota regulamentar
+     * (1 galeão, 1 fragata, 2 naus, 3 caravelas e 4 barcas).
+     *
+     * @return O número de navios deste tipo por frota.
+     */
+    public int getFleetCount() {
+        return fleetCount;
+    }
+
+    /**
+     * Obtém o número de células ocupadas pela forma.
+     *
+     * @return O tamanho do navio.
+     */
+    public int getSize() {
+        return rowOffsets[Compass.NORTH.ordinal()].length;
+    }
+
+    /**
+     * Indica se a orientação indicada é válida para esta forma.
+     *
+     * @param bearing A orientação a verificar.
+     * @return true se existir uma forma para essa orientação.
+     */
+    public boolean supports(Compass bearing) {
+        return rowOffsets[bearing.ordinal()] != null;
+    }
+
+    /**
+     * Obtém o deslocamento de linha da célula {@code i} para a orientação indicada.
+     *
+     * @param bearing A orientação do navio.
+     * @param i       O índice da célula (0 a {@code getSize() - 1}).
+     * @return O deslocamento de linha em relação à posição base.
+     */
+    public int rowOffset(Compass bearing, int i) {
+        return rowOffsets[bearing.ordinal()][i];
+    }
+
+    /**
+     * Obtém o deslocamento de coluna da célula {@code i} para a orientação indicada.
+     *
+     * @param bearing A orientação do navio.
+     * @param i       O índice da célula (0 a {@code getSize() - 1}).
+     * @return O deslocamento de coluna em relação à posição base.
+     */
+    public int columnOffset(Compass bearing, int i) {
+        return columnOffsets[bearing.ordinal()][i];
+    }
+
+    /**
+     * Obtém a máscara da forma na grelha local {@value #GRID}x{@value #GRID}, em que a posição
+     * base ocupa o centro da grelha e o bit {@code (dr + 3) * GRID + (dc + 3)} representa o
+     * deslocamento {@code (dr, dc)}.
+     *
+     * @param bearing A orientação do navio.
+     * @return A máscara local, ou 0 se a orientação não for válida.
+     */
+    public long mask(Compass bearing) {
+        return masks[bearing.ordinal()];
+    }
+}
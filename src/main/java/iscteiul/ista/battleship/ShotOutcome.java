@@ -0,0 +1,71 @@
+package iscteiul.ista.battleship;
+
+/**
+ * Representa o resultado de um disparo efetuado num jogo.
+ * <p>
+ * Cada resultado tem um código numérico compacto ({@code byte}), estável entre versões,
+ * adequado para registos binários e para APIs sobre arrays primitivos.
+ * </p>
+ */
+public enum ShotOutcome {
+
+    /** Disparo fora do tabuleiro. */
+    INVALID((byte) 0),
+
+    /** Disparo numa posição já alvejada anteriormente. */
+    REPEATED((byte) 1),
+
+    /** Disparo válido que caiu na água. */
+    MISS((byte) 2),
+
+    /** Disparo que atingiu um navio sem o afundar. */
+    HIT((byte) 3),
+
+    /** Disparo que atingiu e afundou um navio. */
+    SUNK((byte) 4);
+
+    private static final ShotOutcome[] BY_CODE = values();
+
+    /** O código compacto deste resultado. */
+    private final byte code;
+
+    /**
+     * Construtor do enumerador ShotOutcome.
+     *
+     * @param code O código compacto do resultado.
+     */
+    ShotOutcome(byte code) {
+        this.code = code;
+    }
+
+    /**
+     * Obtém o código compacto deste resultado.
+     *
+     * @return O código do resultado.
+     */
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * Indica se o disparo atingiu um navio (com ou sem o afundar).
+     *
+     * @return true para {@link #HIT} e {@link #SUNK}.
+     */
+    public boolean isHit() {
+        return this == HIT || this == SUNK;
+    }
+
+    /**
+     * Converte um código compacto no resultado correspondente.
+     *
+     * @param code O código do resultado.
+     * @return O resultado correspondente.
+     * @throws IllegalArgumentException Se o código não corresponder a nenhum resultado.
+     */
+    public static ShotOutcome fromCode(byte code) {
+        if (code < 0 || code >= BY_CODE.length)
+            throw new IllegalArgumentException("ERROR! invalid shot outcome code: " + code);
+        return BY_CODE[code];
+    }
+}
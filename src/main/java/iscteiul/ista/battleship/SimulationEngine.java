@@ -0,0 +1,141 @@
+package iscteiul.ista.battleship;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongFunction;
+
+/**
+ * Motor de simulação que joga lotes de partidas completas sem interação com a consola.
+ * <p>
+ * Para cada jogo {@code i} obtém uma frota e uma estratégia de disparo a partir das fontes
+ * indicadas (que devem depender apenas de {@code i} para que os lotes sejam reprodutíveis),
+ * dispara até afundar toda a frota e acumula as estatísticas num {@link SimulationReport}.
+ * Os jogos são repartidos por um {@link ForkJoinPool}, dividindo o intervalo de índices ao meio
+ * até atingir blocos de {@value #GAMES_PER_TASK} jogos.
+ * </p>
+ */
+public class SimulationEngine {
+
+    /** Número de jogos abaixo do qual uma tarefa deixa de se dividir. */
+    private static final int GAMES_PER_TASK = 256;
+
+    private final LongFunction<? extends IFleet> fleets;
+    private final LongFunction<? extends IShotStrategy> strategies;
+    private final ForkJoinPool pool;
+
+    /** Número máximo de disparos por jogo, para que estratégias que repetem tiros terminem. */
+    private final int maxShots;
+
+    /**
+     * Construtor da classe SimulationEngine que usa o pool comum do Fork/Join.
+     *
+     * @param fleets     A fonte de frotas, indexada pelo número do jogo.
+     * @param strategies A fonte de estratégias de disparo, indexada pelo número do jogo.
+     */
+    public SimulationEngine(LongFunction<? extends IFleet> fleets, LongFunction<? extends IShotStrategy> strategies) {
+        this(fleets, strategies, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Construtor da classe SimulationEngine.
+     *
+     * @param fleets     A fonte de frotas, indexada pelo número do jogo.
+     * @param strategies A fonte de estratégias de disparo, indexada pelo número do jogo.
+     * @param pool       O pool onde os jogos são executados.
+     */
+    public SimulationEngine(LongFunction<? extends IFleet> fleets, LongFunction<? extends IShotStrategy> strategies,
+                            ForkJoinPool pool) {
+        this(fleets, strategies, pool, IFleet.BOARD_SIZE);
+    }
+
+    /**
+     * Construtor da classe SimulationEngine para frotas num tabuleiro com o tamanho indicado.
+     *
+     * @param fleets     A fonte de frotas, indexada pelo número do jogo.
+     * @param strategies A fonte de estratégias de disparo, indexada pelo número do jogo.
+     * @param pool       O pool onde os jogos são executados.
+     * @param boardSize  O tamanho (lado) do tabuleiro das frotas.
+     */
+    public SimulationEngine(LongFunction<? extends IFleet> fleets, LongFunction<? extends IShotStrategy> strategies,
+                            ForkJoinPool pool, int boardSize) {
+        this.fleets = fleets;
+        this.strategies = strategies;
+        this.pool = pool;
+        this.maxShots = (int) Math.min(Integer.MAX_VALUE, 4L * boardSize * boardSize);
+    }
+
+    /**
+     * Joga os jogos de índice {@code 0} a {@code games - 1} e devolve as estatísticas agregadas.
+     *
+     * @param games O número de jogos a simular.
+     * @return O relatório do lote.
+     */
+    public SimulationReport run(long games) {
+        long start = System.nanoTime();
+        SimulationReport report = pool.invoke(new Batch(0, games));
+        report.setElapsedNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    /**
+     * Joga um único jogo até afundar toda a frota ou atingir o número máximo de disparos.
+     *
+     * @param fleet    A frota a atacar.
+     * @param strategy A estratégia de disparo.
+     * @param report   O relatório onde acumular o resultado.
+     */
+    void play(IFleet fleet, IShotStrategy strategy, SimulationReport report) {
+        IGame game = new Game(fleet);
+        int fired = 0;
+        while (game.getRemainingShips() > 0 && fired < maxShots) {
+            IPosition shot = strategy.nextShot();
+            IShip sunk = game.fire(shot);
+            fired++;
+            strategy.shotResult(shot, game.getLastOutcome(), sunk);
+        }
+        report.add(game, fired, game.getRemainingShips() == 0);
+    }
+
+    /**
+     * Tarefa Fork/Join que simula um intervalo de índices de jogos.
+     */
+    private final class Batch extends RecursiveTask<SimulationReport> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+
+        /**
+         * Cria a tarefa para os jogos de índice {@code from} (inclusive) a {@code to} (exclusive).
+         *
+         * @param from O primeiro índice.
+         * @param to   O índice seguinte ao último.
+         */
+        Batch(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Simula os jogos do intervalo, dividindo-o em duas tarefas se for demasiado grande.
+         *
+         * @return O relatório parcial do intervalo.
+         */
+        @Override
+        protected SimulationReport compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                SimulationReport report = new SimulationReport(maxShots);
+                for (long i = from; i < to; i++)
+                    play(fleets.apply(i), strategies.apply(i), report);
+                return report;
+            }
+
+            long mid = (from + to) >>> 1;
+            Batch left = new Batch(from, mid);
+            left.fork();
+            SimulationReport right = new Batch(mid, to).compute();
+            return right.merge(left.join());
+        }
+    }
+}
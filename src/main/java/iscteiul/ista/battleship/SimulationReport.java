@@ -0,0 +1,265 @@
+package iscteiul.ista.battleship;
+
+/**
+ * Estatísticas agregadas de um lote de jogos simulados por {@link SimulationEngine}.
+ * <p>
+ * Guarda os totais de disparos, acertos e afundamentos e a distribuição do número de
+ * disparos necessários para afundar toda a frota. Os relatórios parciais de cada tarefa
+ * paralela são combinados com {@link #merge(SimulationReport)}.
+ * </p>
+ * <p>
+ * O histograma é exato até {@value #EXACT_SHOTS} disparos; acima disso usa classes de largura
+ * logarítmica, com um erro relativo inferior a 0,2%, para que os jogos longos dos tabuleiros
+ * grandes não se acumulem numa única classe. A média é sempre calculada a partir da soma exata.
+ * </p>
+ */
+public class SimulationReport {
+
+    private static final int SUB_BUCKET_BITS = 10;
+
+    /** Número de disparos até ao qual cada valor tem uma classe própria no histograma. */
+    static final int EXACT_SHOTS = 1 << SUB_BUCKET_BITS;
+
+    private long games;
+    private long completedGames;
+    private long shots;
+    private long hits;
+    private long sinks;
+    private long invalidShots;
+    private long repeatedShots;
+    private long elapsedNanos;
+
+    /** Soma exata dos disparos dos jogos terminados. */
+    private long totalShotsToWin;
+    private int maxShotsToWin;
+
+    /** Histograma: {@code shotsToWin[bucketOf(n)]} conta os jogos ganhos com {@code n} disparos. */
+    private final long[] shotsToWin;
+
+    /**
+     * Construtor da classe SimulationReport.
+     *
+     * @param maxShots O número máximo de disparos por jogo.
+     */
+    public SimulationReport(int maxShots) {
+        shotsToWin = new long[bucketOf(Math.max(0, maxShots)) + 1];
+    }
+
+    /**
+     * Obtém a classe do histograma de um número de disparos. Abaixo de {@value #EXACT_SHOTS} a
+     * classe é o próprio valor; acima, cada potência de 2 é dividida em {@code EXACT_SHOTS / 2} classes.
+     *
+     * @param shots O número de disparos (não negativo).
+     * @return O índice da classe.
+     */
+    static int bucketOf(int shots) {
+        if (shots < EXACT_SHOTS)
+            return shots;
+        int shift = Integer.SIZE - Integer.numberOfLeadingZeros(shots) - SUB_BUCKET_BITS;
+        return (shift << (SUB_BUCKET_BITS - 1)) + (shots >>> shift);
+    }
+
+    /**
+     * Obtém o maior número de disparos de uma classe do histograma.
+     *
+     * @param bucket O índice da classe.
+     * @return O maior valor que pertence à classe.
+     */
+    static int highestIn(int bucket) {
+        if (bucket < EXACT_SHOTS)
+            return bucket;
+        int shift = (bucket >>> (SUB_BUCKET_BITS - 1)) - 1;
+        long next = (long) (bucket - (shift << (SUB_BUCKET_BITS - 1)) + 1) << shift;
+        return (int) Math.min(Integer.MAX_VALUE, next - 1);
+    }
+
+    /**
+     * Acrescenta ao relatório o resultado de um jogo terminado (ou interrompido).
+     *
+     * @param game     O jogo simulado.
+     * @param fired    O número de disparos efetuados.
+     * @param complete true se toda a frota foi afundada.
+     */
+    void add(IGame game, int fired, boolean complete) {
+        games++;
+        shots += fired;
+        hits += game.getHits();
+        sinks += game.getSunkShips();
+        invalidShots += game.getInvalidShots();
+        repeatedShots += game.getRepeatedShots();
+        if (complete) {
+            completedGames++;
+            totalShotsToWin += fired;
+            maxShotsToWin = Math.max(maxShotsToWin, fired);
+            shotsToWin[Math.min(bucketOf(fired), shotsToWin.length - 1)]++;
+        }
+    }
+
+    /**
+     * Acrescenta a este relatório os valores de outro relatório parcial.
+     *
+     * @param other O relatório a combinar.
+     * @return Este relatório.
+     */
+    SimulationReport merge(SimulationReport other) {
+        games += other.games;
+        completedGames += other.completedGames;
+        shots += other.shots;
+        hits += other.hits;
+        sinks += other.sinks;
+        invalidShots += other.invalidShots;
+        repeatedShots += other.repeatedShots;
+        totalShotsToWin += other.totalShotsToWin;
+        maxShotsToWin = Math.max(maxShotsToWin, other.maxShotsToWin);
+        for (int i = 0; i < shotsToWin.length; i++)
+            shotsToWin[i] += other.shotsToWin[i];
+        return this;
+    }
+
+    /**
+     * Regista o tempo total de execução do lote.
+     *
+     * @param elapsedNanos O tempo decorrido em nanossegundos.
+     */
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Obtém o número de jogos simulados.
+     *
+     * @return O número de jogos.
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Obtém o número de jogos em que toda a frota foi afundada.
+     *
+     * @return O número de jogos terminados.
+     */
+    public long getCompletedGames() {
+        return completedGames;
+    }
+
+    /**
+     * Obtém o número total de disparos efetuados.
+     *
+     * @return O número de disparos.
+     */
+    public long getShots() {
+        return shots;
+    }
+
+    /**
+     * Obtém o número total de disparos certeiros.
+     *
+     * @return O número de acertos.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Obtém o número total de navios afundados.
+     *
+     * @return O número de afundamentos.
+     */
+    public long getSinks() {
+        return sinks;
+    }
+
+    /**
+     * Obtém o número total de disparos inválidos.
+     *
+     * @return O número de disparos inválidos.
+     */
+    public long getInvalidShots() {
+        return invalidShots;
+    }
+
+    /**
+     * Obtém o número total de disparos repetidos.
+     *
+     * @return O número de disparos repetidos.
+     */
+    public long getRepeatedShots() {
+        return repeatedShots;
+    }
+
+    /**
+     * Obtém o número de jogos ganhos com exatamente o número de disparos indicado.
+     * Acima de {@value #EXACT_SHOTS} disparos devolve o número de jogos da classe do histograma
+     * que contém esse valor.
+     *
+     * @param shots O número de disparos.
+     * @return O número de jogos.
+     */
+    public long getGamesWonIn(int shots) {
+        if (shots < 0)
+            return 0;
+        int bucket = bucketOf(shots);
+        return bucket < shotsToWin.length ? shotsToWin[bucket] : 0;
+    }
+
+    /**
+     * Obtém a média de disparos necessários para afundar toda a frota.
+     *
+     * @return A média de disparos por jogo terminado, ou 0 se nenhum jogo terminou.
+     */
+    public double getMeanShotsToWin() {
+        return completedGames == 0 ? 0 : (double) totalShotsToWin / completedGames;
+    }
+
+    /**
+     * Obtém o maior número de disparos com que um jogo foi ganho.
+     *
+     * @return O máximo de disparos dos jogos terminados, ou 0 se nenhum jogo terminou.
+     */
+    public int getMaxShotsToWin() {
+        return maxShotsToWin;
+    }
+
+    /**
+     * Obtém o percentil indicado do número de disparos necessários para afundar toda a frota.
+     * O valor é exato até {@value #EXACT_SHOTS} disparos; acima disso é o limite superior da
+     * classe do histograma, nunca maior do que {@link #getMaxShotsToWin()}.
+     *
+     * @param percentile O percentil pretendido (entre 0 e 100).
+     * @return O menor número de disparos que cobre essa fração dos jogos terminados.
+     */
+    public int getShotsToWinPercentile(double percentile) {
+        long target = (long) Math.ceil(completedGames * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < shotsToWin.length; i++) {
+            seen += shotsToWin[i];
+            if (seen >= Math.max(1, target))
+                return Math.min(highestIn(i), maxShotsToWin);
+        }
+        return maxShotsToWin;
+    }
+
+    /**
+     * Obtém o débito do lote, em jogos por segundo.
+     *
+     * @return O número de jogos simulados por segundo.
+     */
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Retorna um resumo textual do relatório.
+     *
+     * @return Uma string com os principais indicadores do lote.
+     */
+    @Override
+    public String toString() {
+        return String.format("Jogos: %d (terminados %d) Tiros: %d Acertos: %d Afundados: %d Inv: %d Rep: %d "
+                        + "Media: %.2f p50: %d p90: %d p99: %d Jogos/s: %.0f",
+                games, completedGames, shots, hits, sinks, invalidShots, repeatedShots, getMeanShotsToWin(),
+                getShotsToWinPercentile(50), getShotsToWinPercentile(90), getShotsToWinPercentile(99),
+                getGamesPerSecond());
+    }
+}
@@ -1,7 +1,17 @@
 package iscteiul.ista.battleship;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
+import com.googlecode.lanterna.screen.Screen;
+import com.googlecode.lanterna.terminal.DefaultTerminalFactory;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -150,6 +160,72 @@ public class Tasks {
         LOGGER.info(GOODBYE_MESSAGE);
     }
 
+    /**
+     * Tarefa D em lote: reproduz uma sessão gravada com os comandos da tarefa D, sem interação.
+     * Os comandos são lidos de um ficheiro (ou da entrada padrão) por um {@link BatchCommandProcessor}
+     * e os resultados são escritos em bloco na saída padrão.
+     *
+     * @param file O caminho do ficheiro de comandos, ou null para ler da entrada padrão.
+     */
+    public static void taskBatch(String file) {
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8),
+                BatchCommandProcessor.FLUSH_THRESHOLD);
+        BatchCommandProcessor processor = new BatchCommandProcessor(out);
+        try (InputStream in = file == null ? System.in : Files.newInputStream(Paths.get(file))) {
+            processor.process(in);
+        } catch (IOException e) {
+            LOGGER.error("Erro ao processar os comandos: {}", e.getMessage());
+        }
+        LOGGER.info("{} comandos processados.", processor.getCommands());
+    }
+
+    /**
+     * Tarefa D no terminal: joga com frotas geradas aleatoriamente numa interface Lanterna,
+     * que só redesenha as células alteradas por cada rajada.
+     *
+     * @param boardSize O tamanho (lado) do tabuleiro.
+     */
+    public static void taskTerminal(int boardSize) {
+        FleetGenerator generator = new FleetGenerator(System.nanoTime(), boardSize);
+        try (Screen screen = new DefaultTerminalFactory().createScreen()) {
+            new TerminalGameUI(screen, generator::generate).run();
+        } catch (IOException e) {
+            LOGGER.error("Erro no terminal: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Tarefa D em rede: aceita jogadores por TCP, cada um com a sua sessão da tarefa D,
+     * até o servidor ser terminado.
+     *
+     * @param port O porto onde aceitar ligações.
+     */
+    public static void taskServer(int port) {
+        try (GameServer server = new GameServer(port, IFleet.BOARD_SIZE)) {
+            server.start();
+            LOGGER.info("Servidor à escuta no porto {}", server.getPort());
+            server.awaitClose();
+        } catch (IOException e) {
+            LOGGER.error("Erro no servidor: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Teste de carga: simula jogadores simultâneos contra um servidor da tarefa D e regista
+     * o débito e os percentis da latência dos pedidos.
+     *
+     * @param host    O nome ou endereço do servidor.
+     * @param port    O porto do servidor.
+     * @param clients O número de jogadores simultâneos.
+     * @param volleys O número de rajadas de cada jogador.
+     */
+    public static void taskLoad(String host, int port, int clients, int volleys) {
+        LoadReport report = new LoadGenerator(host, port, clients, volleys, IFleet.BOARD_SIZE, 42).run();
+        LOGGER.info(report);
+    }
+
     /**
      * Permite a construção de uma frota com base nos dados introduzidos pelo utilizador.
      *
@@ -196,12 +272,12 @@ public class Tasks {
      * Lê uma posição (coordenada) do mapa introduzida pelo utilizador.
      *
      * @param in O Scanner utilizado para ler a linha e a coluna.
-     * @return A posição (objeto Position) correspondente.
+     * @return A coordenada partilhada (objeto Position) correspondente.
      */
     static Position readPosition(Scanner in) {
         int row = in.nextInt();
         int column = in.nextInt();
-        return new Position(row, column);
+        return Position.of(row, column);
     }
 
     /**
@@ -0,0 +1,390 @@
+package iscteiul.ista.battleship;
+
+import java.io.IOException;
+import java.util.function.LongFunction;
+
+import com.googlecode.lanterna.SGR;
+import com.googlecode.lanterna.TerminalPosition;
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.graphics.TextGraphics;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.screen.Screen;
+
+/**
+ * Interface de terminal (Lanterna) para jogar com os comandos da {@link Tasks#taskD() tarefa D}.
+ * <p>
+ * O tabuleiro é desenhado no buffer do {@link Screen} e enviado para o terminal com
+ * {@link Screen.RefreshType#DELTA}: o Lanterna compara o buffer com o que já está no ecrã e só
+ * escreve as células diferentes. Depois de cada rajada são alteradas apenas as células indicadas
+ * pelos resultados dos tiros (recebidos como {@link IShotObserver}), e as teclas que chegam
+ * juntas são processadas antes de um único refresh, pelo que a interface continua utilizável
+ * em ligações SSH lentas. Em tabuleiros maiores do que o terminal é mostrada uma janela do
+ * tabuleiro, deslocada com as setas e com Page Up/Page Down.
+ * </p>
+ * <p>
+ * Comandos: {@code nova} (frota gerada), {@code rajada l c l c l c}, {@code mapa} (mostra os navios),
+ * {@code ver} (mostra apenas os tiros), {@code estado} e {@code desisto}.
+ * </p>
+ */
+public class TerminalGameUI implements IShotObserver {
+
+    private static final int NUMBER_SHOTS = 3;
+
+    /** Colunas do terminal por célula do tabuleiro (a célula e um espaço). */
+    private static final int CELL_WIDTH = 2;
+
+    /** Linhas acima do tabuleiro: estado e números das colunas. */
+    private static final int HEADER_ROWS = 2;
+
+    /** Linhas abaixo do tabuleiro: mensagem e linha de comando. */
+    private static final int FOOTER_ROWS = 2;
+
+    private static final String PROMPT = "> ";
+
+    private static final TextCharacter WATER = glyph(BoardRenderer.EMPTY, TextColor.ANSI.BLUE);
+    private static final TextCharacter SHIP = glyph(BoardRenderer.SHIP, TextColor.ANSI.YELLOW);
+    private static final TextCharacter MISS = glyph('o', TextColor.ANSI.CYAN);
+    private static final TextCharacter HIT = glyph(BoardRenderer.SHOT, TextColor.ANSI.RED);
+    private static final TextCharacter SUNK = glyph(BoardRenderer.SHOT, TextColor.ANSI.RED, SGR.REVERSE);
+
+    private final Screen screen;
+    private final LongFunction<? extends IFleet> fleets;
+    private long nextFleet;
+
+    private IFleet fleet;
+    private Game game;
+    private int boardSize;
+    private ChunkedBitSet shots;
+    private boolean showFleet;
+
+    /** Primeira linha e coluna do tabuleiro visíveis. */
+    private int top;
+    private int left;
+    private int viewRows;
+    private int viewColumns;
+    private int margin;
+    private TerminalSize size;
+    private boolean redrawBoard;
+
+    private final StringBuilder input = new StringBuilder();
+    private String message = "";
+
+    /**
+     * Construtor da classe TerminalGameUI.
+     *
+     * @param screen O ecrã Lanterna (ainda por iniciar).
+     * @param fleets A fonte das frotas criadas pelo comando {@code nova}, indexadas a partir de 0.
+     */
+    public TerminalGameUI(Screen screen, LongFunction<? extends IFleet> fleets) {
+        this.screen = screen;
+        this.fleets = fleets;
+    }
+
+    /**
+     * Corre o ciclo de jogo até ao comando {@code desisto} ou à tecla Escape, restaurando o terminal no fim.
+     *
+     * @throws IOException Se ocorrer um erro de comunicação com o terminal.
+     */
+    public void run() throws IOException {
+        screen.startScreen();
+        try {
+            newGame();
+            layout(screen.getTerminalSize());
+            while (true) {
+                TerminalSize resized = screen.doResizeIfNecessary();
+                if (resized != null)
+                    layout(resized);
+                if (redrawBoard)
+                    drawBoard();
+                drawText();
+                screen.refresh(Screen.RefreshType.DELTA);
+
+                KeyStroke key = screen.readInput();
+                boolean quit = false;
+                while (key != null && !(quit = handle(key)))
+                    key = screen.pollInput();
+                if (quit)
+                    break;
+            }
+        } finally {
+            screen.stopScreen();
+        }
+    }
+
+    /**
+     * Trata uma tecla.
+     *
+     * @param key A tecla.
+     * @return true se o jogo deve terminar.
+     */
+    private boolean handle(KeyStroke key) {
+        switch (key.getKeyType()) {
+            case Character:
+                input.append(key.getCharacter());
+                return false;
+            case Backspace:
+                if (input.length() > 0)
+                    input.setLength(input.length() - 1);
+                return false;
+            case Enter:
+                String line = input.toString().trim();
+                input.setLength(0);
+                return command(line);
+            case ArrowUp:
+                scroll(-1, 0);
+                return false;
+            case ArrowDown:
+                scroll(1, 0);
+                return false;
+            case ArrowLeft:
+                scroll(0, -1);
+                return false;
+            case ArrowRight:
+                scroll(0, 1);
+                return false;
+            case PageUp:
+                scroll(-viewRows, 0);
+                return false;
+            case PageDown:
+                scroll(viewRows, 0);
+                return false;
+            case Escape:
+            case EOF:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Executa uma linha de comando, como na tarefa D.
+     *
+     * @param line A linha introduzida.
+     * @return true se o comando for {@code desisto}.
+     */
+    private boolean command(String line) {
+        String[] words = line.split("\\s+");
+        switch (words[0]) {
+            case "desisto":
+                return true;
+            case "nova":
+                newGame();
+                message = fleet.getShips().size() + " navios adicionados com sucesso!";
+                break;
+            case "rajada":
+                firingRound(words);
+                break;
+            case "mapa":
+                showFleet = true;
+                redrawBoard = true;
+                break;
+            case "ver":
+                showFleet = false;
+                redrawBoard = true;
+                break;
+            case "estado":
+                message = "Restam " + fleet.getFloatingShips().size() + " de " + fleet.getShips().size() + " navios.";
+                break;
+            case "":
+                break;
+            default:
+                message = "Que comando é esse??? Repete ...";
+        }
+        return false;
+    }
+
+    /**
+     * Dispara uma rajada; as células alteradas são redesenhadas por {@link #onShot}.
+     *
+     * @param words As palavras do comando, seguidas de {@value #NUMBER_SHOTS} pares linha coluna.
+     */
+    private void firingRound(String[] words) {
+        if (words.length != 1 + 2 * NUMBER_SHOTS) {
+            message = "Uma rajada tem " + NUMBER_SHOTS + " tiros: rajada l c l c l c";
+            return;
+        }
+        int[] coordinates = new int[2 * NUMBER_SHOTS];
+        try {
+            for (int i = 0; i < coordinates.length; i++)
+                coordinates[i] = Integer.parseInt(words[i + 1]);
+        } catch (NumberFormatException e) {
+            message = "Coordenada inválida: " + e.getMessage();
+            return;
+        }
+        message = "";
+        for (int i = 0; i < coordinates.length; i += 2) {
+            IShip sunk = game.fire(Position.of(coordinates[i], coordinates[i + 1]));
+            if (sunk != null)
+                message = "Mas... mas... " + sunk.getCategory() + "s nao sao a prova de bala? :-(";
+        }
+        if (game.getRemainingShips() == 0)
+            message = "Maldito sejas, Java Sparrow, eu voltarei, glub glub glub...";
+    }
+
+    /**
+     * Atualiza apenas as células alteradas por um tiro: a célula alvejada ou, se o navio
+     * afundou, todas as células do navio.
+     *
+     * @param row     A linha do tiro.
+     * @param column  A coluna do tiro.
+     * @param outcome O resultado do tiro.
+     * @param ship    O navio atingido, se existir.
+     */
+    @Override
+    public void onShot(int row, int column, ShotOutcome outcome, IShip ship) {
+        switch (outcome) {
+            case MISS:
+            case HIT:
+                shots.add(row * boardSize + column);
+                drawCell(row, column);
+                break;
+            case SUNK:
+                shots.add(row * boardSize + column);
+                for (IPosition pos : ship.getPositions())
+                    drawCell(pos.getRow(), pos.getColumn());
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Cria um jogo novo com a próxima frota.
+     */
+    private void newGame() {
+        fleet = fleets.apply(nextFleet++);
+        game = new Game(fleet);
+        game.addObserver(this);
+        if (boardSize != fleet.getBoardSize()) {
+            boardSize = fleet.getBoardSize();
+            top = 0;
+            left = 0;
+            if (size != null)
+                layout(size);
+        }
+        shots = new ChunkedBitSet(boardSize * boardSize);
+        showFleet = false;
+        redrawBoard = true;
+    }
+
+    /**
+     * Calcula a janela visível do tabuleiro para o tamanho do terminal.
+     *
+     * @param terminal O tamanho do terminal.
+     */
+    private void layout(TerminalSize terminal) {
+        size = terminal;
+        margin = Integer.toString(boardSize - 1).length() + 1;
+        viewRows = Math.max(0, Math.min(boardSize, terminal.getRows() - HEADER_ROWS - FOOTER_ROWS));
+        viewColumns = Math.max(0, Math.min(boardSize, (terminal.getColumns() - margin) / CELL_WIDTH));
+        scroll(0, 0);
+        redrawBoard = true;
+    }
+
+    /**
+     * Desloca a janela visível, sem sair do tabuleiro.
+     *
+     * @param rows    O deslocamento vertical.
+     * @param columns O deslocamento horizontal.
+     */
+    private void scroll(int rows, int columns) {
+        int newTop = Math.max(0, Math.min(top + rows, boardSize - viewRows));
+        int newLeft = Math.max(0, Math.min(left + columns, boardSize - viewColumns));
+        if (newTop != top || newLeft != left) {
+            top = newTop;
+            left = newLeft;
+            redrawBoard = true;
+        }
+    }
+
+    /**
+     * Redesenha toda a janela visível no buffer do ecrã. Só as diferenças chegam ao terminal.
+     */
+    private void drawBoard() {
+        screen.clear();
+        TextGraphics text = screen.newTextGraphics();
+        StringBuilder header = new StringBuilder();
+        for (int c = left; c < left + viewColumns; c++)
+            header.append(c % 10).append(' ');
+        text.putString(margin, 1, header.toString());
+        for (int r = top; r < top + viewRows; r++) {
+            text.putString(0, HEADER_ROWS + r - top, Integer.toString(r));
+            for (int c = left; c < left + viewColumns; c++)
+                drawCell(r, c);
+        }
+        redrawBoard = false;
+    }
+
+    /**
+     * Escreve uma célula no buffer do ecrã, se estiver visível.
+     *
+     * @param row    A linha da célula.
+     * @param column A coluna da célula.
+     */
+    private void drawCell(int row, int column) {
+        if (row < top || row >= top + viewRows || column < left || column >= left + viewColumns)
+            return;
+        screen.setCharacter(margin + (column - left) * CELL_WIDTH, HEADER_ROWS + row - top, glyphAt(row, column));
+    }
+
+    /**
+     * Determina o desenho de uma célula a partir dos tiros e da frota.
+     *
+     * @param row    A linha da célula.
+     * @param column A coluna da célula.
+     * @return O caracter a desenhar.
+     */
+    private TextCharacter glyphAt(int row, int column) {
+        int cell = row * boardSize + column;
+        boolean shot = shots.get(cell);
+        if (!shot && !showFleet)
+            return WATER;
+        IShip ship = fleet.shipAt(cell);
+        if (!shot)
+            return ship == null ? WATER : SHIP;
+        if (ship == null)
+            return MISS;
+        return ship.stillFloating() ? HIT : SUNK;
+    }
+
+    /**
+     * Escreve a linha de estado, a mensagem e a linha de comando, e posiciona o cursor.
+     */
+    private void drawText() {
+        int columns = size.getColumns();
+        int rows = size.getRows();
+        TextGraphics text = screen.newTextGraphics();
+        text.putString(0, 0, pad("Hits: " + game.getHits() + " Inv: " + game.getInvalidShots() + " Rep: "
+                + game.getRepeatedShots() + " Restam " + game.getRemainingShips() + " navios.", columns));
+        text.putString(0, rows - 2, pad(message, columns));
+        text.putString(0, rows - 1, pad(PROMPT + input, columns));
+        screen.setCursorPosition(new TerminalPosition(Math.min(PROMPT.length() + input.length(), columns - 1), rows - 1));
+    }
+
+    /**
+     * Ajusta um texto à largura indicada, cortando-o ou completando-o com espaços.
+     *
+     * @param s     O texto.
+     * @param width A largura pretendida.
+     * @return O texto com exatamente {@code width} caracteres.
+     */
+    private static String pad(String s, int width) {
+        if (width <= 0)
+            return "";
+        return s.length() >= width ? s.substring(0, width) : s + " ".repeat(width - s.length());
+    }
+
+    /**
+     * Cria o desenho de uma célula.
+     *
+     * @param c         O caracter.
+     * @param color     A cor do caracter.
+     * @param modifiers Os atributos do caracter.
+     * @return O desenho, partilhado por todas as células iguais.
+     */
+    private static TextCharacter glyph(char c, TextColor color, SGR... modifiers) {
+        return TextCharacter.fromCharacter(c, color, TextColor.ANSI.DEFAULT, modifiers)[0];
+    }
+}
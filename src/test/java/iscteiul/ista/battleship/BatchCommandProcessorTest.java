@@ -0,0 +1,135 @@
+package iscteiul.ista.battleship;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes de {@link BatchCommandProcessor}. A sessão de referência ({@code sessao-d.txt}) foi gravada
+ * com {@link Tasks#taskD()}, e {@code sessao-d.esperado.txt} tem as mensagens que a tarefa D escreveu,
+ * sem o prefixo do log.
+ */
+class BatchCommandProcessorTest {
+
+    /** Os navios da frota da sessão de referência, com as coordenadas de cada um. */
+    private static final String FLEET = "galeao 4 1 o\nfragata 0 8 n\nnau 7 4 e\nnau 0 0 n\ncaravela 4 5 e\n"
+            + "caravela 0 5 e\ncaravela 0 3 n\nbarca 9 2 n\nbarca 8 9 n\nbarca 5 8 n\nbarca 2 5 n\n";
+
+    private final StringBuilder out = new StringBuilder();
+    private final BatchCommandProcessor processor = new BatchCommandProcessor(out);
+
+    /**
+     * Processa um texto de comandos.
+     *
+     * @param commands Os comandos.
+     * @return true se o processamento terminou com o comando {@code desisto}.
+     * @throws IOException Se ocorrer um erro de leitura.
+     */
+    private boolean process(String commands) throws IOException {
+        return processor.process(new ByteArrayInputStream(commands.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Lê um recurso de teste como texto.
+     *
+     * @param name O nome do recurso, relativo a este pacote.
+     * @return O conteúdo do recurso.
+     * @throws IOException Se ocorrer um erro de leitura.
+     */
+    private static String resource(String name) throws IOException {
+        try (InputStream in = BatchCommandProcessorTest.class.getResourceAsStream(name)) {
+            assertNotNull(in, name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void matchesTheRecordedTaskDTranscript() throws IOException {
+        try (InputStream in = BatchCommandProcessorTest.class.getResourceAsStream("sessao-d.txt")) {
+            assertNotNull(in);
+            assertTrue(processor.process(in));
+        }
+        assertEquals(resource("sessao-d.esperado.txt"), out.toString());
+        // o comando "estado" depois de "desisto" não é processado
+        assertEquals(27, processor.getCommands());
+    }
+
+    @Test
+    void endOfInputInsideNova() throws IOException {
+        assertFalse(process("nova\nbarca 0 0 n\ncaravela 2"));
+        assertEquals("ERROR! unexpected end of input\n", out.toString());
+        assertNull(processor.getGame());
+    }
+
+    @Test
+    void invalidNumberInsideNovaSkipsOnlyThatShip() throws IOException {
+        assertTrue(process("nova\nbarca x 0 n\nnau 0 2147483648 s\n" + FLEET + "estado\ndesisto\n"));
+        String text = out.toString();
+        assertTrue(text.startsWith("ERROR! invalid integer: x\nERROR! invalid integer: 2147483648\n"
+                + "11 navios adicionados com sucesso!\n"), text);
+        // as palavras restantes dos navios inválidos não são lidas como comandos
+        assertFalse(text.contains("Que comando"), text);
+        assertEquals(11, processor.getGame().getRemainingShips());
+        assertTrue(text.endsWith("Bons ventos!\n"));
+    }
+
+    @Test
+    void invalidNumberInsideRajadaSkipsTheVolley() throws IOException {
+        assertTrue(process("nova\n" + FLEET + "rajada 4 1 4 - 5 1\nrajada 4 1 5 1 5 2\ndesisto\n"));
+        String text = out.toString();
+        assertTrue(text.contains("ERROR! invalid integer: -\nHits: 3 Inv: 0 Rep: 0 Restam 11 navios.\n"), text);
+        assertFalse(text.contains("Que comando"), text);
+        assertEquals(3, processor.getGame().getShots().size());
+    }
+
+    @Test
+    void commandsBeforeTheFirstFleetAreIgnored() throws IOException {
+        assertFalse(process("estado mapa ver rajada 1 1 2 2 3 3"));
+        // sem jogo, os argumentos da rajada são lidos como comandos, como na tarefa D
+        assertEquals("Que comando é esse??? Repete ...\n".repeat(6), out.toString());
+        assertEquals(10, processor.getCommands());
+    }
+
+    @Test
+    void rejectedShipsAreWrittenDuringNova() throws IOException {
+        int[] largest = new int[1];
+        StringBuilder written = new StringBuilder();
+        Appendable chunks = new Appendable() {
+            @Override
+            public Appendable append(CharSequence text) {
+                largest[0] = Math.max(largest[0], text.length());
+                written.append(text);
+                return this;
+            }
+
+            @Override
+            public Appendable append(CharSequence text, int start, int end) {
+                return append(text.subSequence(start, end));
+            }
+
+            @Override
+            public Appendable append(char c) {
+                return append(String.valueOf(c));
+            }
+        };
+        BatchCommandProcessor server = new BatchCommandProcessor(chunks);
+        server.setCommandTerminator("\n");
+        int rejected = 20000;
+        String commands = "nova\n" + "barca 0 0 n\n".repeat(rejected + 1);
+        assertFalse(server.process(new ByteArrayInputStream(commands.getBytes(StandardCharsets.UTF_8))));
+
+        // o buffer nunca passa muito do limite, apesar de o comando nova não terminar
+        String rejection = "Falha na criacao de Barca " + Compass.NORTH + " " + Position.of(0, 0) + "\n";
+        assertTrue(largest[0] < BatchCommandProcessor.FLUSH_THRESHOLD + rejection.length(), "" + largest[0]);
+        assertEquals(rejection.repeat(rejected) + "ERROR! unexpected end of input\n", written.toString());
+    }
+}
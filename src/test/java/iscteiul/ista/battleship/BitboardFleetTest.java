@@ -0,0 +1,78 @@
+package iscteiul.ista.battleship;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes de {@link BitboardFleet}, comparando as consultas por célula com as da {@link Fleet}.
+ */
+class BitboardFleetTest {
+
+    /**
+     * Verifica que as duas frotas têm o mesmo navio em cada célula, dentro e à volta do tabuleiro.
+     *
+     * @param expected A frota de referência.
+     * @param fleet    A frota indexada pelo bitboard.
+     */
+    private static void assertSameCells(Fleet expected, BitboardFleet fleet) {
+        int size = fleet.getBoardSize();
+        int occupied = 0;
+        for (int row = -1; row <= size; row++)
+            for (int column = -1; column <= size; column++) {
+                IShip ship = expected.shipAt(Position.of(row, column));
+                assertSame(ship, fleet.shipAt(Position.of(row, column)), row + " " + column);
+                assertEquals(ship != null, fleet.isOccupied(row, column));
+                if (ship != null) {
+                    assertSame(ship, fleet.shipAt(row * size + column));
+                    occupied++;
+                }
+            }
+        assertEquals(occupied, fleet.occupiedCells());
+        assertNull(fleet.shipAt(-1));
+        assertNull(fleet.shipAt(size * size));
+    }
+
+    @Test
+    void shipAtMatchesFleetOnGeneratedFleets() {
+        for (int size : new int[]{IFleet.BOARD_SIZE, 13, 64}) {
+            FleetGenerator generator = new FleetGenerator(2024, size);
+            for (int i = 0; i < 200; i++) {
+                Fleet expected = new Fleet(size);
+                BitboardFleet fleet = new BitboardFleet(size);
+                for (IShip s : generator.generate(i).getShips()) {
+                    assertTrue(expected.addShip(s));
+                    assertTrue(fleet.addShip(s));
+                }
+                assertSameCells(expected, fleet);
+            }
+        }
+    }
+
+    @Test
+    void rejectedShipsLeaveNoCells() {
+        Fleet expected = new Fleet();
+        BitboardFleet fleet = new BitboardFleet();
+        IShip nau = Ship.buildShip("nau", Compass.EAST, Position.of(7, 4));
+        assertTrue(expected.addShip(nau));
+        assertTrue(fleet.addShip(nau));
+
+        // uma barca encostada à nau e outra fora do tabuleiro
+        assertFalse(fleet.addShip(Ship.buildShip("barca", Compass.NORTH, Position.of(6, 5))));
+        assertFalse(fleet.addShip(Ship.buildShip("galeao", Compass.NORTH, Position.of(9, 9))));
+        assertEquals(1, fleet.getShips().size());
+        assertEquals(3, fleet.occupiedCells());
+        assertSameCells(expected, fleet);
+    }
+
+    @Test
+    void rejectsBoardsLargerThanTheDenseTable() {
+        new BitboardFleet(64);
+        assertThrows(IllegalArgumentException.class, () -> new BitboardFleet(65));
+    }
+}
@@ -0,0 +1,93 @@
+package iscteiul.ista.battleship;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes de {@link CommandTokenizer}: separação das palavras, conversão de inteiros e fim do stream.
+ */
+class CommandTokenizerTest {
+
+    /**
+     * Cria um leitor sobre um texto, com um buffer pequeno para que as palavras atravessem blocos.
+     *
+     * @param text O texto a ler.
+     * @return O leitor de comandos.
+     */
+    private static CommandTokenizer tokens(String text) {
+        return new CommandTokenizer(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), 3);
+    }
+
+    @Test
+    void splitsWordsOnAnyWhitespace() throws IOException {
+        CommandTokenizer tokens = tokens("  nova\tbarca\r\n12  -3\n\nn");
+        assertTrue(tokens.next());
+        assertTrue(tokens.is("nova".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(tokens.is("nov".getBytes(StandardCharsets.UTF_8)));
+        assertTrue(tokens.next());
+        assertEquals('b', tokens.firstChar());
+        assertEquals(12, tokens.nextInt());
+        assertEquals(-3, tokens.nextInt());
+        tokens.require();
+        assertEquals('n', tokens.firstChar());
+        assertFalse(tokens.next());
+    }
+
+    @Test
+    void parsesTheWholeIntRange() throws IOException {
+        CommandTokenizer tokens = tokens("0 +7 -0 2147483647 -2147483648 0000000000042");
+        assertEquals(0, tokens.nextInt());
+        assertEquals(7, tokens.nextInt());
+        assertEquals(0, tokens.nextInt());
+        assertEquals(Integer.MAX_VALUE, tokens.nextInt());
+        assertEquals(Integer.MIN_VALUE, tokens.nextInt());
+        assertEquals(42, tokens.nextInt());
+    }
+
+    @Test
+    void rejectsOverflowAndMalformedIntegers() throws IOException {
+        String[] invalid = {"2147483648", "-2147483649", "99999999999", "-", "+", "1a", "a1", "--1", "1-", "12345678901"};
+        CommandTokenizer tokens = tokens(String.join(" ", invalid) + " 5");
+        for (String word : invalid) {
+            InputMismatchException e = assertThrows(InputMismatchException.class, tokens::nextInt, word);
+            assertEquals("ERROR! invalid integer: " + word, e.getMessage());
+        }
+        // a palavra inválida foi consumida, pelo que a leitura continua na seguinte
+        assertEquals(5, tokens.nextInt());
+    }
+
+    @Test
+    void truncatesLongWords() throws IOException {
+        String longWord = "nova" + "x".repeat(CommandTokenizer.MAX_TOKEN);
+        String longNumber = "1".repeat(CommandTokenizer.MAX_TOKEN + 1);
+        CommandTokenizer tokens = tokens(longWord + " " + longNumber + " desisto");
+        assertTrue(tokens.next());
+        assertFalse(tokens.is("nova".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(tokens.is(longWord.getBytes(StandardCharsets.UTF_8)));
+        assertThrows(InputMismatchException.class, tokens::nextInt);
+        // os bytes ignorados não passam para a palavra seguinte
+        assertTrue(tokens.next());
+        assertTrue(tokens.is("desisto".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void endOfInput() throws IOException {
+        CommandTokenizer tokens = tokens("7 ");
+        assertEquals(7, tokens.nextInt());
+        assertThrows(NoSuchElementException.class, tokens::nextInt);
+        assertThrows(NoSuchElementException.class, tokens::require);
+        assertFalse(tokens.next());
+        assertFalse(tokens("").next());
+        assertFalse(tokens(" \n\t ").next());
+    }
+}
@@ -0,0 +1,134 @@
+package iscteiul.ista.battleship;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes de {@link ConcurrentGame} com várias threads a disparar sobre todas as células da mesma
+ * frota: cada célula só pode ser reclamada uma vez e cada navio só pode ser afundado uma vez.
+ */
+class ConcurrentGameTest {
+
+    /** Número de threads atiradoras. */
+    private static final int THREADS = 8;
+
+    /** Número de partidas jogadas, para aumentar a probabilidade de corridas. */
+    private static final int ROUNDS = 50;
+
+    /**
+     * Observador que conta os resultados comunicados, de forma sincronizada.
+     */
+    private static final class OutcomeCounter implements IShotObserver {
+        private final Map<ShotOutcome, Integer> counts = new EnumMap<>(ShotOutcome.class);
+
+        /**
+         * Conta o resultado do disparo.
+         *
+         * @param row     A linha alvejada.
+         * @param column  A coluna alvejada.
+         * @param outcome O resultado do disparo.
+         * @param ship    O navio atingido, ou null.
+         */
+        @Override
+        public synchronized void onShot(int row, int column, ShotOutcome outcome, IShip ship) {
+            counts.merge(outcome, 1, Integer::sum);
+        }
+
+        /**
+         * Obtém o número de disparos com um dado resultado.
+         *
+         * @param outcome O resultado.
+         * @return O número de disparos comunicados com esse resultado.
+         */
+        synchronized int count(ShotOutcome outcome) {
+            return counts.getOrDefault(outcome, 0);
+        }
+    }
+
+    /**
+     * Baralha as células do tabuleiro, para que cada thread as percorra por outra ordem.
+     *
+     * @param cells  O número de células.
+     * @param random O gerador de números aleatórios.
+     * @return As células por uma ordem aleatória.
+     */
+    private static int[] shuffledCells(int cells, SplittableRandom random) {
+        int[] order = new int[cells];
+        for (int i = 0; i < cells; i++)
+            order[i] = i;
+        for (int i = cells - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+        return order;
+    }
+
+    @Test
+    void everyCellIsClaimedOnceAcrossThreads() throws InterruptedException {
+        FleetGenerator generator = new FleetGenerator(23);
+        SplittableRandom random = new SplittableRandom(23);
+        for (int round = 0; round < ROUNDS; round++) {
+            IFleet fleet = generator.generate(round);
+            int boardSize = fleet.getBoardSize();
+            int cells = boardSize * boardSize;
+            int shipCells = 0;
+            for (IShip s : fleet.getShips())
+                shipCells += s.getSize();
+
+            ConcurrentGame game = new ConcurrentGame(fleet);
+            OutcomeCounter counter = new OutcomeCounter();
+            game.addObserver(counter);
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int[] order = shuffledCells(cells, random.split());
+                Thread thread = new Thread(() -> {
+                    try {
+                        start.await();
+                        for (int cell : order)
+                            game.fireAt(cell / boardSize, cell % boardSize);
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            start.countDown();
+            for (Thread thread : threads)
+                thread.join();
+
+            assertNull(failure.get());
+            assertEquals(shipCells, game.getHits());
+            assertEquals((THREADS - 1) * cells, game.getRepeatedShots());
+            assertEquals(0, game.getInvalidShots());
+            assertEquals(fleet.getShips().size(), game.getSunkShips());
+            assertEquals(0, game.getRemainingShips());
+            assertEquals(0, fleet.countFloatingShips());
+
+            Set<IPosition> shots = new HashSet<>(game.getShots());
+            assertEquals(cells, game.getShots().size());
+            assertEquals(cells, shots.size());
+
+            assertEquals(fleet.getShips().size(), counter.count(ShotOutcome.SUNK));
+            assertEquals(shipCells - fleet.getShips().size(), counter.count(ShotOutcome.HIT));
+            assertEquals(cells - shipCells, counter.count(ShotOutcome.MISS));
+            assertEquals((THREADS - 1) * cells, counter.count(ShotOutcome.REPEATED));
+        }
+    }
+}
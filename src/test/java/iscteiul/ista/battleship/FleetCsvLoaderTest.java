@@ -0,0 +1,174 @@
+package iscteiul.ista.battleship;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes de {@link FleetCsvLoader} sobre um CSV pequeno com cabeçalho, linhas vazias e frotas
+ * inválidas por vários motivos, e da propagação das exceções do destino das frotas.
+ */
+class FleetCsvLoaderTest {
+
+    /** Os navios de uma frota regulamentar válida, no formato {@code kind,row,col,bearing}. */
+    private static final String[] FLEET = {"galeao,4,1,o", "fragata,0,8,n", "nau,7,4,e", "nau,0,0,n",
+            "caravela,4,5,e", "caravela,0,5,e", "caravela,0,3,n", "barca,9,2,n", "barca,8,9,n",
+            "barca,5,8,n", "barca,2,5,n"};
+
+    /**
+     * Destino que regista as frotas aceites e a linha e o motivo de cada frota rejeitada.
+     */
+    private static final class Recorder implements FleetCsvLoader.Listener {
+        private final Set<String> accepted = ConcurrentHashMap.newKeySet();
+        private final Map<String, Long> lines = new ConcurrentHashMap<>();
+        private final Map<String, String> reasons = new ConcurrentHashMap<>();
+
+        /**
+         * Regista uma frota aceite.
+         *
+         * @param fleetId O identificador da frota.
+         * @param fleet   A frota construída.
+         */
+        @Override
+        public void accepted(String fleetId, IFleet fleet) {
+            assertEquals(FLEET.length, fleet.getShips().size());
+            accepted.add(fleetId);
+        }
+
+        /**
+         * Regista uma frota rejeitada.
+         *
+         * @param fleetId O identificador da frota.
+         * @param line    O número da linha do navio que levou à rejeição.
+         * @param reason  O motivo da rejeição.
+         */
+        @Override
+        public void rejected(String fleetId, long line, String reason) {
+            lines.put(fleetId, line);
+            reasons.put(fleetId, reason);
+        }
+    }
+
+    /**
+     * Texto CSV construído linha a linha, que sabe o número da última linha escrita.
+     */
+    private static final class Csv {
+        private final StringBuilder text = new StringBuilder();
+        private int lines;
+
+        /**
+         * Acrescenta uma linha.
+         *
+         * @param line O conteúdo da linha.
+         * @return O número da linha (a partir de 1).
+         */
+        int line(String line) {
+            text.append(line).append('\n');
+            return ++lines;
+        }
+
+        /**
+         * Acrescenta os navios de uma frota, substituindo o navio de índice {@code replaced}.
+         *
+         * @param id          O identificador da frota.
+         * @param replaced    O índice do navio a substituir, ou -1.
+         * @param replacement A linha que substitui esse navio (sem o identificador), ou null para o omitir.
+         * @return O número da linha do navio substituído, ou o da primeira linha da frota.
+         */
+        long fleet(String id, int replaced, String replacement) {
+            long first = lines + 1;
+            long result = first;
+            for (int i = 0; i < FLEET.length; i++) {
+                if (i != replaced)
+                    line(id + "," + FLEET[i]);
+                else if (replacement != null)
+                    result = line(id + "," + replacement);
+            }
+            return result;
+        }
+    }
+
+    @Test
+    void reportsAcceptedAndRejectedFleetsWithTheirLines() throws IOException {
+        Csv csv = new Csv();
+        csv.line("fleet_id,kind,row,col,bearing");
+        csv.fleet("a", -1, null);
+        csv.line("");
+        long malformed = csv.fleet("b", 3, "nau,0,0");
+        long unknown = csv.fleet("c", 5, "submarino,0,5,e");
+        long composition = csv.fleet("d", 10, null);
+        long coordinate = csv.fleet("e", 2, "nau,x,4,e");
+        long collision = csv.fleet("f", 7, "barca,4,1,n");
+        // uma linha vazia a meio de uma frota não a divide nem desloca os números das linhas
+        csv.line("g," + FLEET[0]);
+        csv.line("");
+        for (int i = 1; i < FLEET.length; i++)
+            csv.line("g," + FLEET[i]);
+        long blankShifted = csv.line("h," + FLEET[0]);
+        csv.line("");
+        long afterBlank = csv.line("h,barca,4,1,n");
+        for (int i = 2; i < FLEET.length; i++)
+            csv.line("h," + FLEET[i]);
+
+        FleetCsvLoader loader = new FleetCsvLoader(IFleet.BOARD_SIZE, 2);
+        Recorder recorder = new Recorder();
+        loader.load(new StringReader(csv.text.toString()), recorder);
+
+        assertEquals(Set.of("a", "g"), recorder.accepted);
+        Map<String, Long> expected = new TreeMap<>();
+        expected.put("b", malformed);
+        expected.put("c", unknown);
+        expected.put("d", composition);
+        expected.put("e", coordinate);
+        expected.put("f", collision);
+        expected.put("h", afterBlank);
+        assertEquals(expected, new TreeMap<>(recorder.lines));
+        assertEquals(blankShifted + 2, afterBlank);
+
+        assertEquals(2, loader.getAccepted());
+        assertEquals(6, loader.getRejected());
+        assertEquals(8 * FLEET.length - 1, loader.getRows());
+        assertTrue(recorder.reasons.get("b").startsWith("ERROR! expected 5 columns"), recorder.reasons.get("b"));
+        assertTrue(recorder.reasons.get("c").startsWith("ERROR! unknown ship kind"), recorder.reasons.get("c"));
+        assertTrue(recorder.reasons.get("d").startsWith("ERROR! fleet must have 4 barca"), recorder.reasons.get("d"));
+        assertTrue(recorder.reasons.get("e").startsWith("ERROR! invalid coordinate"), recorder.reasons.get("e"));
+        assertTrue(recorder.reasons.get("f").startsWith("ERROR! ship breaks the fleet rules"), recorder.reasons.get("f"));
+        assertTrue(recorder.reasons.get("h").startsWith("ERROR! ship breaks the fleet rules"), recorder.reasons.get("h"));
+    }
+
+    @Test
+    void listenerFailuresAreRethrownByLoad() {
+        Csv csv = new Csv();
+        for (int i = 0; i < 200; i++)
+            csv.fleet(Integer.toString(i), -1, null);
+        IllegalStateException failure = new IllegalStateException("falha no destino");
+        FleetCsvLoader.Listener listener = new FleetCsvLoader.Listener() {
+            @Override
+            public void accepted(String fleetId, IFleet fleet) {
+                throw failure;
+            }
+
+            @Override
+            public void rejected(String fleetId, long line, String reason) {
+            }
+        };
+
+        // com um worker e uma fila de 4 frotas, a thread de leitura também valida frotas
+        for (int workers : new int[]{1, 4}) {
+            FleetCsvLoader loader = new FleetCsvLoader(IFleet.BOARD_SIZE, workers);
+            assertSame(failure, assertThrows(IllegalStateException.class,
+                    () -> loader.load(new StringReader(csv.text.toString()), listener)));
+            assertTrue(loader.getAccepted() < 200);
+        }
+    }
+}
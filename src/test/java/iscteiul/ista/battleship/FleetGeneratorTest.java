@@ -0,0 +1,53 @@
+package iscteiul.ista.battleship;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Testes de {@link FleetGenerator} nos tabuleiros mais pequenos: rejeição imediata dos tabuleiros
+ * onde a frota não cabe e geração rápida e reprodutível no limite.
+ */
+class FleetGeneratorTest {
+
+    @Test
+    @Timeout(1)
+    void rejectsBoardsTooSmallForTheFleet() {
+        for (int size = 1; size <= 7; size++) {
+            int boardSize = size;
+            assertThrows(IllegalArgumentException.class, () -> new FleetGenerator(1, boardSize));
+        }
+    }
+
+    @Test
+    @Timeout(30)
+    void generatesValidFleetsOnTheSmallestBoard() {
+        FleetGenerator generator = new FleetGenerator(1, 8);
+        int ships = generator.getSlots().length;
+        for (int i = 0; i < 200; i++) {
+            IFleet generated = generator.generate(i);
+            assertEquals(ships, generated.getShips().size());
+            Fleet fleet = new Fleet(8);
+            for (IShip s : generated.getShips())
+                assertTrue(fleet.addShip(s), s.toString());
+        }
+    }
+
+    @Test
+    void placementsAreReproducible() {
+        for (int size : new int[]{8, IFleet.BOARD_SIZE, 64}) {
+            FleetGenerator generator = new FleetGenerator(7, size);
+            for (int i = 0; i < 20; i++) {
+                int[] first = generator.generatePlacements(generator.randomFor(i), new int[generator.getSlots().length]);
+                // a mesma frota, gerada com um gerador novo do mesmo índice (com recomeços pelo meio)
+                int[] second = new FleetGenerator(7, size).generatePlacements(
+                        new FleetGenerator(7, size).randomFor(i), new int[generator.getSlots().length]);
+                assertArrayEquals(first, second);
+            }
+        }
+    }
+}
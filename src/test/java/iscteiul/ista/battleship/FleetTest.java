@@ -0,0 +1,105 @@
+package iscteiul.ista.battleship;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes das regras de colocação de {@link Fleet}: a máscara de células proibidas tem de aceitar
+ * exatamente os navios que a verificação direta com {@link IShip#tooCloseTo(IShip)} aceita.
+ */
+class FleetTest {
+
+    /** Orientações válidas dos navios. */
+    private static final Compass[] BEARINGS = {Compass.NORTH, Compass.SOUTH, Compass.EAST, Compass.WEST};
+
+    /**
+     * Decide se um navio pode ser colocado, percorrendo os navios já aceites.
+     *
+     * @param accepted  Os navios já colocados.
+     * @param s         O navio candidato.
+     * @param boardSize O tamanho do tabuleiro.
+     * @return true se o navio respeitar todas as regras de colocação.
+     */
+    private static boolean expectedToFit(List<IShip> accepted, IShip s, int boardSize) {
+        if (accepted.size() > IFleet.FLEET_SIZE)
+            return false;
+        for (IPosition p : s.getPositions())
+            if (p.getRow() < 0 || p.getRow() >= boardSize || p.getColumn() < 0 || p.getColumn() >= boardSize)
+                return false;
+        for (IShip other : accepted)
+            if (other.tooCloseTo(s))
+                return false;
+        return true;
+    }
+
+    @Test
+    void haloAgreesWithTooCloseTo() {
+        SplittableRandom random = new SplittableRandom(6);
+        ShipShape[] shapes = ShipShape.values();
+        for (int boardSize : new int[]{IFleet.BOARD_SIZE, 7, 16}) {
+            for (int round = 0; round < 300; round++) {
+                Fleet fleet = new Fleet(boardSize);
+                List<IShip> accepted = new ArrayList<>();
+                for (int i = 0; i < 60; i++) {
+                    ShipShape shape = shapes[random.nextInt(shapes.length)];
+                    Compass bearing = BEARINGS[random.nextInt(BEARINGS.length)];
+                    // origens um pouco fora do tabuleiro exercitam também os limites
+                    Position origin = Position.of(random.nextInt(boardSize + 4) - 2, random.nextInt(boardSize + 4) - 2);
+                    IShip s = Ship.buildShip(shape.getKind(), bearing, origin);
+                    boolean expected = expectedToFit(accepted, s, boardSize);
+                    assertEquals(expected, fleet.addShip(s), s.toString());
+                    if (expected)
+                        accepted.add(s);
+                }
+                assertEquals(accepted, fleet.getShips());
+            }
+        }
+    }
+
+    @Test
+    void diagonalNeighboursAreRejected() {
+        Fleet fleet = new Fleet();
+        assertTrue(fleet.addShip(Ship.buildShip("barca", Compass.NORTH, Position.of(5, 5))));
+        for (int row = 4; row <= 6; row++)
+            for (int column = 4; column <= 6; column++)
+                assertFalse(fleet.addShip(Ship.buildShip("barca", Compass.NORTH, Position.of(row, column))));
+        assertTrue(fleet.addShip(Ship.buildShip("barca", Compass.NORTH, Position.of(3, 3))));
+        assertTrue(fleet.addShip(Ship.buildShip("barca", Compass.NORTH, Position.of(7, 5))));
+        // o halo de um navio encostado à margem não passa para a outra ponta da linha
+        assertTrue(fleet.addShip(Ship.buildShip("barca", Compass.NORTH, Position.of(0, 9))));
+        assertTrue(fleet.addShip(Ship.buildShip("barca", Compass.NORTH, Position.of(1, 0))));
+        assertEquals(5, fleet.getShips().size());
+    }
+
+    @Test
+    void countFloatingShipsFollowsShipState() {
+        Fleet fleet = new Fleet();
+        IShip barca = Ship.buildShip("barca", Compass.NORTH, Position.of(0, 0));
+        IShip nau = Ship.buildShip("nau", Compass.EAST, Position.of(5, 5));
+        assertTrue(fleet.addShip(barca));
+        assertTrue(fleet.addShip(nau));
+        assertEquals(2, fleet.countFloatingShips());
+
+        // o navio é afundado diretamente, sem passar pelo jogo
+        barca.shoot(Position.of(0, 0));
+        assertEquals(1, fleet.countFloatingShips());
+        barca.shoot(Position.of(0, 0));
+        assertEquals(1, fleet.countFloatingShips());
+        nau.shoot(nau.getPositions().get(0));
+        assertEquals(1, fleet.countFloatingShips());
+
+        // um navio já afundado quando é acrescentado nunca conta como a flutuar
+        IShip other = Ship.buildShip("barca", Compass.NORTH, Position.of(9, 9));
+        other.shoot(Position.of(9, 9));
+        assertTrue(fleet.addShip(other));
+        assertEquals(1, fleet.countFloatingShips());
+        assertEquals(fleet.getFloatingShips().size(), fleet.countFloatingShips());
+    }
+}
@@ -0,0 +1,121 @@
+package iscteiul.ista.battleship;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes de ida e volta de {@link GameCodec} em JSON: a frota e o jogo lidos têm de ter o mesmo
+ * estado que os escritos, e voltar a codificá-los tem de produzir os mesmos bytes.
+ */
+class GameCodecTest {
+
+    private final GameCodec codec = GameCodec.json();
+
+    /**
+     * Joga uma partida parcial com tiros aleatórios, incluindo tiros fora do tabuleiro e repetidos.
+     *
+     * @param seed  A semente da frota e dos tiros.
+     * @param shots O número de tiros.
+     * @return O jogo no estado final.
+     */
+    private static Game play(long seed, int shots) {
+        Game game = new Game(new FleetGenerator(seed).generate(0));
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < shots; i++)
+            game.fire(Position.of(random.nextInt(12) - 1, random.nextInt(10)));
+        return game;
+    }
+
+    /**
+     * Verifica que as duas frotas têm os mesmos navios, com as mesmas posições atingidas.
+     *
+     * @param expected A frota escrita.
+     * @param fleet    A frota lida.
+     */
+    private static void assertSameFleet(IFleet expected, IFleet fleet) {
+        assertEquals(expected.getBoardSize(), fleet.getBoardSize());
+        List<IShip> ships = fleet.getShips();
+        assertEquals(expected.getShips().size(), ships.size());
+        for (int i = 0; i < ships.size(); i++) {
+            IShip s = expected.getShips().get(i);
+            assertEquals(s.toString(), ships.get(i).toString());
+            for (IPosition p : s.getPositions())
+                assertEquals(s.isHitAt(p), ships.get(i).isHitAt(p), s + " " + p);
+        }
+        assertEquals(expected.countFloatingShips(), fleet.countFloatingShips());
+    }
+
+    @Test
+    void fleetRoundTripKeepsTheHits() throws IOException {
+        for (long seed = 0; seed < 50; seed++) {
+            IFleet fleet = play(seed, (int) seed * 4).getFleet();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            codec.writeFleet(fleet, out);
+            IFleet read = codec.readFleet(new ByteArrayInputStream(out.toByteArray()));
+            assertSameFleet(fleet, read);
+
+            ByteArrayOutputStream again = new ByteArrayOutputStream();
+            codec.writeFleet(read, again);
+            assertArrayEquals(out.toByteArray(), again.toByteArray());
+        }
+    }
+
+    @Test
+    void gameRoundTripReplaysTheShots() throws IOException {
+        for (long seed = 0; seed < 50; seed++) {
+            Game game = play(seed, (int) seed * 4);
+            byte[] bytes = codec.toBytes(game);
+            Game read = codec.fromBytes(bytes);
+
+            assertEquals(game.getShots(), read.getShots());
+            assertEquals(game.getInvalidShots(), read.getInvalidShots());
+            assertEquals(game.getRepeatedShots(), read.getRepeatedShots());
+            assertEquals(game.getHits(), read.getHits());
+            assertEquals(game.getSunkShips(), read.getSunkShips());
+            assertEquals(game.getRemainingShips(), read.getRemainingShips());
+            assertSameFleet(game.getFleet(), read.getFleet());
+            assertArrayEquals(bytes, codec.toBytes(read));
+        }
+    }
+
+    @Test
+    void skipsUnknownFields() throws IOException {
+        String json = "{\"version\":{\"x\":[1,2]},\"fleet\":{\"boardSize\":10,\"extra\":[],\"ships\":"
+                + "[{\"kind\":\"nau\",\"bearing\":\"e\",\"row\":7,\"column\":4,\"hits\":5,\"note\":\"a\"}]},"
+                + "\"shots\":[75],\"invalid\":2,\"repeated\":1}";
+        Game game = codec.fromBytes(json.getBytes(StandardCharsets.UTF_8));
+        IShip nau = game.getFleet().getShips().get(0);
+        // as posições 0 e 2 vêm da máscara, a 1 do disparo na célula 75
+        assertEquals(0, game.getRemainingShips());
+        assertEquals(1, game.getSunkShips());
+        assertEquals(2, game.getInvalidShots());
+        assertEquals(1, game.getRepeatedShots());
+        assertEquals("[Nau e Linha = 7 Coluna = 4]", nau.toString());
+    }
+
+    @Test
+    void rejectsInvalidDocuments() {
+        String[] invalid = {
+                "[]",
+                "{\"shots\":[1]}",
+                "{\"invalid\":1}",
+                "{\"fleet\":{\"ships\":[]}}",
+                "{\"fleet\":{\"boardSize\":10,\"ships\":[{\"row\":0}]}}",
+                "{\"fleet\":{\"boardSize\":10,\"ships\":[{\"kind\":\"submarino\"}]}}",
+                "{\"fleet\":{\"boardSize\":10,\"ships\":[{\"kind\":\"barca\"},{\"kind\":\"barca\",\"row\":1}]}}",
+                "{\"fleet\":{\"boardSize\":10,\"ships\":[{\"kind\":\"galeao\",\"row\":9,\"column\":9}]}}",
+                "{\"fleet\":{\"boardSize\":10,\"ships\":[]"};
+        for (String json : invalid)
+            assertThrows(IOException.class, () -> codec.fromBytes(json.getBytes(StandardCharsets.UTF_8)), json);
+    }
+}
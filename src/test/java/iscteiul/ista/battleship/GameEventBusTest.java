@@ -0,0 +1,184 @@
+package iscteiul.ista.battleship;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Testes de {@link GameEventBus} com um buffer de 8 eventos: partidas completas publicadas com
+ * várias voltas ao buffer, um subscritor lento que obriga a descartar eventos, e a entrega dos
+ * eventos pendentes por {@link GameEventBus#flush()} e {@link GameEventBus#close()}.
+ */
+class GameEventBusTest {
+
+    /** Capacidade do buffer usada nos testes. */
+    private static final int CAPACITY = 8;
+
+    /**
+     * Subscritor que regista cada evento recebido como texto, com o seu número de sequência.
+     */
+    private static class Recorder implements GameEventListener {
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        final List<Long> sequences = Collections.synchronizedList(new ArrayList<>());
+
+        /**
+         * Regista os eventos do lote.
+         *
+         * @param batch Os eventos do lote.
+         */
+        @Override
+        public void onEvents(GameEventBatch batch) {
+            for (int i = 0; i < batch.size(); i++) {
+                sequences.add(batch.getSequence(i));
+                events.add(describe(batch.getType(i), batch.getRow(i), batch.getColumn(i), batch.getShip(i)));
+            }
+        }
+    }
+
+    /**
+     * Descreve um evento de forma comparável.
+     *
+     * @param type   O tipo do evento.
+     * @param row    A linha.
+     * @param column A coluna.
+     * @param ship   O navio, ou null.
+     * @return A descrição do evento.
+     */
+    private static String describe(GameEventType type, int row, int column, IShip ship) {
+        return type + " " + row + " " + column + " " + (ship == null ? "-" : ship.getCategory());
+    }
+
+    /**
+     * Joga uma partida completa: um tiro inválido, todas as células do tabuleiro e um tiro repetido.
+     *
+     * @param game     O jogo.
+     * @param expected A lista onde acrescentar a descrição dos eventos que o bus deve publicar.
+     * @param bus      O bus a esvaziar depois de cada tiro, ou null para disparar sem esperar.
+     * @throws InterruptedException Se a espera pelo bus for interrompida.
+     */
+    private static void play(Game game, List<String> expected, GameEventBus bus) throws InterruptedException {
+        game.addObserver((row, column, outcome, ship) -> {
+            expected.add(describe(GameEventType.of(outcome), row, column, outcome.isHit() ? ship : null));
+            if (outcome == ShotOutcome.SUNK && game.getRemainingShips() == 0)
+                expected.add(describe(GameEventType.FLEET_DESTROYED, row, column, null));
+        });
+        int size = game.getFleet().getBoardSize();
+        List<IPosition> targets = new ArrayList<>();
+        targets.add(Position.of(-1, 0));
+        for (int cell = 0; cell < size * size; cell++)
+            targets.add(Position.of(cell / size, cell % size));
+        targets.add(Position.of(0, 0));
+        for (IPosition p : targets) {
+            game.fire(p);
+            if (bus != null)
+                bus.flush();
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void deliversWholeGamesAcrossManyLaps() throws InterruptedException {
+        GameEventBus bus = new GameEventBus(CAPACITY);
+        Recorder recorder = new Recorder();
+        bus.subscribe("recorder", recorder);
+        List<String> expected = new ArrayList<>();
+        FleetGenerator generator = new FleetGenerator(31);
+        for (int i = 0; i < 3; i++) {
+            Game game = new Game(generator.generate(i));
+            bus.attach(game);
+            play(game, expected, bus);
+        }
+        bus.close();
+
+        // 3 partidas de 102 tiros mais uma frota destruída cada: dezenas de voltas ao buffer
+        assertEquals(3 * (102 + 1), expected.size());
+        assertEquals(expected, recorder.events);
+        assertEquals(expected.size(), bus.getPublishedEvents());
+        assertEquals(0, bus.getDroppedEvents());
+        for (int i = 0; i < recorder.sequences.size(); i++)
+            assertEquals(i, recorder.sequences.get(i).longValue());
+
+        // a frota destruída segue imediatamente o último afundamento de cada partida
+        int destroyed = 0;
+        for (int i = 0; i < expected.size(); i++)
+            if (expected.get(i).startsWith("FLEET_DESTROYED")) {
+                destroyed++;
+                assertTrue(expected.get(i - 1).startsWith("SUNK"), expected.get(i - 1));
+            }
+        assertEquals(3, destroyed);
+    }
+
+    @Test
+    @Timeout(10)
+    void slowSubscriberDropsEventsWithoutBlockingTheGame() throws InterruptedException {
+        GameEventBus bus = new GameEventBus(CAPACITY);
+        CountDownLatch release = new CountDownLatch(1);
+        Recorder recorder = new Recorder() {
+            @Override
+            public void onEvents(GameEventBatch batch) {
+                super.onEvents(batch);
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        bus.subscribe("lento", recorder);
+        Recorder fast = new Recorder();
+        bus.subscribe("rapido", fast);
+
+        // o subscritor lento fica preso no primeiro lote: só cabem no buffer os primeiros 8 eventos
+        Game game = new Game(new FleetGenerator(32).generate(0));
+        bus.attach(game);
+        List<String> expected = new ArrayList<>();
+        play(game, expected, null);
+        assertEquals(CAPACITY, bus.getPublishedEvents());
+        assertEquals(expected.size() - CAPACITY, bus.getDroppedEvents());
+
+        release.countDown();
+        bus.flush();
+        assertEquals(expected.subList(0, CAPACITY), recorder.events);
+        assertEquals(expected.subList(0, CAPACITY), fast.events);
+
+        // depois de esvaziado, o buffer volta a aceitar eventos, entregues por close()
+        Game next = new Game(new FleetGenerator(32).generate(1));
+        bus.attach(next);
+        next.fire(Position.of(-1, -1));
+        next.fire(Position.of(0, 0));
+        next.fire(Position.of(0, 0));
+        bus.close();
+        assertEquals(CAPACITY + 3, bus.getPublishedEvents());
+        assertEquals(expected.size() - CAPACITY, bus.getDroppedEvents());
+        assertEquals(CAPACITY + 3, recorder.events.size());
+        assertEquals(recorder.events, fast.events);
+        assertEquals(describe(GameEventType.INVALID, -1, -1, null), recorder.events.get(CAPACITY));
+        assertEquals(describe(GameEventType.REPEATED, 0, 0, null), recorder.events.get(CAPACITY + 2));
+        for (int i = 0; i < recorder.sequences.size(); i++)
+            assertEquals(i, recorder.sequences.get(i).longValue());
+    }
+
+    @Test
+    void listenerFailuresDoNotStopDelivery() throws InterruptedException {
+        GameEventBus bus = new GameEventBus(CAPACITY);
+        Recorder recorder = new Recorder();
+        bus.subscribe("falha", batch -> {
+            throw new IllegalStateException("falha no subscritor");
+        });
+        bus.subscribe("recorder", recorder);
+        Game game = new Game(new FleetGenerator(33).generate(0));
+        bus.attach(game);
+        List<String> expected = new ArrayList<>();
+        play(game, expected, bus);
+        bus.close();
+        assertEquals(expected, recorder.events);
+    }
+}
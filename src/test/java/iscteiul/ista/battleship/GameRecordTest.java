@@ -0,0 +1,156 @@
+package iscteiul.ista.battleship;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes de ida e volta de {@link GameRecordWriter} e {@link GameRecordReader}: cada jogo lido
+ * tem de reproduzir a frota, os disparos e os resultados do jogo gravado.
+ */
+class GameRecordTest {
+
+    private Path file;
+
+    @BeforeEach
+    void createFile() throws IOException {
+        file = Files.createTempFile("games", ".bsgr");
+        Files.delete(file);
+    }
+
+    @AfterEach
+    void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Joga uma partida com tiros aleatórios, incluindo tiros fora do tabuleiro e repetidos.
+     *
+     * @param game   O jogo, já ligado ao escritor.
+     * @param random O gerador dos tiros.
+     * @param shots  O número de tiros.
+     * @return Os tiros disparados, como pares {célula ou -1, código do resultado}.
+     */
+    private static List<int[]> play(Game game, SplittableRandom random, int shots) {
+        List<int[]> fired = new ArrayList<>();
+        for (int i = 0; i < shots; i++) {
+            int row = random.nextInt(12) - 1;
+            int column = random.nextInt(10);
+            game.fire(Position.of(row, column));
+            int cell = row < 0 || row >= 10 ? -1 : row * 10 + column;
+            fired.add(new int[]{cell, game.getLastOutcome().getCode()});
+        }
+        return fired;
+    }
+
+    /**
+     * Verifica que as duas frotas ocupam as mesmas células com navios da mesma categoria.
+     *
+     * @param expected A frota gravada.
+     * @param fleet    A frota lida do arquivo.
+     */
+    private static void assertSameFleet(IFleet expected, IFleet fleet) {
+        assertEquals(expected.getShips().size(), fleet.getShips().size());
+        for (int row = 0; row < 10; row++)
+            for (int column = 0; column < 10; column++) {
+                IShip s = expected.shipAt(Position.of(row, column));
+                IShip t = fleet.shipAt(Position.of(row, column));
+                assertEquals(s == null, t == null, row + " " + column);
+                if (s != null)
+                    assertEquals(s.getCategory(), t.getCategory());
+            }
+    }
+
+    @Test
+    void roundTripsFleetsAndShots() throws IOException {
+        FleetGenerator generator = new FleetGenerator(15);
+        SplittableRandom random = new SplittableRandom(15);
+        List<List<int[]>> games = new ArrayList<>();
+        // cerca de 3000 jogos enchem o buffer de escrita várias vezes
+        int count = 3000;
+        try (GameRecordWriter writer = new GameRecordWriter(file)) {
+            for (int i = 0; i < count; i++) {
+                games.add(play(writer.newGame(generator.generate(i)), random, i % 300));
+                writer.endGame();
+            }
+            assertEquals(count, writer.getGames());
+        }
+
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            assertEquals(IFleet.BOARD_SIZE, reader.getBoardSize());
+            for (int i = 0; i < count; i++) {
+                assertTrue(reader.next());
+                List<int[]> shots = games.get(i);
+                assertEquals(shots.size(), reader.getShotCount());
+                for (int j = 0; j < shots.size(); j++) {
+                    assertEquals(shots.get(j)[0], reader.getShotCell(j));
+                    assertEquals(shots.get(j)[1], reader.getShotOutcome(j).getCode());
+                }
+                IFleet fleet = generator.generate(i);
+                assertSameFleet(fleet, reader.fleet());
+                Game replayed = reader.replay();
+                assertEquals(shots.size() - replayed.getInvalidShots() - replayed.getRepeatedShots(),
+                        replayed.getShots().size());
+            }
+            assertFalse(reader.next());
+            assertEquals(count, reader.getGames());
+        }
+    }
+
+    @Test
+    void appendsToAnExistingArchive() throws IOException {
+        FleetGenerator generator = new FleetGenerator(16);
+        for (int i = 0; i < 3; i++)
+            try (GameRecordWriter writer = new GameRecordWriter(file)) {
+                Game game = writer.newGame(generator.generate(i));
+                game.fire(Position.of(i, i));
+                writer.endGame();
+            }
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(reader.next());
+                assertEquals(1, reader.getShotCount());
+                assertEquals(i * 11, reader.getShotCell(0));
+                assertSameFleet(generator.generate(i), reader.fleet());
+            }
+            assertFalse(reader.next());
+        }
+        assertThrows(IllegalStateException.class, () -> new GameRecordWriter(file, 8).close());
+    }
+
+    @Test
+    void rejectsGamesOutOfOrder() throws IOException {
+        try (GameRecordWriter writer = new GameRecordWriter(file)) {
+            assertThrows(IllegalStateException.class, writer::endGame);
+            IFleet fleet = new FleetGenerator(17).generate(0);
+            Game game = writer.newGame(fleet);
+            assertNotNull(game);
+            assertThrows(IllegalStateException.class, () -> writer.startGame(fleet));
+            writer.endGame();
+            // uma frota incompleta não tem colocação para todos os navios
+            Fleet partial = new Fleet();
+            partial.addShip(fleet.getShips().get(0));
+            assertThrows(IllegalArgumentException.class, () -> writer.startGame(partial));
+            assertEquals(1, writer.getGames());
+        }
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            assertTrue(reader.next());
+            assertEquals(0, reader.getShotCount());
+            assertSame(ShipShape.fleetSlots()[0], reader.getShipShape(0));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package iscteiul.ista.battleship;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes de {@link GameRepository} sobre uma base de dados SQLite num diretório temporário:
+ * gravação de frotas e disparos pela thread de escrita, consultas e fecho do repositório.
+ */
+class GameRepositoryTest {
+
+    /** Categorias dos navios de uma frota regulamentar. */
+    private static final String[] CATEGORIES = {"Galeao", "Fragata", "Nau", "Caravela", "Barca"};
+
+    private Path directory;
+    private Path file;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("games");
+        file = directory.resolve("games.db");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        // o modo WAL cria ficheiros auxiliares ao lado da base de dados
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator)
+                Files.delete(p);
+        }
+    }
+
+    @Test
+    void recordsGamesAndShots() throws SQLException, IOException {
+        FleetGenerator generator = new FleetGenerator(16);
+        try (GameRepository repository = new GameRepository(file)) {
+            Game game = repository.newGame(generator.generate(0));
+            for (int cell = 0; cell < 100; cell++)
+                game.fire(Position.of(cell / 10, cell % 10));
+            game.fire(Position.of(0, 0));
+            game.fire(Position.of(-1, 3));
+            repository.flush();
+
+            assertEquals(1, repository.countGames());
+            assertEquals(75, repository.countShots(ShotOutcome.MISS));
+            assertEquals(25 - 11, repository.countShots(ShotOutcome.HIT));
+            assertEquals(11, repository.countShots(ShotOutcome.SUNK));
+            assertEquals(1, repository.countShots(ShotOutcome.REPEATED));
+            assertEquals(1, repository.countShots(ShotOutcome.INVALID));
+            Map<String, Double> rates = repository.getHitRateByCategory();
+            assertEquals(CATEGORIES.length, rates.size());
+            for (String category : CATEGORIES)
+                assertEquals(1.0, rates.get(category), 1e-9, category);
+
+            // um segundo jogo só com tiros nas barcas: as restantes categorias ficam a meio
+            Game second = repository.newGame(generator.generate(1));
+            for (IShip s : second.getFleet().getShipsLike("Barca"))
+                second.fire(s.getPosition());
+            repository.flush();
+            assertEquals(2, repository.countGames());
+            assertEquals(15, repository.countShots(ShotOutcome.SUNK));
+            rates = repository.getHitRateByCategory();
+            assertEquals(1.0, rates.get("Barca"), 1e-9);
+            for (String category : CATEGORIES)
+                if (!category.equals("Barca"))
+                    assertEquals(0.5, rates.get(category), 1e-9, category);
+        }
+    }
+
+    @Test
+    void reopeningContinuesTheGameIds() throws SQLException, IOException {
+        FleetGenerator generator = new FleetGenerator(17);
+        try (GameRepository repository = new GameRepository(file)) {
+            assertEquals(1, repository.saveFleet(generator.generate(0)));
+            assertEquals(2, repository.saveFleet(generator.generate(1)));
+        }
+        // close() grava os pedidos pendentes mesmo sem flush()
+        try (GameRepository repository = new GameRepository(file)) {
+            assertEquals(2, repository.countGames());
+            assertEquals(3, repository.saveFleet(generator.generate(2)));
+            repository.flush();
+            assertEquals(3, repository.countGames());
+        }
+    }
+
+    @Test
+    void rejectsWritesAfterClose() throws SQLException, IOException {
+        GameRepository repository = new GameRepository(file);
+        Game game = repository.newGame(new FleetGenerator(18).generate(0));
+        repository.close();
+
+        assertThrows(IllegalStateException.class, () -> repository.saveFleet(new FleetGenerator(18).generate(1)));
+        assertThrows(IllegalStateException.class, () -> game.fire(Position.of(0, 0)));
+        assertThrows(IllegalStateException.class, repository::flush);
+        assertTrue(Files.exists(file));
+    }
+
+    @Test
+    void interruptedFlushDoesNotReportSuccess() throws SQLException, IOException {
+        try (GameRepository repository = new GameRepository(file)) {
+            repository.saveFleet(new FleetGenerator(19).generate(0));
+            Thread.currentThread().interrupt();
+            try {
+                assertThrows(SQLException.class, repository::flush);
+                assertTrue(Thread.interrupted());
+            } finally {
+                Thread.interrupted();
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package iscteiul.ista.battleship;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes do registo de tiros de {@link Game}, comparado com um modelo simples da partida
+ * baseado num {@link HashSet} de células alvejadas.
+ */
+class GameTest {
+
+    /**
+     * Modelo de referência de uma partida: células alvejadas, navios por célula e células por afundar.
+     */
+    private static final class Model {
+        private final int boardSize;
+        private final Set<Integer> fired = new HashSet<>();
+        private final List<IPosition> shots = new ArrayList<>();
+        private final Map<Integer, IShip> ships = new HashMap<>();
+        private final Map<IShip, Integer> intact = new HashMap<>();
+        private int invalid;
+        private int repeated;
+        private int hits;
+        private int sunk;
+
+        /**
+         * Construtor do modelo, a partir das posições dos navios da frota ainda intacta.
+         *
+         * @param fleet A frota da partida.
+         */
+        Model(IFleet fleet) {
+            boardSize = fleet.getBoardSize();
+            for (IShip s : fleet.getShips()) {
+                intact.put(s, s.getSize());
+                for (IPosition p : s.getPositions())
+                    ships.put(p.getRow() * boardSize + p.getColumn(), s);
+            }
+        }
+
+        /**
+         * Aplica um tiro ao modelo.
+         *
+         * @param row    A linha.
+         * @param column A coluna.
+         * @return O resultado esperado do tiro.
+         */
+        ShotOutcome fire(int row, int column) {
+            if (row < 0 || row >= boardSize || column < 0 || column >= boardSize) {
+                invalid++;
+                return ShotOutcome.INVALID;
+            }
+            int cell = row * boardSize + column;
+            if (!fired.add(cell)) {
+                repeated++;
+                return ShotOutcome.REPEATED;
+            }
+            shots.add(Position.of(row, column));
+            IShip s = ships.get(cell);
+            if (s == null)
+                return ShotOutcome.MISS;
+            hits++;
+            if (intact.merge(s, -1, Integer::sum) > 0)
+                return ShotOutcome.HIT;
+            sunk++;
+            return ShotOutcome.SUNK;
+        }
+    }
+
+    /**
+     * Verifica que os contadores e o registo de tiros do jogo coincidem com os do modelo.
+     *
+     * @param model O modelo de referência.
+     * @param game  O jogo.
+     */
+    private static void assertSameState(Model model, Game game) {
+        assertEquals(model.invalid, game.getInvalidShots());
+        assertEquals(model.repeated, game.getRepeatedShots());
+        assertEquals(model.hits, game.getHits());
+        assertEquals(model.sunk, game.getSunkShips());
+        assertEquals(model.shots, game.getShots());
+        assertEquals(game.getFleet().getShips().size() - model.sunk, game.getRemainingShips());
+    }
+
+    @Test
+    void randomShotsMatchTheModel() {
+        FleetGenerator generator = new FleetGenerator(11);
+        SplittableRandom random = new SplittableRandom(11);
+        for (int round = 0; round < 200; round++) {
+            Game game = new Game(generator.generate(round));
+            Model model = new Model(game.getFleet());
+            int[] volley = new int[5];
+            byte[] outcomes = new byte[volley.length];
+            for (int i = 0; i < 100; i++) {
+                // coordenadas entre -2 e 11 dão tiros inválidos, e 100 tiros num tabuleiro de 100 células dão repetidos
+                switch (random.nextInt(3)) {
+                    case 0: {
+                        int row = random.nextInt(14) - 2;
+                        int column = random.nextInt(14) - 2;
+                        ShotOutcome expected = model.fire(row, column);
+                        IShip sunk = game.fire(Position.of(row, column));
+                        assertEquals(expected, game.getLastOutcome());
+                        assertEquals(expected == ShotOutcome.SUNK, sunk != null);
+                        break;
+                    }
+                    case 1: {
+                        int row = random.nextInt(10);
+                        int column = random.nextInt(10);
+                        assertEquals(model.fire(row, column) == ShotOutcome.SUNK, game.fire(row * 10 + column) != null);
+                        break;
+                    }
+                    default: {
+                        List<ShotOutcome> expected = new ArrayList<>();
+                        int sunk = 0;
+                        for (int j = 0; j < volley.length; j++) {
+                            int row = random.nextInt(11);
+                            int column = random.nextInt(10);
+                            // a linha 10 é a célula 100 + coluna, fora do tabuleiro
+                            volley[j] = row * 10 + column;
+                            expected.add(model.fire(row, column));
+                            if (expected.get(j) == ShotOutcome.SUNK)
+                                sunk++;
+                        }
+                        assertEquals(sunk, game.fireVolley(volley, outcomes));
+                        for (int j = 0; j < volley.length; j++)
+                            assertSame(expected.get(j), ShotOutcome.fromCode(outcomes[j]));
+                    }
+                }
+                assertSameState(model, game);
+            }
+        }
+    }
+
+    @Test
+    void everyCellShotTwice() {
+        Game game = new Game(new FleetGenerator(3).generate(0));
+        Model model = new Model(game.getFleet());
+        for (int pass = 0; pass < 2; pass++)
+            for (int cell = 0; cell < 100; cell++) {
+                model.fire(cell / 10, cell % 10);
+                game.fire(cell);
+            }
+        assertSameState(model, game);
+        assertEquals(100, game.getShots().size());
+        assertEquals(100, game.getRepeatedShots());
+        assertEquals(0, game.getRemainingShips());
+        assertThrows(UnsupportedOperationException.class, () -> game.getShots().clear());
+    }
+
+    @Test
+    void volleyNeedsAnOutcomePerShot() {
+        Game game = new Game(new FleetGenerator(3).generate(0));
+        assertThrows(IllegalArgumentException.class, () -> game.fireVolley(new int[3], new byte[2]));
+        assertNull(game.getLastOutcome());
+        assertEquals(0, game.getShots().size());
+    }
+}
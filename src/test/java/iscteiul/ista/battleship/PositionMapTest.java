@@ -0,0 +1,194 @@
+package iscteiul.ista.battleship;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes de {@link PositionMap}, comparando cada operação com um {@link HashMap} de referência.
+ */
+class PositionMapTest {
+
+    /** Capacidade da tabela de um mapa criado sem dimensão. */
+    private static final int MIN_CAPACITY = 8;
+
+    /**
+     * Procura coordenadas cuja posição de origem numa tabela com a capacidade indicada é a pretendida.
+     *
+     * @param home     A posição de origem pretendida.
+     * @param capacity A capacidade da tabela.
+     * @param count    O número de coordenadas a devolver.
+     * @return As coordenadas encontradas, como pares {linha, coluna}.
+     */
+    static List<int[]> keysWithHome(int home, int capacity, int count) {
+        List<int[]> keys = new ArrayList<>();
+        for (int row = 0; keys.size() < count; row++)
+            for (int column = -3; column <= 3 && keys.size() < count; column++)
+                if ((PositionMap.mix(PositionMap.pack(row, column)) & (capacity - 1)) == home)
+                    keys.add(new int[]{row, column});
+        return keys;
+    }
+
+    /**
+     * Verifica que o mapa tem exatamente as entradas do mapa de referência.
+     *
+     * @param expected O mapa de referência, indexado pela chave empacotada.
+     * @param map      O mapa a verificar.
+     */
+    private static void assertSameEntries(Map<Long, Integer> expected, PositionMap<Integer> map) {
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Integer> e : expected.entrySet()) {
+            int row = (int) (e.getKey() >> 32);
+            int column = (int) (long) e.getKey();
+            assertEquals(e.getValue(), map.get(row, column), "(" + row + ", " + column + ")");
+        }
+        Map<Long, Integer> visited = new HashMap<>();
+        map.forEach((row, column, value) -> visited.put(PositionMap.pack(row, column), value));
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void putGetAndReplace() {
+        PositionMap<String> map = new PositionMap<>();
+        assertTrue(map.isEmpty());
+        assertNull(map.put(2, 3, "a"));
+        assertNull(map.put(Position.of(4, 5), "b"));
+        assertEquals("a", map.put(2, 3, "c"));
+
+        assertEquals(2, map.size());
+        assertEquals("c", map.get(Position.of(2, 3)));
+        assertEquals("b", map.get(4, 5));
+        assertNull(map.get(3, 2));
+        assertTrue(map.containsKey(new Position(4, 5)));
+        assertFalse(map.containsKey(5, 4));
+    }
+
+    @Test
+    void rejectsNullValuesAndNegativeSizes() {
+        PositionMap<String> map = new PositionMap<>();
+        assertThrows(NullPointerException.class, () -> map.put(0, 0, null));
+        assertThrows(IllegalArgumentException.class, () -> new PositionMap<String>(-1));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    void negativeAndOffBoardKeys() {
+        PositionMap<Integer> map = new PositionMap<>();
+        int[][] keys = {{-1, -1}, {-1, 0}, {0, -1}, {0, 0}, {Integer.MIN_VALUE, Integer.MIN_VALUE},
+                {Integer.MAX_VALUE, Integer.MIN_VALUE}, {Integer.MIN_VALUE, Integer.MAX_VALUE}, {1_000_000, -7}};
+        for (int i = 0; i < keys.length; i++)
+            assertNull(map.put(keys[i][0], keys[i][1], i));
+        for (int i = 0; i < keys.length; i++)
+            assertEquals(i, map.get(keys[i][0], keys[i][1]));
+
+        List<int[]> visited = new ArrayList<>();
+        map.forEach((row, column, value) -> visited.add(new int[]{row, column, value}));
+        assertEquals(keys.length, visited.size());
+        for (int[] v : visited) {
+            assertEquals(keys[v[2]][0], v[0]);
+            assertEquals(keys[v[2]][1], v[1]);
+        }
+    }
+
+    @Test
+    void probeChainAcrossTheWrapBoundary() {
+        // três chaves com origem na última posição ocupam as posições 7, 0 e 1; a seguinte, com origem em 0, fica em 2
+        List<int[]> last = keysWithHome(MIN_CAPACITY - 1, MIN_CAPACITY, 3);
+        int[] first = keysWithHome(0, MIN_CAPACITY, 1).get(0);
+        PositionMap<Integer> map = new PositionMap<>();
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < last.size(); i++) {
+            map.put(last.get(i)[0], last.get(i)[1], i);
+            expected.put(PositionMap.pack(last.get(i)[0], last.get(i)[1]), i);
+        }
+        map.put(first[0], first[1], 99);
+        expected.put(PositionMap.pack(first[0], first[1]), 99);
+        assertSameEntries(expected, map);
+
+        // remover a cabeça da cadeia obriga a recuar as restantes chaves através da fronteira
+        assertEquals(0, map.remove(last.get(0)[0], last.get(0)[1]));
+        expected.remove(PositionMap.pack(last.get(0)[0], last.get(0)[1]));
+        assertSameEntries(expected, map);
+
+        assertEquals(99, map.remove(first[0], first[1]));
+        expected.remove(PositionMap.pack(first[0], first[1]));
+        assertSameEntries(expected, map);
+    }
+
+    @Test
+    void removeFromTheMiddleOfAProbeChain() {
+        List<int[]> chain = keysWithHome(3, MIN_CAPACITY, 5);
+        for (int victim = 0; victim < chain.size(); victim++) {
+            PositionMap<Integer> map = new PositionMap<>();
+            Map<Long, Integer> expected = new HashMap<>();
+            // 5 chaves é o limite antes de a tabela crescer, pelo que a cadeia fica inteira
+            for (int i = 0; i < chain.size(); i++) {
+                map.put(chain.get(i)[0], chain.get(i)[1], i);
+                expected.put(PositionMap.pack(chain.get(i)[0], chain.get(i)[1]), i);
+            }
+            int[] key = chain.get(victim);
+            assertEquals(victim, map.remove(key[0], key[1]));
+            assertNull(map.remove(key[0], key[1]));
+            expected.remove(PositionMap.pack(key[0], key[1]));
+            assertSameEntries(expected, map);
+        }
+    }
+
+    @Test
+    void growsAndKeepsEveryEntry() {
+        PositionMap<Integer> map = new PositionMap<>();
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            int row = i / 317 - 150;
+            int column = i % 317 * 31 - 5000;
+            map.put(row, column, i);
+            expected.put(PositionMap.pack(row, column), i);
+        }
+        assertSameEntries(expected, map);
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(0, 0));
+        map.put(0, 0, 1);
+        assertEquals(1, map.get(0, 0));
+    }
+
+    @Test
+    void randomOperationsMatchHashMap() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int round = 0; round < 20; round++) {
+            // coordenadas num intervalo pequeno forçam repetições, remoções de chaves presentes e cadeias longas
+            int range = round % 2 == 0 ? 16 : 100_000;
+            PositionMap<Integer> map = new PositionMap<>(round);
+            Map<Long, Integer> expected = new HashMap<>();
+            for (int i = 0; i < 20_000; i++) {
+                int row = random.nextInt(range) - range / 2;
+                int column = random.nextInt(range) - range / 2;
+                long key = PositionMap.pack(row, column);
+                switch (random.nextInt(3)) {
+                    case 0:
+                        assertEquals(expected.put(key, i), map.put(row, column, i));
+                        break;
+                    case 1:
+                        assertEquals(expected.remove(key), map.remove(row, column));
+                        break;
+                    default:
+                        assertEquals(expected.get(key), map.get(row, column));
+                        assertEquals(expected.containsKey(key), map.containsKey(row, column));
+                }
+                assertEquals(expected.size(), map.size());
+            }
+            assertSameEntries(expected, map);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package iscteiul.ista.battleship;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes de {@link PositionSet}, comparando cada operação com um {@link HashSet} de referência.
+ */
+class PositionSetTest {
+
+    /**
+     * Verifica que o conjunto tem exatamente as coordenadas do conjunto de referência.
+     *
+     * @param expected O conjunto de referência, com as chaves empacotadas.
+     * @param set      O conjunto a verificar.
+     */
+    private static void assertSameKeys(Set<Long> expected, PositionSet set) {
+        assertEquals(expected.size(), set.size());
+        for (long key : expected)
+            assertTrue(set.contains((int) (key >> 32), (int) key));
+        Set<Long> visited = new HashSet<>();
+        set.forEach((row, column) -> assertTrue(visited.add(PositionMap.pack(row, column))));
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void addContainsAndRemove() {
+        PositionSet set = new PositionSet();
+        assertTrue(set.isEmpty());
+        assertTrue(set.add(1, 2));
+        assertFalse(set.add(Position.of(1, 2)));
+        assertTrue(set.add(new Position(-4, 7)));
+
+        assertEquals(2, set.size());
+        assertTrue(set.contains(Position.of(1, 2)));
+        assertTrue(set.contains(-4, 7));
+        assertFalse(set.contains(2, 1));
+
+        assertTrue(set.remove(1, 2));
+        assertFalse(set.remove(Position.of(1, 2)));
+        assertEquals(1, set.size());
+        assertThrows(IllegalArgumentException.class, () -> new PositionSet(-1));
+    }
+
+    @Test
+    void toListReturnsImmutableCoordinates() {
+        PositionSet set = new PositionSet();
+        set.add(3, 3);
+        set.add(-1, 20);
+        List<IPosition> positions = set.toList();
+        assertEquals(2, positions.size());
+        assertTrue(positions.contains(Position.of(3, 3)));
+        assertTrue(positions.contains(Position.of(-1, 20)));
+        assertThrows(UnsupportedOperationException.class, () -> positions.get(0).shoot());
+    }
+
+    @Test
+    void removeAcrossTheWrapBoundaryAndFromChains() {
+        List<int[]> chain = PositionMapTest.keysWithHome(7, 8, 4);
+        for (int victim = 0; victim < chain.size(); victim++) {
+            PositionSet set = new PositionSet();
+            Set<Long> expected = new HashSet<>();
+            for (int[] key : chain) {
+                set.add(key[0], key[1]);
+                expected.add(PositionMap.pack(key[0], key[1]));
+            }
+            int[] key = chain.get(victim);
+            assertTrue(set.remove(key[0], key[1]));
+            expected.remove(PositionMap.pack(key[0], key[1]));
+            assertSameKeys(expected, set);
+        }
+    }
+
+    @Test
+    void randomOperationsMatchHashSet() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int round = 0; round < 20; round++) {
+            int range = round % 2 == 0 ? 16 : 1 << 20;
+            PositionSet set = new PositionSet();
+            Set<Long> expected = new HashSet<>();
+            for (int i = 0; i < 20_000; i++) {
+                int row = random.nextInt(range) - range / 2;
+                int column = random.nextInt(range) - range / 2;
+                long key = PositionMap.pack(row, column);
+                switch (random.nextInt(3)) {
+                    case 0:
+                        assertEquals(expected.add(key), set.add(row, column));
+                        break;
+                    case 1:
+                        assertEquals(expected.remove(key), set.remove(row, column));
+                        break;
+                    default:
+                        assertEquals(expected.contains(key), set.contains(row, column));
+                }
+            }
+            assertSameKeys(expected, set);
+            set.clear();
+            assertTrue(set.isEmpty());
+            assertFalse(set.contains(0, 0));
+        }
+    }
+}
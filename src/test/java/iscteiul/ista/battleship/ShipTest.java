@@ -0,0 +1,118 @@
+package iscteiul.ista.battleship;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes da caixa envolvente e do contador de acertos de {@link Ship}, comparados com o que
+ * se obtém percorrendo as posições do navio.
+ */
+class ShipTest {
+
+    /** Orientações válidas dos navios. */
+    private static final Compass[] BEARINGS = {Compass.NORTH, Compass.SOUTH, Compass.EAST, Compass.WEST};
+
+    /**
+     * Constrói um navio de cada tipo e orientação em várias posições, incluindo fora do tabuleiro.
+     *
+     * @return Os navios construídos.
+     */
+    private static List<Ship> allShips() {
+        List<Ship> ships = new ArrayList<>();
+        int[][] origins = {{0, 0}, {4, 7}, {-3, 2}, {9, -5}, {46339, 46339}};
+        for (ShipShape shape : ShipShape.values())
+            for (Compass bearing : BEARINGS)
+                for (int[] origin : origins) {
+                    Ship s = Ship.buildShip(shape.getKind(), bearing, Position.of(origin[0], origin[1]));
+                    assertNotNull(s, shape.getKind());
+                    ships.add(s);
+                }
+        return ships;
+    }
+
+    @Test
+    void boundingBoxMatchesThePositions() {
+        for (Ship s : allShips()) {
+            int top = Integer.MAX_VALUE;
+            int bottom = Integer.MIN_VALUE;
+            int left = Integer.MAX_VALUE;
+            int right = Integer.MIN_VALUE;
+            for (IPosition p : s.getPositions()) {
+                top = Math.min(top, p.getRow());
+                bottom = Math.max(bottom, p.getRow());
+                left = Math.min(left, p.getColumn());
+                right = Math.max(right, p.getColumn());
+            }
+            assertEquals(top, s.getTopMostPos(), s.toString());
+            assertEquals(bottom, s.getBottomMostPos(), s.toString());
+            assertEquals(left, s.getLeftMostPos(), s.toString());
+            assertEquals(right, s.getRightMostPos(), s.toString());
+        }
+    }
+
+    @Test
+    void occupiesOnlyItsPositions() {
+        for (Ship s : allShips()) {
+            Set<Long> cells = new HashSet<>();
+            for (IPosition p : s.getPositions())
+                cells.add(PositionMap.pack(p.getRow(), p.getColumn()));
+            assertEquals(s.getSize(), cells.size(), s.toString());
+            for (int row = s.getTopMostPos() - 2; row <= s.getBottomMostPos() + 2; row++)
+                for (int column = s.getLeftMostPos() - 2; column <= s.getRightMostPos() + 2; column++)
+                    assertEquals(cells.contains(PositionMap.pack(row, column)), s.occupies(new Position(row, column)),
+                            s + " " + row + " " + column);
+        }
+    }
+
+    @Test
+    void sinksOnceEveryDistinctCellIsHit() {
+        SplittableRandom random = new SplittableRandom(5);
+        for (Ship s : allShips()) {
+            boolean byCell = s.getTopMostPos() >= 0 && s.getLeftMostPos() >= 0 && s.getRightMostPos() < 1000;
+            List<IPosition> targets = new ArrayList<>(s.getPositions());
+            Set<IPosition> hit = new HashSet<>();
+            // tiros repetidos e ao lado do navio não contam para o afundar
+            for (int i = 0; hit.size() < s.getSize(); i++) {
+                assertTrue(s.stillFloating(), s.toString());
+                IPosition p = targets.get(random.nextInt(targets.size()));
+                if (i % 3 == 0) {
+                    IPosition miss = Position.of(s.getBottomMostPos() + 1, p.getColumn());
+                    s.shoot(miss);
+                    assertFalse(s.isHitAt(miss));
+                }
+                if (byCell)
+                    s.shoot(p.getRow() * 1000 + p.getColumn(), 1000);
+                else
+                    s.shoot(p);
+                hit.add(p);
+                for (IPosition q : targets)
+                    assertEquals(hit.contains(q), s.isHitAt(q));
+            }
+            assertFalse(s.stillFloating(), s.toString());
+            s.shoot(targets.get(0));
+            assertFalse(s.stillFloating());
+        }
+    }
+
+    @Test
+    void positionsAreReadOnly() {
+        for (Ship s : allShips()) {
+            List<IPosition> positions = s.getPositions();
+            assertThrows(UnsupportedOperationException.class, () -> positions.add(Position.of(0, 0)));
+            assertThrows(UnsupportedOperationException.class, () -> positions.remove(0));
+            assertThrows(UnsupportedOperationException.class, () -> positions.set(0, Position.of(0, 0)));
+            assertEquals(s.getSize().intValue(), positions.size(), s.toString());
+        }
+    }
+}